@@ -1,9 +1,18 @@
 package mx.unam.fi.cine;
 
 import java.io.*;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import mx.unam.fi.cine.controlador.*;
 import mx.unam.fi.cine.modelo.*;
 
@@ -38,16 +47,52 @@ public class CineByt {
     
     /** Lista maestra de todos los usuarios registrados (Clientes y Empleados). */
     private static List<Usuario> usuarios;
+
+    /** Repositorio con índice por nickname sobre {@code usuarios}, usado para login y registro. */
+    private static UsuarioRepositorio repositorioUsuarios;
     
     /** Lista maestra del catálogo de películas. */
     private static List<Pelicula> peliculas;
+
+    /** Catálogo con identificador estable sobre {@code peliculas}; las funciones comparten sus instancias. */
+    private static CatalogoPeliculas catalogoPeliculas;
     
     /** Lista maestra de la cartelera (Funciones programadas). */
     private static List<Funcion> funciones;
+
+    /** Índice de la cartelera por película y fecha, mantenido junto con {@code funciones}. */
+    private static IndiceFunciones indiceFunciones;
+
+    /** Agenda de ocupación por sala, utilizada para validar cruces de horario. */
+    private static AgendaSalas agendaSalas;
+
+    /** Libro único de boletos vendidos, indexado por cliente. */
+    private static LibroBoletos libroBoletos;
+
+    /** Archivo de ocupación mapeado en memoria; {@code null} si el modo no está activo. */
+    private static AsientosMapeados asientosMapeados;
+
+    /** Cocina de la dulcería compartida por todas las sesiones de clientes. */
+    private static CocinaDulceria cocinaDulceria;
+
+    /** Registro en memoria del estado de las órdenes de dulcería y de los avisos de cada cliente. */
+    private static RegistroOrdenes registroOrdenes;
+
+    /** Catálogo de precios de la dulcería, leído una vez y recargado al modificarse el archivo. */
+    private static CatalogoPrecios catalogoPrecios;
     
+    /** Preparación en segundo plano de la cartelera (películas, funciones, índices y libro de boletos). */
+    private static CompletableFuture<Void> cargaCartelera;
+
     /** Scanner global para la lectura de entrada estándar. */
     private static Scanner entrada = new Scanner(System.in);
 
+    /** Líneas mostradas por página al consultar historiales y notificaciones. */
+    private static final int LINEAS_POR_PAGINA = 20;
+
+    /** Formato de hora de los avisos de dulcería. */
+    private static final DateTimeFormatter FORMATO_AVISO = DateTimeFormatter.ofPattern("dd/MM HH:mm:ss");
+
     /**
      * Método principal de ejecución.
      * <p>
@@ -62,7 +107,7 @@ public class CineByt {
     public static void main(String[] args) {
         System.out.println("Iniciando App de Cinebyt...");
         
-        // 1. Carga de Persistencia
+        // 1. Carga de Persistencia (la cartelera continúa en segundo plano)
         cargarDatos(); 
         
         // 2. Validación de Seguridad (Bootstrap)
@@ -90,6 +135,13 @@ public class CineByt {
                     break;
                 case "3":
                     salir = true;
+                    cocinaDulceria.cerrar(); // Termina las órdenes de dulcería ya pagadas
+                    registroOrdenes.cerrar(); // Escribe los avisos pendientes de la bitácora de órdenes
+                    catalogoPrecios.cerrar();
+                    esperarCartelera();
+                    cerrarAsientosMapeados();
+                    PersistenciaDiferida.vaciar(); // Escribe los cambios administrativos y registros pendientes
+                    PoolEscritores.cerrarTodos();
                     System.out.println("Cerrando app... ¡Hasta luego!");
                     break;
                 default:
@@ -105,22 +157,257 @@ public class CineByt {
     /**
      * Recupera el estado de la aplicación desde los archivos binarios (.dat).
      * <p>
-     * Utiliza {@link GestorArchivos} para deserializar las listas maestras.
-     * Implementa un mecanismo de tolerancia a fallos: si los archivos no existen
-     * o están corruptos (primera ejecución), inicializa listas vacías para evitar {@code NullPointerException}.
+     * Utiliza {@link GestorArchivos} para deserializar las listas maestras. De la cartelera solo se cargan
+     * la semana actual y las futuras ({@link ParticionesFunciones#cargarVigentes}); las semanas pasadas
+     * se leen bajo demanda.
      * </p>
+     * <b>Carga Paralela y Aislada:</b>
+     * <ul>
+     * <li>Usuarios, películas y funciones se leen al mismo tiempo en hilos independientes, y se informa
+     * el tiempo de carga de cada archivo.</li>
+     * <li>Cada archivo maneja sus propios errores: si uno falta, solo esa lista inicia vacía; si está corrupto,
+     * además se aparta ({@link GestorArchivos#apartarArchivoCorrupto}) para que no se sobrescriba.</li>
+     * <li>El método regresa en cuanto los usuarios están listos, de modo que el menú principal (login y registro)
+     * se puede usar de inmediato. La cartelera termina de prepararse en segundo plano: se resuelven las películas
+     * de las funciones contra el catálogo ({@link #resolverPeliculas()}), se reaplica la bitácora
+     * de ventas ({@link #reproducirBitacoraVentas()}) y se construyen los índices de funciones (por película y
+     * fecha, y por sala) y de boletos vendidos (por cliente). Los menús que la requieren esperan a que
+     * concluya ({@link #esperarCartelera()}).</li>
+     * </ul>
      */
-    @SuppressWarnings("unchecked")
     private static void cargarDatos() {
+        ExecutorService cargadores = Executors.newFixedThreadPool(3, tarea -> {
+            Thread hilo = new Thread(tarea, "carga-datos");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+
+        CompletableFuture<List<Usuario>> futuroUsuarios =
+                CompletableFuture.supplyAsync(() -> CineByt.<Usuario>cargarLista("usuarios.dat"), cargadores);
+        CompletableFuture<List<Pelicula>> futuroPeliculas =
+                CompletableFuture.supplyAsync(() -> CineByt.<Pelicula>cargarLista("peliculas.dat"), cargadores);
+        CompletableFuture<List<Funcion>> futuroFunciones =
+                CompletableFuture.supplyAsync(CineByt::cargarFunciones, cargadores);
+
+        cargaCartelera = futuroPeliculas.thenAcceptBoth(futuroFunciones, (listaPeliculas, listaFunciones) -> {
+            peliculas = listaPeliculas;
+            funciones = listaFunciones;
+            long inicio = System.nanoTime();
+            reproducirBitacoraVentas();
+            resolverPeliculas(); // Después de la bitácora: puede programar una instantánea que la compacte
+            mapearAsientos();
+            indiceFunciones = new IndiceFunciones(funciones);
+            agendaSalas = new AgendaSalas(funciones);
+            libroBoletos = new LibroBoletos();
+            reportarCarga("índices y libro de boletos", -1, inicio);
+        });
+        cargadores.shutdown(); // Los hilos terminan al concluir las cargas ya enviadas
+
+        usuarios = futuroUsuarios.join();
+        repositorioUsuarios = new UsuarioRepositorio(usuarios);
+        registroOrdenes = new RegistroOrdenes();
+        cocinaDulceria = new CocinaDulceria(usuarios, registroOrdenes);
+        catalogoPrecios = new CatalogoPrecios();
+    }
+
+    /**
+     * Deserializa una lista maestra de forma aislada.
+     * <p>
+     * Si el archivo no existe (primera ejecución), devuelve una lista vacía. Si existe pero es ilegible,
+     * lo aparta como corrupto, informa la advertencia y devuelve una lista vacía.
+     *
+     * @param nombreArchivo Archivo a leer (ej. "usuarios.dat").
+     * @param <T>           Tipo de elemento de la lista.
+     * @return Lista mutable con los elementos leídos.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> cargarLista(String nombreArchivo) {
+        long inicio = System.nanoTime();
+        List<T> lista = new ArrayList<>();
+        if (GestorArchivos.existeArchivo(nombreArchivo)) {
+            try {
+                lista = (List<T>) GestorArchivos.leerObjeto(nombreArchivo);
+            } catch (IOException | ClassNotFoundException | ClassCastException e) {
+                String apartado = GestorArchivos.apartarArchivoCorrupto(nombreArchivo);
+                System.out.println("Advertencia: " + nombreArchivo + " es ilegible (" + e + "); "
+                        + (apartado != null ? "se conservó como " + apartado : "no se pudo apartar") + ". Se inicia vacío.");
+            }
+        }
+        reportarCarga(nombreArchivo, lista.size(), inicio);
+        return lista;
+    }
+
+    /**
+     * Carga la cartelera vigente. Las particiones ilegibles se apartan individualmente
+     * dentro de {@link ParticionesFunciones#cargarVigentes}, sin afectar a las demás.
+     *
+     * @return Lista mutable de funciones vigentes (vacía si no pudo leerse ninguna).
+     */
+    private static List<Funcion> cargarFunciones() {
+        long inicio = System.nanoTime();
+        List<Funcion> lista;
+        try {
+            lista = ParticionesFunciones.cargarVigentes(LocalDate.now());
+        } catch (IOException e) {
+            System.out.println("Advertencia: No se pudo cargar la cartelera: " + e.getMessage());
+            lista = new ArrayList<>();
+        }
+        reportarCarga("funciones", lista.size(), inicio);
+        return lista;
+    }
+
+    /**
+     * Informa el tiempo de una etapa de la carga inicial.
+     *
+     * @param etapa     Archivo o etapa cargada.
+     * @param registros Elementos cargados ({@code -1} si no aplica).
+     * @param inicio    Instante de inicio ({@link System#nanoTime()}).
+     */
+    private static void reportarCarga(String etapa, int registros, long inicio) {
+        long ms = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+        System.out.println("LOG SISTEMA: " + etapa + " cargado en " + ms + " ms"
+                + (registros >= 0 ? " (" + registros + " registros)." : "."));
+    }
+
+    /**
+     * Espera a que termine la preparación de la cartelera iniciada por {@link #cargarDatos()}.
+     * <p>
+     * Se invoca antes de entrar a los menús de administrador y cliente, y al salir. Si la preparación falló
+     * inesperadamente, se informa y se completan las estructuras faltantes vacías para que la aplicación siga operando.
+     */
+    private static void esperarCartelera() {
+        if (!cargaCartelera.isDone()) {
+            System.out.println("Terminando de cargar la cartelera...");
+        }
+        try {
+            cargaCartelera.join();
+        } catch (CompletionException e) {
+            System.out.println("Advertencia: No se pudo preparar la cartelera: " + e.getCause());
+        }
+        if (peliculas == null) peliculas = new ArrayList<>();
+        if (catalogoPeliculas == null) catalogoPeliculas = new CatalogoPeliculas(peliculas);
+        if (funciones == null) funciones = new ArrayList<>();
+        if (indiceFunciones == null) indiceFunciones = new IndiceFunciones(funciones);
+        if (agendaSalas == null) agendaSalas = new AgendaSalas(funciones);
+        if (libroBoletos == null) libroBoletos = new LibroBoletos();
+    }
+
+    /**
+     * Construye el catálogo de películas y enlaza cada función con la instancia compartida de su película.
+     * <p>
+     * Las funciones se deserializan de sus particiones con su propia copia de la película; tras la resolución
+     * ({@link CatalogoPeliculas#resolver}) todas apuntan al objeto de la lista maestra {@code peliculas}.
+     * Si hubo que asignar identificadores (datos anteriores) o recuperar películas ausentes del catálogo,
+     * se programa la persistencia de {@code peliculas.dat}.
+     * </p>
+     * El catálogo también se registra en {@link ParticionesFunciones#usarCatalogo} para que las semanas
+     * archivadas se resuelvan igual y las migradas se reescriban con el identificador de su película.
+     */
+    private static void resolverPeliculas() {
+        catalogoPeliculas = new CatalogoPeliculas(peliculas);
+        catalogoPeliculas.resolver(funciones);
         try {
-            usuarios = (List<Usuario>) GestorArchivos.leerObjeto("usuarios.dat");
-            peliculas = (List<Pelicula>) GestorArchivos.leerObjeto("peliculas.dat");
-            funciones = (List<Funcion>) GestorArchivos.leerObjeto("funciones.dat");
-        } catch (Exception e) {
-            // Fallback: Inicialización limpia si no hay datos previos
-            if (usuarios == null) usuarios = new ArrayList<>();
-            if (peliculas == null) peliculas = new ArrayList<>();
-            if (funciones == null) funciones = new ArrayList<>();
+            ParticionesFunciones.usarCatalogo(catalogoPeliculas);
+        } catch (IOException e) {
+            System.out.println("Advertencia: No se pudieron actualizar las semanas archivadas: " + e.getMessage());
+        }
+        if (catalogoPeliculas.isModificado()) {
+            PersistenciaDiferida.programarLista("peliculas.dat", peliculas);
+            PersistenciaDiferida.programarFunciones(funciones); // Las particiones anteriores no llevan identificador
+        }
+    }
+
+    /**
+     * Reconstruye la ocupación de asientos vendidos después de la última instantánea de la cartelera.
+     * <p>
+     * Lee los registros de la bitácora de ventas y marca como ocupado cada asiento en su función.
+     * La operación es idempotente: reaplicar un registro ya contenido en la instantánea no tiene efecto.
+     * Los registros de funciones de semanas archivadas (no cargadas) se aplican directamente en su partición
+     * mediante {@link ParticionesFunciones#aplicarVentasArchivadas}; los de funciones inexistentes se ignoran.
+     * Una bitácora de una versión anterior (identificadores legibles) queda apartada al leerse
+     * ({@link GestorArchivos#BITACORA_ANTERIOR}); se reproduce y se compacta de inmediato. Si esa compactación
+     * falla, las ventas nuevas se siguen registrando en la bitácora actual y la compactación se reintenta en
+     * segundo plano ({@link PersistenciaDiferida}).
+     * </p>
+     */
+    private static void reproducirBitacoraVentas() {
+        try {
+            List<RegistroVenta> ventas = GestorArchivos.leerBitacoraVentas();
+            if (ventas.isEmpty()) return;
+
+            // Índice temporal por ID para evitar una búsqueda lineal por cada registro
+            Map<Long, Funcion> funcionesPorId = new HashMap<>();
+            for (Funcion funcion : funciones) {
+                funcionesPorId.put(funcion.getId(), funcion);
+            }
+            Map<String, Funcion> funcionesPorIdLegado = null; // Solo para bitácoras de versiones anteriores
+
+            List<RegistroVenta> noCargadas = new ArrayList<>();
+            for (RegistroVenta venta : ventas) {
+                Funcion funcion;
+                if (venta.esLegado()) {
+                    if (funcionesPorIdLegado == null) {
+                        funcionesPorIdLegado = new HashMap<>();
+                        for (Funcion f : funciones) funcionesPorIdLegado.put(f.getIdFuncion(), f);
+                    }
+                    funcion = funcionesPorIdLegado.get(venta.getIdLegado());
+                } else {
+                    funcion = funcionesPorId.get(venta.getIdFuncion());
+                }
+                if (funcion == null) {
+                    noCargadas.add(venta);
+                    continue;
+                }
+                Asiento asiento = funcion.getSala().buscarAsiento(venta.getFila(), venta.getNumero());
+                if (asiento != null) asiento.setOcupado(true);
+            }
+            if (!noCargadas.isEmpty()) {
+                ParticionesFunciones.aplicarVentasArchivadas(noCargadas);
+            }
+            if (GestorArchivos.isBitacoraAnterior()) {
+                // Registros con identificadores legibles: se consolidan ya para no reproducirlos en cada arranque
+                try {
+                    GestorArchivos.compactarBitacora(funciones);
+                } catch (IOException e) {
+                    System.out.println("Advertencia: No se pudo compactar la bitácora anterior (" + e.getMessage() + "); se reintentará.");
+                    PersistenciaDiferida.programarFunciones(funciones);
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Advertencia: No se pudo leer la bitácora de ventas: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Activa, si así se configuró, el almacenamiento de asientos mapeado en memoria.
+     * <p>
+     * Con la propiedad {@value GestorArchivos#PROPIEDAD_ASIENTOS_MAPEADOS} activa, cada función se enlaza con su
+     * ranura de {@link AsientosMapeados}: la ocupación registrada en el archivo se aplica a la sala y las funciones
+     * sin ranura reciben una. Si el archivo no puede abrirse, se continúa en el modo de bitácora.
+     * </p>
+     */
+    private static void mapearAsientos() {
+        if (!GestorArchivos.usarAsientosMapeados()) return;
+        try {
+            asientosMapeados = GestorArchivos.mapearAsientos(GestorArchivos.ARCHIVO_ASIENTOS_MAPEADOS);
+            for (Funcion funcion : funciones) {
+                asientosMapeados.vincular(funcion);
+            }
+        } catch (IOException e) {
+            System.out.println("Advertencia: No se pudo abrir el archivo de asientos mapeado: " + e.getMessage());
+            asientosMapeados = null;
+        }
+    }
+
+    /**
+     * Fuerza a disco y cierra el archivo de asientos mapeado, si el modo está activo.
+     */
+    private static void cerrarAsientosMapeados() {
+        if (asientosMapeados == null) return;
+        try {
+            asientosMapeados.close();
+        } catch (IOException e) {
+            System.out.println("Error al cerrar el archivo de asientos: " + e.getMessage());
         }
     }
 
@@ -133,21 +420,14 @@ public class CineByt {
      * </p>
      */
     private static void garantizarAdminPorDefecto() {
-        boolean existe = false;
-        for (Usuario usuario : usuarios) {
-            if (usuario.getNickname().equals("Administrador")) {
-                existe = true;
-                break;
-            }
-        }
-        if (!existe) {
+        if (!repositorioUsuarios.existe("Administrador")) {
             Administrador defaultAdmin = new Administrador(
                 "elAdmin", " ", " ", 100, 
                 "Administrador", "314dm1n", "admin@cinebyt.mx", "5555555555", 
                 Empleado.Turno.MATUTINO, false
             );
-            usuarios.add(defaultAdmin);
-            guardarUsuarios(); // Persistencia inmediata
+            repositorioUsuarios.agregar(defaultAdmin);
+            guardarUsuarios();
         }
     }
 
@@ -175,14 +455,9 @@ public class CineByt {
                 System.out.print("Contraseña: ");
                 String contra = entrada.nextLine();
 
-                // Búsqueda lineal y validación
-                for (Usuario usuario : usuarios) {
-                    if (usuario.getNickname().equals(nick) && usuario.getPassword().equals(contra)) {
-                        usuarioLogueado = usuario;
-                        credencialesCorrectas = true;
-                        break;
-                    }
-                }
+                // Búsqueda por índice (O(1)) y validación
+                usuarioLogueado = repositorioUsuarios.autenticar(nick, contra);
+                credencialesCorrectas = usuarioLogueado != null;
 
                 if (!credencialesCorrectas) {
                     System.out.println("AVISO: Los datos no son correctos."); 
@@ -194,8 +469,10 @@ public class CineByt {
             
             // Enrutamiento basado en Tipo (Polimorfismo)
             if (usuarioLogueado instanceof Administrador) {
+                esperarCartelera();
                 menuAdministrador();
             } else if (usuarioLogueado instanceof Cliente) {
+                esperarCartelera();
                 menuCliente((Cliente) usuarioLogueado);
             } else if (usuarioLogueado instanceof VendedorDulceria) {
                 menuVendedor((VendedorDulceria) usuarioLogueado);
@@ -268,18 +545,13 @@ public class CineByt {
 
         } while (!datosCorrectos);
 
-        // Validación de unicidad en la base de datos
-        for(Usuario usuario : usuarios) {
-            if(usuario.getNickname().equals(nick)) {
-                System.out.println("Error: El nickname ya está registrado. No se pudo registrar.");
-                esperar(5000);
-                return;
-            }
-        }
-
-        // Creación y persistencia
+        // Validación de unicidad y alta en la base de datos (índice por nickname)
         Cliente nuevoCliente = new Cliente(nombre, apPaterno, apMaterno, edad, nick, contra, email, cel, tarjeta);
-        usuarios.add(nuevoCliente);
+        if (!repositorioUsuarios.agregar(nuevoCliente)) {
+            System.out.println("Error: El nickname ya está registrado. No se pudo registrar.");
+            esperar(5000);
+            return;
+        }
         guardarUsuarios();
         
         System.out.println("REGISTRO EXITOSO.");
@@ -288,14 +560,14 @@ public class CineByt {
     }
 
     /**
-     * Persiste la lista actualizada de usuarios en disco.
+     * Programa la persistencia de la lista actualizada de usuarios y regresa de inmediato.
+     * <p>
+     * La escritura la realiza {@link PersistenciaDiferida} en segundo plano; varios registros seguidos
+     * se consolidan en una sola reescritura de {@code usuarios.dat}. El registro es durable a más tardar
+     * un intervalo después, o al salir de la aplicación.
      */
     private static void guardarUsuarios() {
-        try {
-            GestorArchivos.guardarObjeto("usuarios.dat", usuarios);
-        } catch (IOException e) {
-            System.out.println("Error al guardar usuarios: " + e.getMessage());
-        }
+        PersistenciaDiferida.programarLista("usuarios.dat", usuarios);
     }
 
     /**
@@ -317,11 +589,13 @@ public class CineByt {
      * Menú exclusivo para Administradores.
      * <p>
      * Instancia el {@link ControladorAdministrador} inyectando las listas maestras
-     * para permitir la gestión del catálogo.
+     * para permitir la gestión del catálogo y el reporte de funciones anteriores (semanas archivadas que se
+     * leen bajo demanda). También consulta las métricas de la {@link CocinaDulceria}
+     * (longitud de la cola y tiempos de espera) y del {@link PoolEscritores} (tasa de aciertos y archivos abiertos).
      * </p>
      */
     private static void menuAdministrador() {
-        ControladorAdministrador controlAdmin = new ControladorAdministrador(peliculas, funciones, usuarios);
+        ControladorAdministrador controlAdmin = new ControladorAdministrador(catalogoPeliculas, funciones, repositorioUsuarios, indiceFunciones, agendaSalas, libroBoletos);
         boolean regresar = false;
         while (!regresar) {
             System.out.println("\n--- MENÚ ADMINISTRADOR ---");
@@ -329,16 +603,28 @@ public class CineByt {
             System.out.println("2. Dar de alta Función");
             System.out.println("3. Registrar nuevo Empleado");
             System.out.println("4. Ver historial de cliente");
-            System.out.println("5. Cerrar Sesión");
+            System.out.println("5. Ver métricas de la cocina de dulcería y de los archivos");
+            System.out.println("6. Ver reporte de funciones anteriores");
+            System.out.println("7. Cerrar Sesión");
             System.out.print("Seleccione una opción: ");
             
             String opc = entrada.nextLine();
             switch (opc) {
                 case "1": controlAdmin.darAltaPelicula(); break;
                 case "2": controlAdmin.darAltaFuncion(); break;
-                case "3": controlAdmin.registrarEmpleado(); break;
+                case "3":
+                    controlAdmin.registrarEmpleado();
+                    cocinaDulceria.actualizarPersonal(); // Un vendedor nuevo recibe su trabajador
+                    break;
                 case "4": controlAdmin.verHistorialCliente(); break;
-                case "5": regresar = true; break;
+                case "5":
+                    System.out.println("\n--- COCINA DE DULCERÍA ---");
+                    System.out.println(cocinaDulceria.resumenMetricas());
+                    System.out.println("\n--- ESCRITORES DE ARCHIVOS DE TEXTO ---");
+                    System.out.println(PoolEscritores.resumenMetricas());
+                    break;
+                case "6": controlAdmin.verFuncionesAnteriores(); break;
+                case "7": regresar = true; break;
                 default: System.out.println("Opción inválida.");
             }
         }
@@ -349,12 +635,20 @@ public class CineByt {
      * <p>
      * Actúa como Hub central para las operaciones de compra. Instancia los controladores
      * de {@link ControladorCompra} y {@link ControladorDulceria} según sea necesario.
+     * Mientras la sesión está abierta, los cambios de estado de las órdenes de dulcería del cliente se
+     * imprimen en consola al ocurrir (oyente del {@link RegistroOrdenes}).
      *
      * @param cliente El objeto Cliente autenticado.
      */
     private static void menuCliente(Cliente cliente) {
-        ControladorCompra controlCompra = new ControladorCompra(funciones);
-        ControladorDulceria controlDulceria = new ControladorDulceria(usuarios);
+        ControladorCompra controlCompra = new ControladorCompra(funciones, indiceFunciones, libroBoletos, asientosMapeados);
+        ControladorDulceria controlDulceria = new ControladorDulceria(cocinaDulceria, catalogoPrecios, libroBoletos, agendaSalas);
+        RegistroOrdenes.OyenteOrdenes avisos = estado -> {
+            if (estado.getNickname().equals(cliente.getNickname())) {
+                System.out.println("\n[Dulcería] " + estado.getMensaje());
+            }
+        };
+        registroOrdenes.agregarOyente(avisos);
         
         boolean regresar = false;
         while (!regresar) {
@@ -382,6 +676,7 @@ public class CineByt {
                 default: System.out.println("Opción inválida.");
             }
         }
+        registroOrdenes.quitarOyente(avisos);
     }
 
     /**
@@ -460,8 +755,7 @@ public class CineByt {
         
         if (opc.equals("A")) {
              System.out.println("\n--- TUS BOLETOS ---");
-             String archivo = "tickets_" + cliente.getNickname() + ".txt";
-             leerArchivoOpcional(archivo);
+             mostrarBoletos(cliente);
         } else if (opc.equals("B")) {
              verNotificacionesDulceria(cliente);
         } else {
@@ -470,17 +764,52 @@ public class CineByt {
     }
 
     /**
-     * Muestra el estado de la orden de dulcería leyendo el archivo de notificaciones específico.
+     * Muestra el estado de las órdenes de dulcería del cliente.
+     * <p>
+     * Consulta en memoria el {@link RegistroOrdenes}: el estado actual de cada orden reciente y los últimos avisos.
+     * Si el cliente no tiene avisos en esta ejecución, se recurre al historial del archivo de notificaciones.
      */
     private static void verNotificacionesDulceria(Cliente cliente) {
         System.out.println("\n--- ESTADO DE ÓRDENES DE DULCERÍA ---");
-        String archivo = "notificaciones_" + cliente.getNickname() + ".txt";
-        leerArchivoOpcional(archivo);
+        List<EstadoOrden> avisos = registroOrdenes.bandeja(cliente.getNickname());
+        if (avisos.isEmpty()) {
+            leerArchivoOpcional("notificaciones_" + cliente.getNickname() + ".txt");
+            return;
+        }
+        for (EstadoOrden orden : registroOrdenes.ordenesDe(cliente.getNickname())) {
+            System.out.println(orden.getClaveOrden() + " (" + orden.getDetalle() + "): " + orden.getEstado()
+                    + (orden.getVendedor() != null ? " - " + orden.getVendedor() : ""));
+        }
+        System.out.println("\nAvisos recientes:");
+        for (EstadoOrden aviso : avisos) {
+            System.out.println("[" + aviso.getMomento().format(FORMATO_AVISO) + "] " + aviso.getMensaje());
+        }
     }
     
+    /**
+     * Muestra los boletos del cliente leyendo únicamente sus registros del {@link LibroBoletos}.
+     */
+    private static void mostrarBoletos(Cliente cliente) {
+        try {
+            List<String> boletos = libroBoletos.leerBoletos(cliente.getNickname());
+            if (boletos.isEmpty()) {
+                System.out.println("No se encontró información (Archivo vacío o inexistente).");
+            }
+            for (String boleto : boletos) {
+                System.out.println(boleto);
+            }
+        } catch (IOException e) {
+            System.out.println("Error al leer el archivo: " + e.getMessage());
+        }
+    }
+
     /**
      * Método auxiliar para leer e imprimir contenido de archivos de texto de forma segura.
      * Evita excepciones si el archivo aún no existe (ej. usuario nuevo).
+     * <p>
+     * El archivo se muestra por páginas de {@link #LINEAS_POR_PAGINA} líneas ({@link GestorArchivos#leerPagina}),
+     * por lo que los historiales extensos se recorren con memoria constante. Entre páginas el usuario puede
+     * continuar, saltar a las últimas líneas del archivo o salir.
      */
     private static void leerArchivoOpcional(String nombreArchivo) {
         if (!GestorArchivos.existeArchivo(nombreArchivo)) {
@@ -488,9 +817,25 @@ public class CineByt {
             return;
         }
         try {
-            List<String> lineas = GestorArchivos.leerArchivoTexto(nombreArchivo);
-            for (String linea : lineas) {
-                System.out.println(linea); 
+            long desplazamiento = 0;
+            while (true) {
+                PaginaTexto pagina = GestorArchivos.leerPagina(nombreArchivo, desplazamiento, LINEAS_POR_PAGINA);
+                for (String linea : pagina.getLineas()) {
+                    System.out.println(linea);
+                }
+                if (!pagina.hayMas()) return;
+
+                System.out.print("-- ENTER: siguiente página | F: ir al final | S: salir: ");
+                String opcion = entrada.nextLine().trim().toUpperCase();
+                if (opcion.equals("S")) return;
+                if (opcion.equals("F")) {
+                    System.out.println("...");
+                    for (String linea : GestorArchivos.leerUltimasLineas(nombreArchivo, LINEAS_POR_PAGINA)) {
+                        System.out.println(linea);
+                    }
+                    return;
+                }
+                desplazamiento = pagina.getSiguienteDesplazamiento();
             }
         } catch (IOException e) {
             System.out.println("Error al leer el archivo: " + e.getMessage());
@@ -0,0 +1,150 @@
+package mx.unam.fi.cine.benchmark;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import mx.unam.fi.cine.modelo.*;
+
+/**
+ * Benchmark de tamaño y tiempo de carga de la cartelera ({@code funciones.dat}) en <b>CineByt</b>.
+ * <p>
+ * Genera una cartelera sintética con asientos vendidos al azar y la persiste en dos formatos:
+ * </p>
+ * <ol>
+ * <li><b>Serialización estándar:</b> {@link ObjectOutputStream}, el formato anterior del archivo.</li>
+ * <li><b>Formato compacto:</b> {@link CodecFunciones}, el formato actual.</li>
+ * </ol>
+ * Para cada uno reporta el tamaño en disco y el tiempo promedio de decodificación, y verifica que
+ * ambos formatos restauren la misma cantidad de asientos vendidos.
+ * <p>
+ * <b>Uso:</b> {@code java mx.unam.fi.cine.benchmark.BenchmarkCodecFunciones [funciones] [repeticiones]}
+ * </p>
+ *
+ * @author Equipo CineByt
+ * @version 1.0
+ * @see mx.unam.fi.cine.modelo.CodecFunciones
+ */
+public class BenchmarkCodecFunciones {
+
+    /**
+     * Punto de entrada del benchmark.
+     * @param args {@code [0]} número de funciones (default 20000), {@code [1]} repeticiones de lectura (default 10).
+     * @throws Exception Si falla la escritura o lectura de los archivos temporales.
+     */
+    public static void main(String[] args) throws Exception {
+        int numFunciones = (args.length > 0) ? Integer.parseInt(args[0]) : 20_000;
+        int repeticiones = (args.length > 1) ? Integer.parseInt(args[1]) : 10;
+
+        List<Funcion> funciones = crearFunciones(numFunciones);
+        File estandar = File.createTempFile("funciones-estandar", ".dat");
+        File compacto = File.createTempFile("funciones-compacto", ".dat");
+        estandar.deleteOnExit();
+        compacto.deleteOnExit();
+
+        try (ObjectOutputStream oos = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(estandar)))) {
+            oos.writeObject(funciones);
+        }
+        try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(compacto)))) {
+            CodecFunciones.escribir(funciones, dos);
+        }
+
+        // Calentamiento del JIT
+        for (int i = 0; i < 3; i++) {
+            leerEstandar(estandar);
+            leerCompacto(compacto);
+        }
+
+        long nanosEstandar = 0, nanosCompacto = 0;
+        List<Funcion> deEstandar = null, deCompacto = null;
+        for (int i = 0; i < repeticiones; i++) {
+            long inicio = System.nanoTime();
+            deEstandar = leerEstandar(estandar);
+            nanosEstandar += System.nanoTime() - inicio;
+
+            inicio = System.nanoTime();
+            deCompacto = leerCompacto(compacto);
+            nanosCompacto += System.nanoTime() - inicio;
+        }
+
+        long vendidos = contarVendidos(funciones);
+        System.out.println("Funciones: " + numFunciones + " | Asientos vendidos: " + vendidos + " | Repeticiones: " + repeticiones);
+        System.out.println("Formato\t\tBytes\t\tCarga (ms)");
+        System.out.printf("Estándar\t%,d\t%.2f%n", estandar.length(), nanosEstandar / 1e6 / repeticiones);
+        System.out.printf("Compacto\t%,d\t%.2f%n", compacto.length(), nanosCompacto / 1e6 / repeticiones);
+        System.out.printf("Reducción: %.1fx en tamaño, %.1fx en carga%n",
+                (double) estandar.length() / compacto.length(), (double) nanosEstandar / nanosCompacto);
+        System.out.println("Consistencia: " + ((contarVendidos(deEstandar) == vendidos
+                && contarVendidos(deCompacto) == vendidos) ? "OK" : "VIOLADA"));
+
+        Files.deleteIfExists(estandar.toPath());
+        Files.deleteIfExists(compacto.toPath());
+    }
+
+    /**
+     * Lee la cartelera en serialización estándar.
+     * @param archivo Archivo temporal.
+     * @return Lista restaurada.
+     * @throws Exception Si falla la lectura.
+     */
+    @SuppressWarnings("unchecked")
+    private static List<Funcion> leerEstandar(File archivo) throws Exception {
+        try (ObjectInputStream ois = new ObjectInputStream(new BufferedInputStream(new FileInputStream(archivo)))) {
+            return (List<Funcion>) ois.readObject();
+        }
+    }
+
+    /**
+     * Lee la cartelera en formato compacto.
+     * @param archivo Archivo temporal.
+     * @return Lista restaurada.
+     * @throws IOException Si falla la lectura.
+     */
+    private static List<Funcion> leerCompacto(File archivo) throws IOException {
+        try (DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(archivo)))) {
+            return CodecFunciones.leer(dis);
+        }
+    }
+
+    /**
+     * Crea una cartelera sintética: 50 películas, tres tipos de sala y cerca de un tercio de asientos vendidos.
+     * @param cantidad Número de funciones.
+     * @return Lista de funciones.
+     */
+    private static List<Funcion> crearFunciones(int cantidad) {
+        String[] salas = { "Sala A", "Sala B", "Sala VIP" };
+        List<Pelicula> peliculas = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            peliculas.add(new Pelicula("Película de Prueba " + i, "Género", "Sinopsis de la película número " + i, 90 + i));
+        }
+
+        ThreadLocalRandom azar = ThreadLocalRandom.current();
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 10, 0);
+        List<Funcion> funciones = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            Funcion funcion = new Funcion(peliculas.get(i % peliculas.size()), salas[i % salas.length], base.plusHours(i));
+            for (Asiento asiento : funcion.getSala().getAsientos()) {
+                if (azar.nextInt(3) == 0) asiento.setOcupado(true);
+            }
+            funciones.add(funcion);
+        }
+        return funciones;
+    }
+
+    /**
+     * Cuenta los asientos ocupados de una cartelera.
+     * @param funciones Lista de funciones.
+     * @return Total de asientos ocupados.
+     */
+    private static long contarVendidos(List<Funcion> funciones) {
+        long total = 0;
+        for (Funcion funcion : funciones) {
+            for (Asiento asiento : funcion.getSala().getAsientos()) {
+                if (asiento.isOcupado()) total++;
+            }
+        }
+        return total;
+    }
+}
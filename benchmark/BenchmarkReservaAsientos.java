@@ -0,0 +1,171 @@
+package mx.unam.fi.cine.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import mx.unam.fi.cine.modelo.*;
+
+/**
+ * Benchmark de contención para la reserva concurrente de asientos en <b>CineByt</b>.
+ * <p>
+ * Simula varias terminales de taquilla (hilos) que compiten por los mismos asientos de un conjunto
+ * de funciones. Cada hilo elige una función y de 1 a 4 asientos al azar e intenta reservarlos con
+ * {@link Funcion#reservarAsientos(List)}. Se comparan dos estrategias:
+ * </p>
+ * <ol>
+ * <li><b>CAS:</b> La reserva sin candados del mapa de bits atómico.</li>
+ * <li><b>Candado global:</b> La misma operación protegida por un único {@code synchronized}, como referencia.</li>
+ * </ol>
+ * Al final de cada corrida verifica la invariante de negocio: la suma de asientos reservados con éxito
+ * debe coincidir exactamente con los asientos ocupados en las salas (ningún asiento vendido dos veces).
+ * <p>
+ * <b>Uso:</b> {@code java mx.unam.fi.cine.benchmark.BenchmarkReservaAsientos [funciones] [milisegundos]}
+ * </p>
+ *
+ * @author Equipo CineByt
+ * @version 1.0
+ * @see mx.unam.fi.cine.modelo.Sala#ocuparAsientos(List)
+ */
+public class BenchmarkReservaAsientos {
+
+    /** Candado utilizado por la estrategia de referencia. */
+    private static final Object CANDADO_GLOBAL = new Object();
+
+    /**
+     * Punto de entrada del benchmark.
+     * @param args {@code [0]} número de funciones (default 8), {@code [1]} duración por corrida en ms (default 2000).
+     * @throws InterruptedException Si el hilo principal es interrumpido.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int numFunciones = (args.length > 0) ? Integer.parseInt(args[0]) : 8;
+        long duracionMs = (args.length > 1) ? Long.parseLong(args[1]) : 2000;
+        int maxHilos = Runtime.getRuntime().availableProcessors();
+
+        System.out.println("Funciones: " + numFunciones + " | Duración por corrida: " + duracionMs + " ms");
+        System.out.println("Hilos\tCAS (ops/s)\tCandado (ops/s)\tInvariante");
+
+        // Calentamiento del JIT
+        ejecutar(maxHilos, numFunciones, 500, false);
+        ejecutar(maxHilos, numFunciones, 500, true);
+
+        for (int hilos = 1; hilos <= maxHilos; hilos *= 2) {
+            Resultado cas = ejecutar(hilos, numFunciones, duracionMs, false);
+            Resultado candado = ejecutar(hilos, numFunciones, duracionMs, true);
+            System.out.printf("%d\t%,.0f\t%,.0f\t%s%n", hilos,
+                    cas.operacionesPorSegundo(), candado.operacionesPorSegundo(),
+                    (cas.consistente && candado.consistente) ? "OK" : "VIOLADA");
+        }
+    }
+
+    /**
+     * Ejecuta una corrida de reservas concurrentes.
+     *
+     * @param hilos        Número de terminales simuladas.
+     * @param numFunciones Funciones sobre las que se compite.
+     * @param duracionMs   Duración de la corrida.
+     * @param conCandado   {@code true} para usar la estrategia de candado global.
+     * @return Resultado de la corrida.
+     * @throws InterruptedException Si el hilo principal es interrumpido.
+     */
+    private static Resultado ejecutar(int hilos, int numFunciones, long duracionMs, boolean conCandado)
+            throws InterruptedException {
+        List<Funcion> funciones = crearFunciones(numFunciones);
+        AtomicLong operaciones = new AtomicLong();
+        AtomicLong asientosReservados = new AtomicLong();
+        long limite = System.nanoTime() + duracionMs * 1_000_000L;
+        CountDownLatch fin = new CountDownLatch(hilos);
+
+        for (int h = 0; h < hilos; h++) {
+            new Thread(() -> {
+                ThreadLocalRandom azar = ThreadLocalRandom.current();
+                long ops = 0;
+                while (System.nanoTime() < limite) {
+                    Funcion funcion = funciones.get(azar.nextInt(funciones.size()));
+                    List<Asiento> solicitud = elegirAsientos(funcion.getSala(), azar);
+                    boolean exito;
+                    if (conCandado) {
+                        synchronized (CANDADO_GLOBAL) {
+                            exito = funcion.reservarAsientos(solicitud);
+                        }
+                    } else {
+                        exito = funcion.reservarAsientos(solicitud);
+                    }
+                    if (exito) {
+                        asientosReservados.addAndGet(solicitud.size());
+                        // Liberación ocasional para mantener la sala con lugares disponibles
+                        if (azar.nextInt(4) == 0) {
+                            funcion.liberarAsientos(solicitud);
+                            asientosReservados.addAndGet(-solicitud.size());
+                        }
+                    }
+                    ops++;
+                }
+                operaciones.addAndGet(ops);
+                fin.countDown();
+            }).start();
+        }
+        fin.await();
+
+        long ocupados = 0;
+        for (Funcion funcion : funciones) {
+            for (Asiento asiento : funcion.getSala().getAsientos()) {
+                if (asiento.isOcupado()) ocupados++;
+            }
+        }
+        return new Resultado(operaciones.get(), duracionMs, ocupados == asientosReservados.get());
+    }
+
+    /**
+     * Crea funciones de prueba repartidas entre los tres tipos de sala.
+     * @param cantidad Número de funciones.
+     * @return Lista de funciones con todos los asientos libres.
+     */
+    private static List<Funcion> crearFunciones(int cantidad) {
+        String[] salas = { "Sala A", "Sala B", "Sala VIP" };
+        Pelicula pelicula = new Pelicula("Benchmark", "Prueba", "", 120);
+        List<Funcion> funciones = new ArrayList<>();
+        for (int i = 0; i < cantidad; i++) {
+            funciones.add(new Funcion(pelicula, salas[i % salas.length], LocalDateTime.now().plusHours(i)));
+        }
+        return funciones;
+    }
+
+    /**
+     * Elige de 1 a 4 asientos distintos al azar de una sala.
+     * @param sala  Sala de la función.
+     * @param azar  Generador aleatorio del hilo.
+     * @return Lista de asientos sin repetidos.
+     */
+    private static List<Asiento> elegirAsientos(Sala sala, ThreadLocalRandom azar) {
+        List<Asiento> todos = sala.getAsientos();
+        int cantidad = 1 + azar.nextInt(4);
+        List<Asiento> elegidos = new ArrayList<>(cantidad);
+        while (elegidos.size() < cantidad) {
+            Asiento asiento = todos.get(azar.nextInt(todos.size()));
+            if (!elegidos.contains(asiento)) elegidos.add(asiento);
+        }
+        return elegidos;
+    }
+
+    /**
+     * Resumen de una corrida del benchmark.
+     */
+    private static class Resultado {
+        private final long operaciones;
+        private final long duracionMs;
+        private final boolean consistente;
+
+        Resultado(long operaciones, long duracionMs, boolean consistente) {
+            this.operaciones = operaciones;
+            this.duracionMs = duracionMs;
+            this.consistente = consistente;
+        }
+
+        double operacionesPorSegundo() {
+            return operaciones * 1000.0 / duracionMs;
+        }
+    }
+}
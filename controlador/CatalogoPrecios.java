@@ -0,0 +1,215 @@
+package mx.unam.fi.cine.controlador;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import mx.unam.fi.cine.modelo.GestorArchivos;
+
+/**
+ * Catálogo de precios de la dulcería del sistema <b>CineByt</b>, compartido por todas las sesiones.
+ * <p>
+ * Antes cada {@link ControladorDulceria} (uno por inicio de sesión) volvía a leer y analizar
+ * {@value #ARCHIVO_PRECIOS}. Ahora el archivo se analiza una sola vez y las sesiones consultan una
+ * <b>instantánea inmutable</b> publicada a través de una referencia {@code volatile}.
+ * </p>
+ * <b>Recarga en Caliente:</b>
+ * <ul>
+ * <li>Un hilo <i>daemon</i> vigila la carpeta de persistencia con un {@link WatchService}. Cuando el archivo de
+ * precios se crea o modifica, espera {@value #ESPERA_ESTABLE_MS} ms a que termine la escritura, lo vuelve a
+ * analizar y sustituye la instantánea de un solo golpe: un lector ve el catálogo anterior completo o el nuevo
+ * completo, nunca una mezcla.</li>
+ * <li>Si el archivo se borra, no puede leerse o no contiene ningún precio válido, se conserva la instantánea vigente.</li>
+ * </ul>
+ * <b>Formato del archivo:</b> {@code CLAVE_PRODUCTO : PRECIO} (ej. {@code PALOMITAS_MEGA : 85.50}).
+ *
+ * @author Equipo CineByt
+ * @version 1.0
+ * @see mx.unam.fi.cine.controlador.ControladorDulceria
+ * @see mx.unam.fi.cine.modelo.GestorArchivos
+ */
+public class CatalogoPrecios {
+
+    /** Archivo de configuración de precios, dentro de la carpeta de persistencia. */
+    public static final String ARCHIVO_PRECIOS = "PreciosProductos.txt";
+
+    /** Pausa tras detectar un cambio, para no leer el archivo a medio escribir. */
+    private static final long ESPERA_ESTABLE_MS = 200;
+
+    /** Instantánea vigente (inmutable). La clave es el producto (ej. "PALOMITAS_JUMBO") y el valor su costo. */
+    private volatile Map<String, Double> precios;
+
+    /** Servicio de vigilancia de la carpeta; {@code null} si no pudo crearse. */
+    private WatchService vigilante;
+
+    /**
+     * Carga el catálogo e inicia la vigilancia del archivo de precios.
+     */
+    public CatalogoPrecios() {
+        Map<String, Double> inicial = leerArchivo();
+        if (inicial == null) {
+            System.out.println("AVISO: No se encontró '" + ARCHIVO_PRECIOS + "'. Se usarán precios base $0.0");
+            inicial = new HashMap<>();
+        }
+        this.precios = Collections.unmodifiableMap(inicial);
+        iniciarVigilancia();
+    }
+
+    // ==========================================
+    // CONSULTA
+    // ==========================================
+
+    /**
+     * Obtiene la instantánea vigente. Una orden que consulta varios precios debe usar la misma instantánea
+     * para que todos provengan de la misma versión del archivo.
+     *
+     * @return Mapa inmutable de clave de producto a precio.
+     */
+    public Map<String, Double> instantanea() {
+        return precios;
+    }
+
+    /**
+     * Consulta el precio vigente de un producto.
+     * @param clave Clave del producto en mayúsculas (ej. "REFRESCO_GRANDE").
+     * @return Precio, o 0.0 si no está en el catálogo.
+     */
+    public double precio(String clave) {
+        return precios.getOrDefault(clave, 0.0);
+    }
+
+    /**
+     * Vuelve a analizar el archivo y publica la nueva instantánea. Lo invoca el hilo de vigilancia; también
+     * puede llamarse directamente.
+     *
+     * @return {@code true} si se publicó una nueva instantánea.
+     */
+    public synchronized boolean recargar() {
+        Map<String, Double> nuevos = leerArchivo();
+        if (nuevos == null || nuevos.isEmpty()) {
+            System.err.println("Advertencia: '" + ARCHIVO_PRECIOS + "' no contiene precios válidos; se conservan los vigentes.");
+            return false;
+        }
+        precios = Collections.unmodifiableMap(nuevos);
+        return true;
+    }
+
+    /**
+     * Detiene la vigilancia del archivo. Se invoca al cerrar la aplicación.
+     */
+    public void cerrar() {
+        if (vigilante == null) return;
+        try {
+            vigilante.close();
+        } catch (IOException e) {
+            System.err.println("Error al detener la vigilancia de precios: " + e.getMessage());
+        }
+    }
+
+    // ==========================================
+    // LECTURA Y VIGILANCIA
+    // ==========================================
+
+    /**
+     * Analiza el archivo de precios.
+     * <p>
+     * Las líneas con formato inválido se reportan y se omiten.
+     *
+     * @return Precios leídos, o {@code null} si el archivo no existe o no pudo leerse.
+     */
+    private Map<String, Double> leerArchivo() {
+        if (!GestorArchivos.existeArchivo(ARCHIVO_PRECIOS)) return null;
+        Map<String, Double> leidos = new HashMap<>();
+        try {
+            List<String> lineas = GestorArchivos.leerArchivoTexto(ARCHIVO_PRECIOS);
+            for (String linea : lineas) {
+                try {
+                    String[] partes = linea.split(":");
+                    if (partes.length == 2) {
+                        String clave = partes[0].trim().toUpperCase();
+                        Double precio = Double.parseDouble(partes[1].trim());
+                        leidos.put(clave, precio);
+                    }
+                } catch (NumberFormatException e) {
+                    System.err.println("Advertencia: Formato inválido en configuración de precios: " + linea);
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Error crítico al cargar precios: " + e.getMessage());
+            return null;
+        }
+        return leidos;
+    }
+
+    /**
+     * Registra la carpeta de persistencia en el {@link WatchService} e inicia el hilo de vigilancia.
+     * Si el sistema de archivos no lo permite, el catálogo sigue funcionando sin recarga en caliente.
+     */
+    private void iniciarVigilancia() {
+        Path carpeta = Paths.get(GestorArchivos.CARPETA_ARCHIVOS);
+        try {
+            vigilante = FileSystems.getDefault().newWatchService();
+            carpeta.register(vigilante, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            System.err.println("Advertencia: No se pudo vigilar '" + carpeta + File.separator + ARCHIVO_PRECIOS
+                    + "'; los cambios de precios requerirán reiniciar. " + e.getMessage());
+            cerrar();
+            vigilante = null;
+            return;
+        }
+        Thread hilo = new Thread(this::vigilar, "vigilancia-precios");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    /**
+     * Bucle del hilo de vigilancia: recarga el catálogo cada vez que cambia el archivo de precios.
+     */
+    private void vigilar() {
+        try {
+            while (true) {
+                WatchKey llave = vigilante.take();
+                boolean cambio = contienePrecios(llave);
+                if (cambio) {
+                    // Un editor suele generar varios eventos por guardado: se espera y se descartan los repetidos
+                    Thread.sleep(ESPERA_ESTABLE_MS);
+                    WatchKey siguiente;
+                    while ((siguiente = vigilante.poll()) != null) contienePrecios(siguiente);
+                    if (recargar()) System.out.println("\nLOG SISTEMA: Precios de dulcería actualizados.");
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            // Cierre de la aplicación
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Consume los eventos de una llave y la rearma.
+     * @param llave Llave con eventos pendientes.
+     * @return {@code true} si algún evento se refiere al archivo de precios.
+     */
+    private boolean contienePrecios(WatchKey llave) {
+        boolean encontrado = false;
+        for (WatchEvent<?> evento : llave.pollEvents()) {
+            Object contexto = evento.context();
+            if (contexto instanceof Path && ((Path) contexto).getFileName().toString().equals(ARCHIVO_PRECIOS)) {
+                encontrado = true;
+            }
+            if (evento.kind() == StandardWatchEventKinds.OVERFLOW) encontrado = true; // Eventos perdidos: se recarga por si acaso
+        }
+        llave.reset();
+        return encontrado;
+    }
+}
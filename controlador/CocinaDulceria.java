@@ -0,0 +1,611 @@
+package mx.unam.fi.cine.controlador;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.TreeSet;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import mx.unam.fi.cine.modelo.*;
+
+/**
+ * Cocina de la dulcería del sistema <b>CineByt</b>: reparte las órdenes entre los vendedores en turno.
+ * <p>
+ * Cada {@link VendedorDulceria} tiene un puesto con su propia cola de prioridad y atiende una orden a la vez.
+ * Las órdenes son máquinas de estados ({@link PreparacionDulceria.Estado}) que un único hilo programador
+ * ({@link ScheduledThreadPoolExecutor}) hace avanzar al vencer cada fase, por lo que <b>ninguna orden ocupa un hilo</b>
+ * mientras espera o se prepara.
+ * </p>
+ * <b>Despacho al Menos Cargado:</b>
+ * <ul>
+ * <li>Los puestos elegibles se mantienen en un {@link TreeSet} ordenado por carga pendiente (órdenes en su cola
+ * más la que prepara). Cada orden nueva va al primero del conjunto: O(log n).</li>
+ * <li>Solo son elegibles los vendedores en turno ({@link VendedorDulceria#estaEnTurno}): dentro del horario de su
+ * {@link Empleado.Turno} y fuera de su día de descanso. Si nadie está en turno (o no hay vendedores), atiende el
+ * vendedor del sistema ("Bot").</li>
+ * <li><b>Rebalanceo:</b> Los turnos se revisan cada {@value #PROPIEDAD_REVISION_TURNOS} ms (60000 por defecto) y al
+ * registrar personal. Las órdenes en cola de quien sale de turno se reparten entre los que siguen; la que ya
+ * prepara la termina. Un vendedor que queda libre con su cola vacía toma la siguiente orden del puesto más cargado.</li>
+ * </ul>
+ * <b>Prioridad por Límite (EDF con envejecimiento):</b>
+ * <ul>
+ * <li>Una orden puede traer un límite: el inicio de la próxima función del cliente
+ * ({@link PreparacionDulceria#getLimite()}). Cada cola atiende primero la orden con el límite más cercano
+ * (<i>earliest deadline first</i>).</li>
+ * <li>Las órdenes sin límite, o con un límite más lejano que el horizonte {@value #PROPIEDAD_HORIZONTE}
+ * (15 minutos por defecto), usan como límite su admisión más el horizonte. Así ninguna orden espera más de un
+ * horizonte a que la rebasen órdenes nuevas: las admitidas después tienen un límite efectivo posterior.</li>
+ * <li>A igual límite efectivo se respeta el orden de admisión.</li>
+ * <li>Se cuentan las órdenes con límite que terminaron después de iniciada la función del cliente.</li>
+ * </ul>
+ * <b>Admisión:</b> A lo más {@value #CAPACIDAD_POR_DEFECTO} órdenes en espera en total (propiedad
+ * {@value #PROPIEDAD_CAPACIDAD}). Con la cocina llena, la admisión espera hasta {@value #PROPIEDAD_ESPERA_ADMISION} ms
+ * (2000 por defecto) a que se libere un lugar; si no ocurre, la orden se rechaza.
+ * <br>
+ * <b>Métricas ({@link #resumenMetricas()}):</b> Longitud de la cola, órdenes admitidas, rechazadas, atendidas y fallidas,
+ * órdenes que perdieron su función, espera en cola, latencia de despacho (de la admisión a la elección del puesto) y, por vendedor, carga,
+ * órdenes atendidas y utilización (fracción del tiempo preparando órdenes).
+ * <br>
+ * <b>Estado de las Órdenes:</b> Al admitir una orden y en cada transición se publica su {@link EstadoOrden} en el
+ * {@link RegistroOrdenes}, que avisa al cliente y escribe la bitácora sin detener al hilo programador.
+ *
+ * @author Equipo CineByt
+ * @version 5.0
+ * @see mx.unam.fi.cine.controlador.PreparacionDulceria
+ * @see mx.unam.fi.cine.controlador.RegistroOrdenes
+ * @see mx.unam.fi.cine.controlador.ControladorDulceria
+ */
+public class CocinaDulceria {
+
+    /** Propiedad del sistema con la cantidad máxima de órdenes en espera. */
+    public static final String PROPIEDAD_CAPACIDAD = "cinebyt.capacidadCocina";
+
+    /** Propiedad del sistema con la espera máxima de admisión cuando la cocina está llena, en milisegundos. */
+    public static final String PROPIEDAD_ESPERA_ADMISION = "cinebyt.esperaAdmisionCocinaMs";
+
+    /** Propiedad del sistema con el intervalo de revisión de turnos, en milisegundos. */
+    public static final String PROPIEDAD_REVISION_TURNOS = "cinebyt.revisionTurnosMs";
+
+    /** Propiedad del sistema con el horizonte de envejecimiento de la prioridad, en milisegundos. */
+    public static final String PROPIEDAD_HORIZONTE = "cinebyt.horizonteCocinaMs";
+
+    /** Capacidad de la cocina si no se configura la propiedad. */
+    public static final int CAPACIDAD_POR_DEFECTO = 50;
+
+    /** Intervalo con el que el cierre revisa si quedan órdenes pendientes, en milisegundos. */
+    private static final long INTERVALO_REVISION_MS = 500;
+
+    /** Lista maestra de usuarios, de donde se obtiene el personal de la cocina. */
+    private final List<Usuario> usuarios;
+
+    /** Registro donde se publica el estado de cada orden. */
+    private final RegistroOrdenes registro;
+
+    /** Capacidad total de órdenes en espera. */
+    private final int capacidad;
+
+    /** Lugares libres para órdenes en espera (contrapresión de la admisión). */
+    private final Semaphore cupos;
+
+    /** Espera máxima de admisión con la cocina llena. */
+    private final long esperaAdmisionMs;
+
+    /** Horizonte de envejecimiento: cota del límite efectivo a partir de la admisión. */
+    private final long horizonteMs;
+
+    /** Secuencia de admisión, para desempatar órdenes con el mismo límite efectivo. */
+    private final AtomicLong secuencia = new AtomicLong();
+
+    /** Hilo único que ejecuta el despacho y las transiciones de todas las órdenes. */
+    private final ScheduledThreadPoolExecutor programador;
+
+    /** Puestos de los vendedores registrados, por nickname. */
+    private final Map<String, Puesto> puestos = new LinkedHashMap<>();
+
+    /** Puesto del vendedor del sistema, elegible solo cuando ningún vendedor está en turno. */
+    private final Puesto puestoSistema;
+
+    /** Puestos elegibles ordenados por carga pendiente (el primero es el menos cargado). */
+    private final TreeSet<Puesto> enTurno = new TreeSet<>(
+            Comparator.comparingInt(Puesto::carga).thenComparingInt(p -> p.numero));
+
+    /** Indica que la cocina ya no admite órdenes y solo termina las pendientes. */
+    private volatile boolean cerrada;
+
+    /** Órdenes admitidas que aún no empiezan a prepararse (métrica). */
+    private final AtomicInteger enCola = new AtomicInteger();
+
+    /** Órdenes en preparación en este momento (métrica). */
+    private final AtomicInteger enPreparacion = new AtomicInteger();
+
+    /** Órdenes admitidas (métrica). */
+    private final AtomicLong admitidas = new AtomicLong();
+
+    /** Órdenes rechazadas por cocina llena (métrica). */
+    private final AtomicLong rechazadas = new AtomicLong();
+
+    /** Órdenes terminadas (métrica). */
+    private final AtomicLong atendidas = new AtomicLong();
+
+    /** Órdenes abandonadas por un error durante su preparación (métrica). */
+    private final AtomicLong fallidas = new AtomicLong();
+
+    /** Órdenes admitidas con límite de función (métrica). */
+    private final AtomicLong conLimite = new AtomicLong();
+
+    /** Órdenes terminadas después de iniciada la función del cliente (métrica). */
+    private final AtomicLong funcionesPerdidas = new AtomicLong();
+
+    /** Suma de los tiempos de espera en cola, en nanosegundos (métrica). */
+    private final AtomicLong esperaTotalNanos = new AtomicLong();
+
+    /** Mayor tiempo de espera en cola observado, en nanosegundos (métrica). */
+    private final AtomicLong esperaMaximaNanos = new AtomicLong();
+
+    /** Órdenes asignadas a un puesto (métrica). */
+    private final AtomicLong despachos = new AtomicLong();
+
+    /** Suma de las latencias de despacho, en nanosegundos (métrica). */
+    private final AtomicLong despachoTotalNanos = new AtomicLong();
+
+    /** Mayor latencia de despacho observada, en nanosegundos (métrica). */
+    private final AtomicLong despachoMaximoNanos = new AtomicLong();
+
+    /** Orden de atención dentro de un puesto: límite efectivo más cercano primero, luego orden de admisión. */
+    private static final Comparator<OrdenEnCola> POR_LIMITE =
+            Comparator.<OrdenEnCola>comparingLong(o -> o.limiteEfectivo).thenComparingLong(o -> o.secuencia);
+
+    /**
+     * Orden admitida junto con su instante de admisión y su prioridad.
+     */
+    private static final class OrdenEnCola {
+        /** Máquina de estados de la orden. */
+        final PreparacionDulceria preparacion;
+        /** Instante de admisión ({@link System#nanoTime()}). */
+        final long admitida = System.nanoTime();
+        /** Número de admisión. */
+        final long secuencia;
+        /** Límite efectivo en milisegundos de época: el límite real acotado a {@code [admisión, admisión + horizonte]}. */
+        final long limiteEfectivo;
+
+        OrdenEnCola(PreparacionDulceria preparacion, long secuencia, long horizonteMs) {
+            this.preparacion = preparacion;
+            this.secuencia = secuencia;
+            long ahora = System.currentTimeMillis();
+            long tope = ahora + horizonteMs;
+            LocalDateTime limite = preparacion.getLimite();
+            long limiteMs = (limite == null) ? tope : limite.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            this.limiteEfectivo = Math.max(ahora, Math.min(limiteMs, tope));
+        }
+    }
+
+    /**
+     * Puesto de trabajo de un vendedor: su cola de órdenes y su estadística de uso.
+     * Los campos que definen la carga solo cambian a través de {@link #modificar}, para mantener el orden del {@link TreeSet}.
+     */
+    private static final class Puesto {
+        /** Vendedor del puesto. */
+        final VendedorDulceria vendedor;
+        /** Desempate estable entre puestos con la misma carga. */
+        final int numero;
+        /** Órdenes asignadas en espera, la de límite más cercano primero. */
+        final Queue<OrdenEnCola> cola = new PriorityQueue<>(POR_LIMITE);
+        /** Instante de alta del puesto, base de la utilización. */
+        final long alta = System.nanoTime();
+        /** Indica si el vendedor prepara una orden. */
+        boolean ocupado;
+        /** Indica si el puesto está en el conjunto de elegibles. */
+        boolean elegible;
+        /** Inicio de la orden en curso. */
+        long inicioOcupado;
+        /** Tiempo acumulado preparando órdenes, en nanosegundos. */
+        long ocupadoNanos;
+        /** Órdenes terminadas por el puesto. */
+        long terminadas;
+
+        Puesto(VendedorDulceria vendedor, int numero) {
+            this.vendedor = vendedor;
+            this.numero = numero;
+        }
+
+        /** @return Órdenes pendientes del puesto (en cola más la que prepara). */
+        int carga() {
+            return cola.size() + (ocupado ? 1 : 0);
+        }
+
+        /** @return Fracción del tiempo desde el alta que el vendedor ha pasado preparando órdenes. */
+        double utilizacion(long ahora) {
+            long total = ahora - alta;
+            long ocupadoHastaAhora = ocupadoNanos + (ocupado ? ahora - inicioOcupado : 0);
+            return (total <= 0) ? 0 : (double) ocupadoHastaAhora / total;
+        }
+    }
+
+    /**
+     * Crea la cocina con su hilo programador, registra a los vendedores existentes y programa la revisión de turnos.
+     *
+     * @param usuarios Lista maestra de usuarios.
+     * @param registro Registro de estado de las órdenes.
+     */
+    public CocinaDulceria(List<Usuario> usuarios, RegistroOrdenes registro) {
+        this.usuarios = usuarios;
+        this.registro = registro;
+        this.capacidad = Math.max(1, Integer.getInteger(PROPIEDAD_CAPACIDAD, CAPACIDAD_POR_DEFECTO));
+        this.cupos = new Semaphore(capacidad, true);
+        this.esperaAdmisionMs = Long.getLong(PROPIEDAD_ESPERA_ADMISION, 2000);
+        this.horizonteMs = Long.getLong(PROPIEDAD_HORIZONTE, 15 * 60 * 1000L);
+        this.programador = new ScheduledThreadPoolExecutor(1, tarea -> {
+            Thread hilo = new Thread(tarea, "cocina-dulceria");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        // Fallback: Si no hay personal en turno, el sistema asume el rol (Bot)
+        this.puestoSistema = new Puesto(new VendedorDulceria("Sistema", "Auto", "Bot", 0, "CocinaExpress",
+                "pass", "x", "x", Empleado.Turno.MATUTINO, "Domingo"), 0);
+
+        long revision = Math.max(1000, Long.getLong(PROPIEDAD_REVISION_TURNOS, 60000));
+        actualizarPersonal();
+        programador.scheduleWithFixedDelay(this::revisarTurnos, revision, revision, TimeUnit.MILLISECONDS);
+    }
+
+    // ==========================================
+    // ADMISIÓN DE ÓRDENES
+    // ==========================================
+
+    /**
+     * Indica si la cocina tiene lugar en este momento. Permite avisar al cliente antes de cobrar.
+     * @return {@code true} si una orden se admitiría sin esperar.
+     */
+    public boolean hayCupo() {
+        return !cerrada && cupos.availablePermits() > 0;
+    }
+
+    /**
+     * Admite una orden y la envía al puesto menos cargado.
+     * <p>
+     * Si la cocina está llena, el hilo que llama espera hasta {@value #PROPIEDAD_ESPERA_ADMISION} ms a que se
+     * libere un lugar (contrapresión). El aviso de recepción al cliente solo se publica si la orden se admite.
+     *
+     * @param preparacion Orden a preparar.
+     * @return {@code true} si la orden fue admitida; {@code false} si se rechazó por cocina llena o cerrada.
+     */
+    public boolean encolar(PreparacionDulceria preparacion) {
+        if (cerrada) {
+            rechazadas.incrementAndGet();
+            return false;
+        }
+        try {
+            if (!cupos.tryAcquire(esperaAdmisionMs, TimeUnit.MILLISECONDS)) {
+                rechazadas.incrementAndGet();
+                return false;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rechazadas.incrementAndGet();
+            return false;
+        }
+        enCola.incrementAndGet();
+        admitidas.incrementAndGet();
+        registro.publicar(preparacion.instantanea());
+        if (preparacion.getLimite() != null) conLimite.incrementAndGet();
+        OrdenEnCola orden = new OrdenEnCola(preparacion, secuencia.incrementAndGet(), horizonteMs);
+        programador.execute(() -> despachar(orden));
+        return true;
+    }
+
+    // ==========================================
+    // DESPACHO Y MÁQUINA DE ESTADOS (hilo programador)
+    // ==========================================
+
+    /**
+     * Asigna una orden al puesto elegible menos cargado y, si su vendedor está libre, la inicia.
+     * @param orden Orden recién admitida.
+     */
+    private void despachar(OrdenEnCola orden) {
+        Puesto puesto;
+        synchronized (this) {
+            puesto = enTurno.first(); // Nunca vacío: el puesto del sistema cubre la ausencia de personal
+            modificar(puesto, () -> puesto.cola.add(orden));
+        }
+        long latencia = System.nanoTime() - orden.admitida;
+        despachos.incrementAndGet();
+        despachoTotalNanos.addAndGet(latencia);
+        despachoMaximoNanos.accumulateAndGet(latencia, Math::max);
+        if (!puesto.ocupado) atender(puesto);
+    }
+
+    /**
+     * Inicia en un puesto libre la siguiente orden de su cola o, si está vacía, una del puesto más cargado.
+     * @param puesto Puesto sin orden en curso.
+     */
+    private void atender(Puesto puesto) {
+        OrdenEnCola orden;
+        synchronized (this) {
+            orden = puesto.cola.peek();
+            if (orden != null) {
+                modificar(puesto, () -> puesto.cola.poll());
+            } else if (puesto.elegible) {
+                Puesto donante = enTurno.last();
+                if (donante == puesto || donante.cola.isEmpty()) return;
+                orden = donante.cola.peek();
+                modificar(donante, () -> donante.cola.poll());
+            } else {
+                return;
+            }
+            modificar(puesto, () -> {
+                puesto.ocupado = true;
+                puesto.inicioOcupado = System.nanoTime();
+            });
+        }
+        enPreparacion.incrementAndGet(); // Antes de liberar el cupo: el cierre nunca ve ambos en cero
+        enCola.decrementAndGet();
+        cupos.release();
+
+        long espera = System.nanoTime() - orden.admitida;
+        esperaTotalNanos.addAndGet(espera);
+        esperaMaximaNanos.accumulateAndGet(espera, Math::max);
+        try {
+            long configuracion = orden.preparacion.asignar(puesto.vendedor);
+            registro.publicar(orden.preparacion.instantanea());
+            programar(orden.preparacion, puesto, configuracion);
+        } catch (RuntimeException e) {
+            System.err.println("Error al iniciar la orden " + orden.preparacion.getIdOrden() + "; se libera el puesto: " + e);
+            fallidas.incrementAndGet();
+            liberar(puesto, false);
+            atender(puesto);
+        }
+    }
+
+    /**
+     * Programa la siguiente transición de una orden.
+     * <p>
+     * Si la transición falla, la orden se abandona pero el puesto se libera igualmente: de lo contrario su cola
+     * no volvería a atenderse y {@link #cerrar()} esperaría para siempre a que terminara.
+     *
+     * @param preparacion Orden en curso.
+     * @param puesto      Puesto que la atiende.
+     * @param esperaMs    Milisegundos hasta la transición.
+     */
+    private void programar(PreparacionDulceria preparacion, Puesto puesto, long esperaMs) {
+        programador.schedule(() -> {
+            boolean enCurso = false;
+            boolean terminada = false;
+            try {
+                long siguiente = preparacion.avanzar();
+                registro.publicar(preparacion.instantanea());
+                if (siguiente >= 0) {
+                    programar(preparacion, puesto, siguiente);
+                    enCurso = true;
+                    return;
+                }
+                terminada = true;
+                atendidas.incrementAndGet();
+                if (preparacion.perdioFuncion()) funcionesPerdidas.incrementAndGet();
+            } catch (RuntimeException e) {
+                System.err.println("Error al preparar la orden " + preparacion.getIdOrden() + "; se libera el puesto: " + e);
+                fallidas.incrementAndGet();
+            } finally {
+                if (!enCurso) {
+                    liberar(puesto, terminada);
+                    atender(puesto);
+                }
+            }
+        }, esperaMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Marca libre un puesto al concluir (o abandonarse) su orden en curso.
+     * @param puesto    Puesto que la atendía.
+     * @param terminada {@code true} si la orden se completó.
+     */
+    private void liberar(Puesto puesto, boolean terminada) {
+        synchronized (this) {
+            modificar(puesto, () -> {
+                puesto.ocupado = false;
+                puesto.ocupadoNanos += System.nanoTime() - puesto.inicioOcupado;
+                if (terminada) puesto.terminadas++;
+            });
+        }
+        enPreparacion.decrementAndGet();
+    }
+
+    /**
+     * Aplica un cambio que altera la carga de un puesto, retirándolo y reinsertándolo en el conjunto ordenado.
+     * Debe invocarse con el monitor de la cocina.
+     *
+     * @param puesto Puesto a modificar.
+     * @param cambio Modificación de su cola u ocupación.
+     */
+    private void modificar(Puesto puesto, Runnable cambio) {
+        boolean estaba = puesto.elegible && enTurno.remove(puesto);
+        cambio.run();
+        if (estaba) enTurno.add(puesto);
+    }
+
+    // ==========================================
+    // PERSONAL Y TURNOS
+    // ==========================================
+
+    /**
+     * Crea un puesto por cada vendedor de la lista maestra que aún no lo tenga y revisa los turnos.
+     * Debe invocarse después de registrar un nuevo {@link VendedorDulceria}.
+     */
+    public void actualizarPersonal() {
+        List<VendedorDulceria> encontrados = new ArrayList<>();
+        synchronized (usuarios) {
+            for (Usuario u : usuarios) {
+                if (u instanceof VendedorDulceria) encontrados.add((VendedorDulceria) u);
+            }
+        }
+        programador.execute(() -> {
+            synchronized (this) {
+                for (VendedorDulceria vendedor : encontrados) {
+                    if (!puestos.containsKey(vendedor.getNickname())) {
+                        puestos.put(vendedor.getNickname(), new Puesto(vendedor, puestos.size() + 1));
+                    }
+                }
+            }
+            revisarTurnos();
+        });
+    }
+
+    /**
+     * Recalcula qué puestos son elegibles según la hora actual y reparte las órdenes en cola de los que
+     * salieron de turno entre los que siguen. Después inicia trabajo en los puestos libres.
+     * <p>
+     * Los errores se informan y se descartan: una excepción en una tarea periódica cancelaría todas las
+     * revisiones siguientes.
+     */
+    private void revisarTurnos() {
+        try {
+            redistribuirTurnos();
+        } catch (RuntimeException e) {
+            System.err.println("Error al revisar los turnos de la dulcería: " + e);
+        }
+    }
+
+    /**
+     * Cuerpo de {@link #revisarTurnos()}.
+     */
+    private void redistribuirTurnos() {
+        List<Puesto> libres = new ArrayList<>();
+        synchronized (this) {
+            LocalDateTime ahora = LocalDateTime.now();
+            List<OrdenEnCola> huerfanas = new ArrayList<>();
+            boolean hayPersonal = false;
+            for (Puesto puesto : puestos.values()) {
+                boolean elegible = puesto.vendedor.estaEnTurno(ahora);
+                cambiarElegibilidad(puesto, elegible, huerfanas);
+                hayPersonal |= elegible;
+            }
+            cambiarElegibilidad(puestoSistema, !hayPersonal, huerfanas);
+
+            for (OrdenEnCola orden : huerfanas) {
+                Puesto destino = enTurno.first();
+                modificar(destino, () -> destino.cola.add(orden));
+            }
+            for (Puesto puesto : enTurno) {
+                if (!puesto.ocupado) libres.add(puesto);
+            }
+        }
+        for (Puesto puesto : libres) {
+            atender(puesto);
+        }
+    }
+
+    /**
+     * Agrega o retira un puesto del conjunto de elegibles. Al retirarlo, sus órdenes en cola quedan por repartir.
+     *
+     * @param puesto    Puesto a actualizar.
+     * @param elegible  Nueva elegibilidad.
+     * @param huerfanas Lista donde se acumulan las órdenes a repartir.
+     */
+    private void cambiarElegibilidad(Puesto puesto, boolean elegible, List<OrdenEnCola> huerfanas) {
+        if (puesto.elegible == elegible) return;
+        if (elegible) {
+            puesto.elegible = true;
+            enTurno.add(puesto);
+        } else {
+            enTurno.remove(puesto);
+            puesto.elegible = false;
+            huerfanas.addAll(puesto.cola);
+            puesto.cola.clear();
+        }
+    }
+
+    // ==========================================
+    // CIERRE Y MÉTRICAS
+    // ==========================================
+
+    /**
+     * Deja de admitir órdenes y espera a que se terminen las que ya fueron admitidas.
+     * Se invoca al cerrar la aplicación, de modo que ninguna orden pagada quede sin preparar.
+     */
+    public void cerrar() {
+        cerrada = true;
+        int pendientes = enCola.get() + enPreparacion.get();
+        if (pendientes > 0) {
+            System.out.println("Esperando a que la dulcería termine " + pendientes + " orden(es) pendiente(s)...");
+        }
+        try {
+            while (enCola.get() > 0 || enPreparacion.get() > 0) {
+                Thread.sleep(INTERVALO_REVISION_MS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        programador.shutdown();
+    }
+
+    /**
+     * Obtiene la cantidad de órdenes en espera.
+     * @return Órdenes admitidas que aún no empiezan a prepararse.
+     */
+    public int getLongitudCola() {
+        return enCola.get();
+    }
+
+    /**
+     * Obtiene la cantidad de órdenes rechazadas por cocina llena.
+     * @return Total de rechazos.
+     */
+    public long getRechazadas() {
+        return rechazadas.get();
+    }
+
+    /**
+     * Obtiene la cantidad de órdenes que terminaron después de iniciada la función del cliente.
+     * @return Total de funciones perdidas.
+     */
+    public long getFuncionesPerdidas() {
+        return funcionesPerdidas.get();
+    }
+
+    /**
+     * Obtiene el tiempo promedio de espera en cola de las órdenes ya tomadas por un vendedor.
+     * @return Espera promedio en milisegundos (0 si no se ha tomado ninguna).
+     */
+    public double getEsperaPromedioMs() {
+        long tomadas = atendidas.get() + fallidas.get() + enPreparacion.get();
+        return (tomadas == 0) ? 0 : esperaTotalNanos.get() / 1e6 / tomadas;
+    }
+
+    /**
+     * Genera un resumen legible de las métricas de la cocina y de cada vendedor.
+     * @return Texto con longitud de cola, conteos, tiempos de espera y despacho, y utilización por vendedor.
+     */
+    public synchronized String resumenMetricas() {
+        long despachadas = despachos.get();
+        StringBuilder resumen = new StringBuilder(String.format(
+                "Cola: %d/%d | En preparación: %d | Vendedores en turno: %d de %d%n"
+                        + "Admitidas: %d | Rechazadas: %d | Atendidas: %d | Fallidas: %d%n"
+                        + "Con función: %d | Terminadas después de iniciar la función: %d%n"
+                        + "Espera en cola: promedio %.1f s, máxima %.1f s%n"
+                        + "Despacho: promedio %.3f ms, máximo %.3f ms",
+                enCola.get(), capacidad, enPreparacion.get(),
+                enTurno.size() - (puestoSistema.elegible ? 1 : 0), puestos.size(),
+                admitidas.get(), rechazadas.get(), atendidas.get(), fallidas.get(),
+                conLimite.get(), funcionesPerdidas.get(),
+                getEsperaPromedioMs() / 1000, esperaMaximaNanos.get() / 1e9,
+                (despachadas == 0) ? 0 : despachoTotalNanos.get() / 1e6 / despachadas, despachoMaximoNanos.get() / 1e6));
+
+        long ahora = System.nanoTime();
+        List<Puesto> todos = new ArrayList<>(puestos.values());
+        if (puestoSistema.terminadas > 0 || puestoSistema.carga() > 0) todos.add(puestoSistema);
+        for (Puesto puesto : todos) {
+            resumen.append(String.format("%n  %-15s %-15s carga: %d | atendidas: %d | utilización: %.0f%%",
+                    puesto.vendedor.getNickname(), puesto.elegible ? "[en turno]" : "[fuera de turno]",
+                    puesto.carga(), puesto.terminadas, puesto.utilizacion(ahora) * 100));
+        }
+        return resumen.toString();
+    }
+}
@@ -7,6 +7,7 @@ import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Scanner;
 import mx.unam.fi.cine.modelo.*;
@@ -24,23 +25,36 @@ import mx.unam.fi.cine.modelo.*;
  * <li><b>Programación:</b> Creación de funciones ({@link Funcion}) validando reglas de no-superposición de horarios y tiempos de limpieza.</li>
  * <li><b>Recursos Humanos:</b> Registro de nuevos empleados ({@link Administrador} o {@link VendedorDulceria}) con sus propiedades específicas.</li>
  * <li><b>Auditoría:</b> Visualización del historial de compras de los clientes.</li>
+ * <li><b>Reportes:</b> Ocupación de funciones pasadas, leyendo bajo demanda las semanas archivadas ({@link ParticionesFunciones}).</li>
  * </ul>
  *
  * @author Equipo CineByt
- * @version 3.0
+ * @version 4.0
  * @see mx.unam.fi.cine.modelo.Administrador
  * @see mx.unam.fi.cine.modelo.GestorArchivos
  */
 public class ControladorAdministrador {
 
-    /** Referencia a la lista maestra de películas en memoria. */
-    private List<Pelicula> peliculas;
+    /** Boletos mostrados por página en el detalle del historial de un cliente. */
+    private static final int BOLETOS_POR_PAGINA = 20;
+
+    /** Catálogo de películas en memoria (lista maestra más índice por identificador). */
+    private CatalogoPeliculas catalogo;
     
     /** Referencia a la lista maestra de funciones (cartelera) en memoria. */
     private List<Funcion> funciones;
     
-    /** Referencia a la lista maestra de usuarios (empleados y clientes) en memoria. */
-    private List<Usuario> usuarios;
+    /** Repositorio de usuarios (empleados y clientes) en memoria, indexado por nickname. */
+    private UsuarioRepositorio usuarios;
+
+    /** Índice de funciones por película y fecha, actualizado en cada alta de función. */
+    private IndiceFunciones indiceFunciones;
+
+    /** Agenda de ocupación por sala, utilizada para validar cruces de horario en O(log n). */
+    private AgendaSalas agendaSalas;
+
+    /** Libro de boletos vendidos, indexado por cliente, para consultar historiales. */
+    private LibroBoletos libroBoletos;
     
     /** Objeto para la lectura de datos desde la consola estándar. */
     private Scanner entrada;
@@ -52,14 +66,22 @@ public class ControladorAdministrador {
      * <b>Nota de Diseño:</b> Se utiliza inyección de dependencias simple para asegurar que
      * los cambios realizados aquí se reflejen en toda la aplicación (Singleton implícito por referencia).
      *
-     * @param peliculas Lista mutable de películas.
+     * @param catalogo  Catálogo de películas (lista maestra con identificadores estables).
      * @param funciones Lista mutable de funciones.
-     * @param usuarios  Lista mutable de usuarios.
+     * @param usuarios  Repositorio de usuarios (lista maestra más índice por nickname).
+     * @param indiceFunciones Índice de funciones por película y fecha que debe mantenerse al dar de alta funciones.
+     * @param agendaSalas     Agenda de ocupación por sala que debe mantenerse al dar de alta funciones.
+     * @param libroBoletos    Libro de boletos vendidos para la consulta de historiales.
      */
-    public ControladorAdministrador(List<Pelicula> peliculas, List<Funcion> funciones, List<Usuario> usuarios) {
-        this.peliculas = peliculas;
+    public ControladorAdministrador(CatalogoPeliculas catalogo, List<Funcion> funciones, UsuarioRepositorio usuarios,
+                                    IndiceFunciones indiceFunciones, AgendaSalas agendaSalas,
+                                    LibroBoletos libroBoletos) {
+        this.catalogo = catalogo;
         this.funciones = funciones;
         this.usuarios = usuarios;
+        this.indiceFunciones = indiceFunciones;
+        this.agendaSalas = agendaSalas;
+        this.libroBoletos = libroBoletos;
         this.entrada = new Scanner(System.in);
     }
 
@@ -74,8 +96,8 @@ public class ControladorAdministrador {
      * <ol>
      * <li>Solicita los metadatos (Título, Género, Sinopsis, Duración).</li>
      * <li>Instancia un nuevo objeto {@link Pelicula}.</li>
-     * <li>Lo agrega a la lista en memoria.</li>
-     * <li>Invoca la persistencia inmediata mediante {@link #guardarDatos()}.</li>
+     * <li>Lo registra en el {@link CatalogoPeliculas}, que le asigna su identificador estable.</li>
+     * <li>Programa la persistencia diferida del catálogo mediante {@link PersistenciaDiferida}.</li>
      * </ol>
      */
     public void darAltaPelicula() {
@@ -93,10 +115,10 @@ public class ControladorAdministrador {
             int duracion = leerEntero("Duración en minutos (ej. 120): ");
 
             Pelicula nuevaPeli = new Pelicula(titulo, genero, sinopsis, duracion);
-            peliculas.add(nuevaPeli);
+            catalogo.registrar(nuevaPeli); // Asigna el identificador estable
             
-            // Guardar cambios en disco inmediatamente para evitar pérdida de datos
-            guardarDatos();
+            // El catálogo se escribe en segundo plano (durable en el siguiente intervalo o al salir)
+            PersistenciaDiferida.programarLista("peliculas.dat", catalogo.getPeliculas());
             System.out.println(">> Película registrada exitosamente.");
 
         } catch (Exception e) {
@@ -116,6 +138,7 @@ public class ControladorAdministrador {
      * <li><b>Selección de Contenido:</b> Elige una {@link Pelicula} existente.</li>
      * <li><b>Selección Temporal:</b> Define una fecha ({@link LocalDate}).</li>
      * <li><b>Selección Espacial:</b> Elige una {@link Sala} (A, B o VIP).</li>
+     * <li><b>Horarios Libres:</b> Antes de elegir sala muestra las franjas de inicio factibles de cada sala.</li>
      * <li><b>Visualización:</b> Muestra la parrilla actual de esa sala en esa fecha para ayudar al admin.</li>
      * <li><b>Confirmación:</b> Solicita confirmación explícita antes de pedir la hora exacta.</li>
      * <li><b>Validación Crítica:</b> Solicita la hora de inicio y verifica cruces de horario (incluyendo 30 min de limpieza)
@@ -125,6 +148,7 @@ public class ControladorAdministrador {
      */
     public void darAltaFuncion() {
         System.out.println("\n--- ALTA DE FUNCIÓN ---");
+        List<Pelicula> peliculas = catalogo.getPeliculas();
         
         if (peliculas.isEmpty()) {
             System.out.println("No hay películas registradas. Registre una primero.");
@@ -142,8 +166,14 @@ public class ControladorAdministrador {
         // 2. Definir Fecha
         LocalDate fecha = leerFecha("Fecha (dd/MM/yyyy): ");
         if (fecha == null) return;
+        if (fecha.isBefore(LocalDate.now())) {
+            // Las semanas pasadas están archivadas (ParticionesFunciones) y no forman parte de la cartelera vigente
+            System.out.println("No es posible programar funciones en fechas pasadas.");
+            return;
+        }
 
-        // 3. Seleccionar Sala
+        // 3. Seleccionar Sala (mostrando antes los horarios de inicio libres de cada una)
+        mostrarHorariosDisponibles(peli, fecha);
         System.out.println("Sala: 1. Sala A | 2. Sala B | 3. Sala VIP");
         int opSala = leerEntero("Seleccione una opción: ");
         String nombreSala = (opSala == 1) ? "Sala A" : (opSala == 2) ? "Sala B" : (opSala == 3) ? "Sala VIP" : null;
@@ -151,16 +181,12 @@ public class ControladorAdministrador {
 
         // 4. Mostrar Programación Actual (Ayuda visual para el usuario)
         System.out.println("\n--- Programación " + nombreSala + " " + fecha + " ---");
-        boolean siHay = false;
-        for (Funcion funcion : funciones) {
-            // Filtra funciones que coincidan en Sala y Día
-            if (funcion.getSala().getNombre().equals(nombreSala) && funcion.getHorario().toLocalDate().equals(fecha)) {
-                LocalTime fin = funcion.getHorario().toLocalTime().plusMinutes(funcion.getPelicula().getDuracionMinutos());
-                System.out.println(funcion.getHorario().toLocalTime() + " - " + fin + " | " + funcion.getPelicula().getTitulo());
-                siHay = true;
-            }
+        List<Funcion> delDia = agendaSalas.funcionesDelDia(nombreSala, fecha);
+        for (Funcion funcion : delDia) {
+            LocalTime fin = funcion.getHorario().toLocalTime().plusMinutes(funcion.getPelicula().getDuracionMinutos());
+            System.out.println(funcion.getHorario().toLocalTime() + " - " + fin + " | " + funcion.getPelicula().getTitulo());
         }
-        if (!siHay) System.out.println("(Libre)");
+        if (delDia.isEmpty()) System.out.println("(Libre)");
 
         // 5. Prompt Estricto de decisión
         while (true) {
@@ -183,13 +209,18 @@ public class ControladorAdministrador {
                         // INVOCACIÓN DE REGLA DE NEGOCIO: Disponibilidad + Limpieza
                         if (validarDisponibilidadSala(nombreSala, inicio, peli.getDuracionMinutos())) {
                             Funcion nuevaFuncion = new Funcion(peli, nombreSala, inicio);
-                            funciones.add(nuevaFuncion);
-                            guardarDatos();
+                            synchronized (funciones) {
+                                funciones.add(nuevaFuncion);
+                            }
+                            indiceFunciones.agregar(nuevaFuncion);
+                            agendaSalas.agregar(nuevaFuncion);
+                            PersistenciaDiferida.programarFunciones(funciones);
                             System.out.println(">> Función registrada. ID: " + nuevaFuncion.getIdFuncion());
                             registrada = true;
                             return; // Salir al menú tras éxito
                         } else {
-                            System.out.println("NO ES POSIBLE dar de alta: Cruce de horarios (se requieren 30 min para limpieza de salas).");
+                            System.out.println("NO ES POSIBLE dar de alta: Cruce de horarios (se requieren 30 min para limpieza de salas) "
+                                    + "o fuera del horario de operación (inicios de " + AgendaSalas.HORA_APERTURA + " a " + AgendaSalas.HORA_ULTIMA_FUNCION + ").");
                             // Rompe el loop interno de hora para volver a preguntar Alta/Cancelar
                             break; 
                         }
@@ -201,6 +232,22 @@ public class ControladorAdministrador {
         }
     }
 
+    /**
+     * Muestra, para cada sala, las franjas de hora de inicio en las que la película cabe sin violar
+     * la regla de limpieza ni el horario de operación ({@link AgendaSalas#horariosDisponibles}).
+     *
+     * @param peli  Película a programar.
+     * @param fecha Día de la proyección.
+     */
+    private void mostrarHorariosDisponibles(Pelicula peli, LocalDate fecha) {
+        System.out.println("\n--- Horarios de inicio disponibles para '" + peli.getTitulo() + "' ("
+                + peli.getDuracionMinutos() + " min) ---");
+        for (String sala : new String[]{"Sala A", "Sala B", "Sala VIP"}) {
+            List<FranjaHoraria> franjas = agendaSalas.horariosDisponibles(sala, fecha, peli.getDuracionMinutos());
+            System.out.println(sala + ": " + (franjas.isEmpty() ? "(Sin espacio)" : franjas.toString()));
+        }
+    }
+
     // ==========================================
     // 3. REGISTRO DE EMPLEADOS
     // ==========================================
@@ -234,21 +281,27 @@ public class ControladorAdministrador {
             // 3. Selección de Rol y Creación Polimórfica
             System.out.println("Tipo: 1. Administrador | 2. Vendedor de dulcería");
             int tipo = leerEntero("Seleccione una opción: ");
+            Usuario nuevoEmpleado;
             
             if (tipo == 1) {
                 // Configuración específica de Admin
                 System.out.println("¿Es administrador de fin de semana? (1. Sí / 2. No)");
                 boolean esFin = leerEntero("Seleccione una opción: ") == 1;
-                usuarios.add(new Administrador(nombre, apPaterno, apMaterno, edad, nick, contra, email, cel, turno, esFin));
+                nuevoEmpleado = new Administrador(nombre, apPaterno, apMaterno, edad, nick, contra, email, cel, turno, esFin);
             } else {
                 // Configuración específica de Vendedor
                 System.out.print("Día de descanso: ");
                 String descanso = entrada.nextLine();
-                usuarios.add(new VendedorDulceria(nombre, apPaterno, apMaterno, edad, nick, contra, email, cel, turno, descanso));
+                nuevoEmpleado = new VendedorDulceria(nombre, apPaterno, apMaterno, edad, nick, contra, email, cel, turno, descanso);
+            }
+
+            if (!usuarios.agregar(nuevoEmpleado)) {
+                System.out.println("Error: El nickname ya está registrado. No se pudo registrar.");
+                return;
             }
             
-            // 4. Persistencia
-            guardarDatos();
+            // 4. Persistencia (diferida)
+            PersistenciaDiferida.programarLista("usuarios.dat", usuarios.getUsuarios());
             System.out.println("Empleado registrado.");
     }
 
@@ -262,8 +315,8 @@ public class ControladorAdministrador {
      * Realiza una búsqueda en dos fases:
      * <ol>
      * <li><b>En Memoria:</b> Filtra la lista de usuarios para encontrar coincidencias por nickname.</li>
-     * <li><b>En Archivo:</b> Si se selecciona un usuario, lee su archivo de tickets asociado ({@code tickets_NICK.txt})
-     * generado por el {@code ControladorCompra}.</li>
+     * <li><b>En Libro de Boletos:</b> Muestra el conteo de boletos de cada coincidencia (O(1) por índice) y, si se
+     * selecciona un usuario, lee únicamente sus boletos del {@link LibroBoletos} generado por el {@code ControladorCompra}.</li>
      * </ol>
      */
     public void verHistorialCliente() {
@@ -273,7 +326,7 @@ public class ControladorAdministrador {
 
         // Filtrar clientes usando instanceof
         List<Cliente> coincidencias = new ArrayList<>();
-        for (Usuario usuario : usuarios) {
+        for (Usuario usuario : usuarios.getUsuarios()) {
             if (usuario instanceof Cliente && usuario.getNickname().contains(busqueda)) {
                 coincidencias.add((Cliente) usuario);
             }
@@ -302,76 +355,117 @@ public class ControladorAdministrador {
     // MÉTODOS AUXILIARES PRIVADOS PARA HISTORIAL
 
     /**
-     * Cuenta las líneas del archivo de historial de un cliente para mostrar un resumen.
+     * Obtiene la cantidad de boletos de un cliente para mostrar un resumen (consulta O(1) al índice del libro).
      * @param nickname Identificador del usuario.
-     * @return Número de registros encontrados, o 0 si no existe archivo.
+     * @return Número de boletos registrados, o 0 si no tiene historial.
      */
     private int contarBoletosCliente(String nickname) {
-        String archivo = "tickets_" + nickname + ".txt";
-        try {
-            if (GestorArchivos.existeArchivo(archivo)) {
-                return GestorArchivos.leerArchivoTexto(archivo).size();
-            }
-        } catch (IOException e) {}
-        return 0;
+        return libroBoletos.contarBoletos(nickname);
     }
 
     /**
-     * Lee e imprime el contenido completo del archivo de tickets del cliente.
+     * Imprime los boletos del cliente por páginas, accediendo solo a sus registros dentro del libro de boletos.
+     * Solo se mantiene en memoria la página actual, sin importar el tamaño del historial.
      * @param cliente Objeto Cliente seleccionado.
      */
     private void mostrarDetalleBoletos(Cliente cliente) {
         System.out.println("\n--- Detalle para " + cliente.getNombre() + " (" + cliente.getNickname() + ") ---");
-        String archivo = "tickets_" + cliente.getNickname() + ".txt";
+        int total = libroBoletos.contarBoletos(cliente.getNickname());
+        if (total == 0) {
+            System.out.println("Este cliente no tiene historial de boletos.");
+            return;
+        }
         try {
-            if (GestorArchivos.existeArchivo(archivo)) {
-                List<String> lineas = GestorArchivos.leerArchivoTexto(archivo);
-                for (String linea : lineas) System.out.println(linea); 
-            } else {
-                System.out.println("Este cliente no tiene historial de boletos.");
+            for (int desde = 0; desde < total; desde += BOLETOS_POR_PAGINA) {
+                for (String linea : libroBoletos.leerBoletos(cliente.getNickname(), desde, BOLETOS_POR_PAGINA)) {
+                    System.out.println(linea);
+                }
+                int mostrados = Math.min(desde + BOLETOS_POR_PAGINA, total);
+                if (mostrados < total) {
+                    System.out.print("-- " + mostrados + " de " + total + " boletos. ENTER para continuar, S para salir: ");
+                    if (entrada.nextLine().trim().equalsIgnoreCase("S")) return;
+                }
             }
         } catch (IOException e) {
             System.out.println("Error leyendo historial.");
         }
     }
     
+    // ==========================================
+    // 5. REPORTE DE FUNCIONES ANTERIORES
+    // ==========================================
+
     /**
-     * Valida matemáticamente si es posible agendar una función sin conflictos de horario.
+     * Muestra la ocupación de las funciones ya proyectadas dentro de un rango de fechas.
+     * <p>
+     * Las semanas anteriores a la actual no forman parte de la cartelera en memoria: sus particiones se leen
+     * bajo demanda con {@link ParticionesFunciones#cargarArchivadas} (y quedan en caché para consultas
+     * posteriores). Los días del rango que pertenecen a la semana actual se toman de la lista maestra.
+     */
+    public void verFuncionesAnteriores() {
+        System.out.println("\n--- REPORTE DE FUNCIONES ANTERIORES ---");
+        LocalDate desde = leerFecha("Desde (dd/MM/yyyy): ");
+        if (desde == null) return;
+        LocalDate hasta = leerFecha("Hasta (dd/MM/yyyy): ");
+        if (hasta == null) return;
+
+        List<Funcion> proyectadas;
+        try {
+            proyectadas = ParticionesFunciones.cargarArchivadas(desde, hasta);
+        } catch (IOException e) {
+            System.out.println("Error leyendo las semanas archivadas: " + e.getMessage());
+            return;
+        }
+        LocalDateTime ahora = LocalDateTime.now();
+        synchronized (funciones) {
+            for (Funcion funcion : funciones) {
+                LocalDate fecha = funcion.getHorario().toLocalDate();
+                if (!fecha.isBefore(desde) && !fecha.isAfter(hasta) && funcion.getHorario().isBefore(ahora)) {
+                    proyectadas.add(funcion);
+                }
+            }
+        }
+        if (proyectadas.isEmpty()) {
+            System.out.println("No hay funciones proyectadas en ese rango.");
+            return;
+        }
+
+        proyectadas.sort(Comparator.comparing(Funcion::getHorario));
+        DateTimeFormatter formato = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+        long vendidosTotal = 0;
+        long capacidadTotal = 0;
+        for (Funcion funcion : proyectadas) {
+            int vendidos = 0;
+            for (Asiento asiento : funcion.getSala().getAsientos()) {
+                if (asiento.isVendido()) vendidos++;
+            }
+            int capacidad = funcion.getSala().getCapacidad();
+            vendidosTotal += vendidos;
+            capacidadTotal += capacidad;
+            System.out.println(funcion.getHorario().format(formato) + " | " + funcion.getSala().getNombre() + " | "
+                    + funcion.getPelicula().getTitulo() + " | Boletos: " + vendidos + "/" + capacidad);
+        }
+        System.out.printf("Total: %d funciones, %d de %d asientos vendidos (%.1f%%)%n", proyectadas.size(),
+                vendidosTotal, capacidadTotal, (capacidadTotal == 0) ? 0.0 : 100.0 * vendidosTotal / capacidadTotal);
+    }
+
+    /**
+     * Valida si es posible agendar una función sin conflictos de horario.
      * <p>
      * <b>Regla de Negocio (30 Minutos):</b>
      * Para considerar una sala "Disponible", debe existir un hueco entre funciones que considere
      * la duración de la película MÁS 30 minutos de limpieza/preparación.
      * </p>
-     * <b>Lógica de Colisión:</b>
-     * Existe colisión si los intervalos de tiempo [InicioA, FinA+30] y [InicioB, FinB+30] se superponen.
-     * Matemáticamente comprobado como:
-     * {@code (InicioNueva < FinExistente + 30) AND (FinNueva > InicioExistente - 30)}
+     * La verificación se delega a {@link AgendaSalas#estaDisponible}, que solo compara contra las
+     * funciones vecinas de la misma sala en lugar de recorrer toda la cartelera.
      *
      * @param nombreSala    Nombre de la sala objetivo.
      * @param inicioNueva   Fecha y hora de inicio propuesta.
      * @param duracionMinutos Duración de la película a proyectar.
-     * @return {@code true} si la sala está libre (respetando limpieza); {@code false} si hay cruce.
+     * @return {@code true} si la sala está libre (respetando limpieza y horario de operación); {@code false} en otro caso.
      */
     private boolean validarDisponibilidadSala(String nombreSala, LocalDateTime inicioNueva, int duracionMinutos) {
-        LocalDateTime finNueva = inicioNueva.plusMinutes(duracionMinutos);
-
-        for (Funcion f : funciones) {
-            // Solo verificar colisiones en la misma sala física
-            if (f.getSala().getNombre().equals(nombreSala)) {
-                LocalDateTime inicioExistente = f.getHorario();
-                LocalDateTime finExistente = inicioExistente.plusMinutes(f.getPelicula().getDuracionMinutos());
-
-                // Definición de márgenes de seguridad para limpieza
-                LocalDateTime finExistenteMasLimpieza = finExistente.plusMinutes(30);
-                LocalDateTime inicioExistenteMenosLimpieza = inicioExistente.minusMinutes(30);
-
-                // Comprobación de solapamiento de intervalos
-                boolean colision = inicioNueva.isBefore(finExistenteMasLimpieza) && finNueva.isAfter(inicioExistenteMenosLimpieza);
-                
-                if (colision) return false;
-            }
-        }
-        return true;
+        return agendaSalas.estaDisponible(nombreSala, inicioNueva, duracionMinutos);
     }
 
     /**
@@ -406,18 +500,4 @@ public class ControladorAdministrador {
             return null;
         }
     }
-
-    /**
-     * Invoca al GestorArchivos para serializar el estado actual de las listas maestras.
-     * Se llama después de cualquier operación de escritura (Alta/Modificación).
-     */
-    private void guardarDatos() {
-        try {
-            GestorArchivos.guardarObjeto("peliculas.dat", peliculas);
-            GestorArchivos.guardarObjeto("funciones.dat", funciones);
-            GestorArchivos.guardarObjeto("usuarios.dat", usuarios);
-        } catch (IOException e) {
-            System.out.println("Error crítico al guardar datos: " + e.getMessage());
-        }
-    }
 }
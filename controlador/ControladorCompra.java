@@ -38,13 +38,41 @@ public class ControladorCompra {
      */
     private List<Funcion> funciones; 
 
+    /** Índice de la cartelera por película y fecha; evita recorrer {@code funciones} en cada consulta. */
+    private IndiceFunciones indiceFunciones;
+
+    /** Libro único de boletos vendidos, indexado por cliente. */
+    private LibroBoletos libroBoletos;
+
+    /** Archivo de ocupación mapeado en memoria; {@code null} para usar la bitácora de ventas. */
+    private AsientosMapeados asientosMapeados;
+
+    /**
+     * Cantidad de asientos registrados en la bitácora de ventas a partir de la cual se consolida
+     * una nueva instantánea de la cartelera y se vacía la bitácora.
+     */
+    private static final int UMBRAL_COMPACTACION = 500;
+
+    /**
+     * Tiempo de vida de un apartado de asientos (2 minutos). Cubre con holgura la simulación de pago;
+     * si se excede, los asientos se liberan automáticamente y la compra no se confirma.
+     */
+    private static final long DURACION_APARTADO_MS = 120_000;
+
     /**
      * Constructor del controlador de compras.
      * * @param funciones Referencia a la lista maestra de funciones (Cartelera) cargada en {@code CineByt}.
+     * @param indiceFunciones Índice de funciones por película y fecha, mantenido por {@code ControladorAdministrador}.
+     * @param libroBoletos    Libro de boletos donde se registra cada compra.
+     * @param asientosMapeados Archivo de asientos mapeado en memoria, o {@code null} si el modo no está activo.
      */
-    public ControladorCompra(List<Funcion> funciones) {
+    public ControladorCompra(List<Funcion> funciones, IndiceFunciones indiceFunciones, LibroBoletos libroBoletos,
+                             AsientosMapeados asientosMapeados) {
         this.entrada = new Scanner(System.in);
         this.funciones = funciones;
+        this.indiceFunciones = indiceFunciones;
+        this.libroBoletos = libroBoletos;
+        this.asientosMapeados = asientosMapeados;
     }
 
     /**
@@ -52,8 +80,8 @@ public class ControladorCompra {
      * <p>
      * Pasos del proceso:
      * <ol>
-     * <li>Solicita y valida la fecha de asistencia.</li>
-     * <li>Filtra la lista de funciones buscando coincidencias de Título + Fecha.</li>
+     * <li>Muestra los próximos días con funciones de la película y solicita y valida la fecha de asistencia.</li>
+     * <li>Consulta el {@link IndiceFunciones} para obtener las funciones de la película en esa fecha.</li>
      * <li>Presenta las opciones disponibles al usuario.</li>
      * <li>Delega la gestión de asientos al método {@link #realizarCompraAsientos}.</li>
      * </ol>
@@ -61,24 +89,30 @@ public class ControladorCompra {
      * @param pelicula La película seleccionada previamente desde el menú principal.
      */
     public void iniciarCompra(Cliente cliente, Pelicula pelicula) {
+        DateTimeFormatter formatoFecha = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+        // 1. Fechas con funciones programadas (consulta directa al índice)
+        List<LocalDate> fechas = indiceFunciones.fechasConFunciones(pelicula, LocalDate.now());
+        if (fechas.isEmpty()) {
+            System.out.println("No hay funciones próximas programadas para esta película.");
+        } else {
+            StringBuilder listado = new StringBuilder("Fechas con funciones:");
+            for (LocalDate dia : fechas) listado.append(" ").append(dia.format(formatoFecha));
+            System.out.println(listado);
+        }
+
         System.out.print("Ingrese fecha para ver funciones (dd/MM/yyyy): ");
         String fecha = entrada.nextLine();
         LocalDate fechaSeleccionada;
         try {
-            fechaSeleccionada = LocalDate.parse(fecha, DateTimeFormatter.ofPattern("dd/MM/yyyy"));
+            fechaSeleccionada = LocalDate.parse(fecha, formatoFecha);
         } catch (DateTimeParseException e) {
             System.out.println("Formato de fecha inválido.");
             return;
         }
 
-        // 2. Filtrado manual de funciones coincidentes
-        List<Funcion> funcionesDisponibles = new ArrayList<>();
-        for (Funcion funcion : funciones) {
-            if (funcion.getPelicula().getTitulo().equals(pelicula.getTitulo()) && 
-                funcion.getHorario().toLocalDate().equals(fechaSeleccionada)) {
-                funcionesDisponibles.add(funcion);
-            }
-        }
+        // 2. Funciones coincidentes, ya ordenadas por hora
+        List<Funcion> funcionesDisponibles = indiceFunciones.buscar(pelicula, fechaSeleccionada);
 
         if (funcionesDisponibles.isEmpty()) {
             System.out.println("No hay funciones programadas para esa fecha.");
@@ -116,9 +150,11 @@ public class ControladorCompra {
      * Este método encapsula la lógica crítica de negocio:
      * <ul>
      * <li>Visualización del estado actual de la sala.</li>
-     * <li>Bloqueo lógico de asientos (selección).</li>
+     * <li>Apartado atómico de asientos con fecha límite ({@link GestorApartados#apartar}): si otra terminal
+     * tomó alguno de los lugares elegidos, se solicita una nueva selección.</li>
      * <li>Simulación de pago bancario (Proceso Bloqueante Simulada).</li>
-     * <li>Confirmación de compra y persistencia.</li>
+     * <li>Conversión del apartado en venta y persistencia, o liberación de los asientos si el pago falla.
+     * Si el apartado expiró mientras se cobraba, se informa que el cargo se reembolsa.</li>
      * </ul>
      * * @param cliente El comprador.
      * @param funcion La función específica seleccionada.
@@ -127,21 +163,61 @@ public class ControladorCompra {
         // Mostrar mapa gráfico de la sala
         mostrarMapaAsientos(funcion.getSala());
 
-        // Selección y Validación de entrada
-        List<Asiento> asientosSeleccionados = solicitarAsientos(funcion.getSala());
-        if (asientosSeleccionados == null || asientosSeleccionados.isEmpty()) return;
+        // Selección, Validación de entrada y Apartado atómico
+        ApartadoAsientos apartado;
+        while (true) {
+            List<Asiento> asientosSeleccionados = solicitarAsientos(funcion.getSala());
+            if (asientosSeleccionados == null || asientosSeleccionados.isEmpty()) return;
+
+            // Otra terminal pudo vender o apartar alguno de los lugares desde que se mostró el mapa
+            apartado = GestorApartados.apartar(funcion, asientosSeleccionados, DURACION_APARTADO_MS);
+            if (apartado != null) break;
+            System.out.println("Error: Alguno de los asientos acaba de ser tomado en otra terminal. Elija nuevamente.");
+            mostrarMapaAsientos(funcion.getSala());
+        }
+        System.out.println("Asientos apartados por " + (DURACION_APARTADO_MS / 60_000) + " minutos mientras se procesa el pago.");
 
         // Invocación del subsistema de pago concurrente
         boolean pagoExitoso = simularPagoConcurrente();
 
-        if (pagoExitoso) {
-            generarTickets(cliente, funcion, asientosSeleccionados);
-            try { 
-                // Persistencia inmediata del estado actualizado (Asientos ocupados)
-                GestorArchivos.guardarObjeto("funciones.dat", funciones); 
-            } catch (IOException e) {
-                System.err.println("Advertencia: No se pudo actualizar el archivo maestro de funciones.");
+        if (!pagoExitoso) {
+            GestorApartados.cancelar(apartado);
+            System.out.println("El pago no pudo ser procesado. Los asientos fueron liberados.");
+        } else if (GestorApartados.confirmar(apartado)) {
+            generarTickets(cliente, funcion, apartado.getAsientos());
+            persistirVenta(funcion, apartado.getAsientos());
+        } else {
+            // El cobro ya se realizó: los asientos se liberaron al expirar, por lo que se devuelve el importe
+            System.out.println("El tiempo de apartado expiró antes de confirmar la compra. Los asientos fueron liberados y se reembolsará el cargo.");
+        }
+    }
+
+    /**
+     * Persiste la venta agregando únicamente los asientos vendidos a la bitácora.
+     * <p>
+     * En lugar de reescribir la cartelera completa por cada compra, se agrega un registro
+     * por asiento a la bitácora de ventas. Cuando la bitácora supera {@link #UMBRAL_COMPACTACION}
+     * registros, se programa (de forma diferida) una instantánea completa tras la cual la bitácora se vacía.
+     * La venta es durable al regresar, pues la bitácora se sincroniza antes de la compactación.
+     * <br>
+     * En el modo de asientos mapeados, la venta se registra encendiendo los bits de los asientos en el
+     * archivo {@link AsientosMapeados}, sin pasar por la bitácora.
+     *
+     * @param funcion  Función vendida.
+     * @param asientos Asientos ya confirmados como vendidos en memoria.
+     */
+    private void persistirVenta(Funcion funcion, List<Asiento> asientos) {
+        try {
+            if (asientosMapeados != null) {
+                asientosMapeados.marcarVendidos(funcion, asientos);
+                return;
             }
+            GestorArchivos.registrarVentas(funcion, asientos);
+            if (GestorArchivos.getRegistrosBitacora() >= UMBRAL_COMPACTACION) {
+                PersistenciaDiferida.programarFunciones(funciones);
+            }
+        } catch (IOException e) {
+            System.err.println("Advertencia: No se pudo registrar la venta en la bitácora de funciones.");
         }
     }
 
@@ -315,14 +391,13 @@ public class ControladorCompra {
      * <p>
      * Acciones realizadas:
      * <ul>
-     * <li>Cambia el estado de los objetos {@link Asiento} a "Ocupado".</li>
      * <li>Genera un ID único por boleto (Composición: FunciónID + Asiento).</li>
      * <li>Calcula el total monetario.</li>
      * <li>Escribe un registro persistente en el historial del usuario (archivo de texto).</li>
      * </ul>
      * * @param cliente  Usuario que compró.
      * @param funcion  Función comprada.
-     * @param asientos Lista de asientos adquiridos.
+     * @param asientos Lista de asientos adquiridos (venta ya confirmada en la función).
      */
     private void generarTickets(Cliente cliente, Funcion funcion, List<Asiento> asientos) {
         System.out.println("\n===============================================");
@@ -336,27 +411,26 @@ public class ControladorCompra {
         double precioBoleto = 60.00; // Precio base fijo para este prototipo
         double total = precioBoleto * asientos.size();
 
-        // Base del ID: Iniciales:AAAAMMDD:hhmm:Sala
-        String idBase = funcion.getIdFuncion(); 
+        // Base del ID: Iniciales:AAAAMMDD:hhmm:Sala (se genera una sola vez por compra)
+        String idBase = funcion.getIdFuncion() + ":";
+        List<String> boletos = new ArrayList<>();
 
         for (Asiento asiento : asientos) {
-            // 1. Mutación de Estado: Marcar asiento como ocupado en memoria
-            asiento.setOcupado(true);
-
-            // 2. Generación de ID único del boleto
-            String idBoleto = String.format("%s:%c%d", idBase, asiento.getFila(), asiento.getNumero());
+            // 1. Generación de ID único del boleto (función + asiento)
+            String idBoleto = idBase + asiento.getFila() + asiento.getNumero();
             
             System.out.println("-----------------------------------------------");
             System.out.println("Asiento: " + asiento.getFila() + asiento.getNumero());
             System.out.println("Ticket ID: " + idBoleto);
             
-            // 3. Persistencia de Historial (Log de tickets)
-            try {
-                GestorArchivos.escribirTexto("tickets_" + cliente.getNickname() + ".txt", 
-                    "Boleto: " + idBoleto + " | " + funcion.getPelicula().getTitulo(), true);
-            } catch (IOException e) {
-                // Error no crítico: Si falla el log, la compra sigue siendo válida en memoria
-            }
+            boletos.add("Boleto: " + idBoleto + " | " + funcion.getPelicula().getTitulo());
+        }
+
+        // 2. Persistencia de Historial: una sola escritura por compra en el libro de boletos
+        try {
+            libroBoletos.registrar(cliente.getNickname(), boletos);
+        } catch (IOException e) {
+            // Error no crítico: Si falla el log, la compra sigue siendo válida en memoria
         }
         
         System.out.println("===============================================");
@@ -3,8 +3,8 @@ package mx.unam.fi.cine.controlador;
 import java.io.*;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
@@ -19,72 +19,60 @@ import mx.unam.fi.cine.modelo.*;
  * </p>
  * <b>Características Arquitectónicas:</b>
  * <ul>
- * <li><b>Configuración Externa:</b> Los precios no están "hardcodeados"; se cargan al inicio desde {@code PreciosProductos.txt},
- * permitiendo cambios operativos sin recompilación.</li>
- * <li><b>Procesamiento Asíncrono:</b> Utiliza hilos independientes para simular el cobro bancario y para
- * delegar la preparación del pedido a un hilo de "Cocina" ({@link PreparacionDulceria}), liberando el flujo principal.</li>
- * <li><b>Asignación de Recursos:</b> Busca y asigna automáticamente un {@link VendedorDulceria} disponible para registrar la venta.</li>
+ * <li><b>Configuración Externa:</b> Los precios no están "hardcodeados"; provienen del {@link CatalogoPrecios} compartido,
+ * que lee {@code PreciosProductos.txt} una sola vez y lo recarga al modificarse, permitiendo cambios operativos sin
+ * recompilación ni reinicio.</li>
+ * <li><b>Procesamiento Asíncrono:</b> Utiliza hilos independientes para simular el cobro bancario y
+ * delega la preparación del pedido ({@link PreparacionDulceria}) a la {@link CocinaDulceria} compartida,
+ * liberando el flujo principal.</li>
+ * <li><b>Asignación de Recursos:</b> La cocina asigna la orden al {@link VendedorDulceria} en turno con menos carga.</li>
  * </ul>
  *
  * @author Equipo CineByt
- * @version 4.0
- * @see mx.unam.fi.cine.modelo.PreparacionDulceria
+ * @version 6.0
+ * @see mx.unam.fi.cine.controlador.CocinaDulceria
+ * @see mx.unam.fi.cine.controlador.CatalogoPrecios
+ * @see mx.unam.fi.cine.controlador.PreparacionDulceria
  * @see mx.unam.fi.cine.modelo.VendedorDulceria
  */
 public class ControladorDulceria {
     private Scanner entrada;
-    private List<Usuario> usuarios;
-    
-    /** * Estructura de datos en memoria para acceso rápido (O(1)) a los precios.
-     * La clave es el identificador del producto (ej. "PALOMITAS_JUMBO") y el valor su costo.
-     */
-    private Map<String, Double> precios; 
 
+    /** Cocina compartida por todas las sesiones, donde se encolan las órdenes pagadas. */
+    private CocinaDulceria cocina;
+
+    /** Catálogo de precios compartido por todas las sesiones. */
+    private CatalogoPrecios catalogoPrecios;
+
+    /** Libro de boletos, de donde se obtiene la próxima función del cliente. */
+    private LibroBoletos libroBoletos;
+
+    /** Agenda de salas, para resolver el boleto a su {@link Funcion}. */
+    private AgendaSalas agendaSalas;
+
+    /** Boletos más recientes del cliente que se revisan para encontrar su próxima función. */
+    private static final int BOLETOS_REVISADOS = 50;
+
+    /** Formato de fecha y hora dentro del identificador de un boleto ({@code AAAAMMDDHHmm}). */
+    private static final DateTimeFormatter FORMATO_HORARIO_BOLETO = DateTimeFormatter.ofPattern("yyyyMMddHHmm");
+    
     /**
      * Constructor del Controlador de Dulcería.
      * <p>
-     * Inicializa los recursos y dispara inmediatamente la carga de la configuración de precios.
+     * Solo enlaza los recursos compartidos: el catálogo de precios ya está cargado.
      *
-     * @param usuarios Lista maestra de usuarios, necesaria para buscar un vendedor que atienda el pedido.
+     * @param cocina          Cocina compartida que prepara las órdenes.
+     * @param catalogoPrecios Catálogo de precios vigente.
+     * @param libroBoletos Libro de boletos, para priorizar las órdenes según la próxima función del cliente.
+     * @param agendaSalas  Agenda de salas, para obtener el horario vigente de esa función.
      */
-    public ControladorDulceria(List<Usuario> usuarios) {
+    public ControladorDulceria(CocinaDulceria cocina, CatalogoPrecios catalogoPrecios, LibroBoletos libroBoletos,
+                               AgendaSalas agendaSalas) {
         this.entrada = new Scanner(System.in);
-        this.usuarios = usuarios;
-        this.precios = new HashMap<>();
-        cargarPrecios(); // Inicialización de datos maestros
-    }
-
-    /**
-     * Lee el archivo de configuración externo para poblar el mapa de precios.
-     * <p>
-     * <b>Formato esperado del archivo:</b> {@code CLAVE_PRODUCTO : PRECIO}
-     * <br>Ejemplo: {@code PALOMITAS_MEGA : 85.50}
-     * </p>
-     * Si el archivo no existe o tiene errores de formato, el sistema maneja la excepción
-     * para no interrumpir la ejecución, aunque los precios podrían ser 0.0.
-     */
-    private void cargarPrecios() {
-        try {
-            if (GestorArchivos.existeArchivo("PreciosProductos.txt")) {
-                List<String> lineas = GestorArchivos.leerArchivoTexto("PreciosProductos.txt");
-                for (String linea : lineas) {
-                    try {
-                        String[] partes = linea.split(":");
-                        if (partes.length == 2) {
-                            String clave = partes[0].trim().toUpperCase();
-                            Double precio = Double.parseDouble(partes[1].trim());
-                            precios.put(clave, precio);
-                        }
-                    } catch (NumberFormatException e) {
-                        System.err.println("Advertencia: Formato inválido en configuración de precios: " + linea);
-                    }
-                }
-            } else {
-                System.out.println("AVISO: No se encontró 'PreciosProductos.txt'. Se usarán precios base $0.0");
-            }
-        } catch (IOException e) {
-            System.out.println("Error crítico al cargar precios: " + e.getMessage());
-        }
+        this.cocina = cocina;
+        this.catalogoPrecios = catalogoPrecios;
+        this.libroBoletos = libroBoletos;
+        this.agendaSalas = agendaSalas;
     }
 
     /**
@@ -144,6 +132,12 @@ public class ControladorDulceria {
             return;
         }
 
+        // Contrapresión: no se cobra una orden que la cocina no puede recibir
+        if (!cocina.hayCupo()) {
+            System.out.println("La dulcería está saturada en este momento. Intente nuevamente en unos minutos.");
+            return;
+        }
+
         // Simulación de Transacción Financiera
         boolean pagoExitoso = simularPagoDulceria();
 
@@ -210,14 +204,16 @@ public class ControladorDulceria {
     }
 
     /**
-     * Finaliza la venta y delega la tarea de preparación a un hilo en segundo plano.
+     * Finaliza la venta y delega la preparación a la cola de la cocina.
      * <p>
      * Acciones clave:
      * <ol>
      * <li>Genera un ID único para la orden.</li>
-     * <li>Asigna la orden a un {@link VendedorDulceria} (busca uno real o crea uno "Bot").</li>
-     * <li>Instancia y arranca un hilo {@link PreparacionDulceria} que escribirá los archivos de notificación
-     * sin bloquear la consola del usuario.</li>
+     * <li>Busca la próxima función del cliente ({@link #buscarProximaFuncion}); su horario es el límite con el
+     * que la cocina prioriza la orden.</li>
+     * <li>Encola una {@link PreparacionDulceria} en la {@link CocinaDulceria}; el vendedor que la tome escribirá
+     * los archivos de notificación sin bloquear la consola del usuario.</li>
+     * <li>Si la cocina rechaza la orden (cola llena), informa al cliente que el cargo se reembolsa.</li>
      * </ol>
      *
      * @param cliente       Dueño de la orden.
@@ -231,38 +227,82 @@ public class ControladorDulceria {
         if (cliente.getApPaterno().length() > 0) iniciales.append(cliente.getApPaterno().charAt(0));
         
         LocalDateTime ahora = LocalDateTime.now();
-        String fechaHora = ahora.format(DateTimeFormatter.ofPattern("yyyyMMdd:HHmm"));
-        String claveOrden = iniciales.toString().toUpperCase() + ":" + fechaHora;
+        long idOrden = GeneradorIds.siguiente();
+        String claveOrden = GeneradorIds.claveLegible(iniciales.toString().toUpperCase(), idOrden);
+
+        // Admisión en la cocina (puede esperar brevemente si la cola está llena)
+        Funcion proximaFuncion = buscarProximaFuncion(cliente, ahora);
+        LocalDateTime limite = (proximaFuncion != null) ? proximaFuncion.getHorario() : null;
+        PreparacionDulceria preparacion = new PreparacionDulceria(cliente, idOrden, claveOrden, detalleOrden, ahora, limite);
+        if (!cocina.encolar(preparacion)) {
+            System.out.println("\nLa dulcería no pudo recibir tu orden (cocina saturada). Se reembolsará el cargo de $" + total + ".");
+            return;
+        }
 
         // Feedback inmediato al usuario
         System.out.println("\n--- RESUMEN DE PEDIDO DULCERÍA ---");
         System.out.println("Detalle: " + detalleOrden);
         System.out.println("Total Pagado: $" + total);
         System.out.println("Clave de orden: " + claveOrden);
+        if (limite != null) {
+            System.out.println("Tu orden se priorizará para tu función de " + proximaFuncion.getPelicula().getTitulo()
+                    + " a las " + limite.format(DateTimeFormatter.ofPattern("HH:mm")) + ".");
+        }
+        System.out.println("Órdenes en espera antes de la tuya: " + Math.max(0, cocina.getLongitudCola() - 1));
         System.out.println("Revisa la sección de notificaciones para saber cuando tu orden esté lista.");
         System.out.println("Presione Enter para regresar al menú principal...");
         entrada.nextLine();
+    }
 
-        // Lógica de Asignación de Personal (Resource Allocation)
-        VendedorDulceria vendedorAsignado = null;
-        if (usuarios != null) {
-            for (Usuario u : usuarios) {
-                if (u instanceof VendedorDulceria) {
-                    vendedorAsignado = (VendedorDulceria) u;
-                    break; // Estrategia simple: Asignar al primero disponible
-                }
-            }
+    /**
+     * Obtiene la próxima función del cliente a partir de sus boletos.
+     * <p>
+     * Se revisan solo sus últimos {@value #BOLETOS_REVISADOS} boletos (las compras recientes son las que tienen
+     * funciones por venir). Del identificador de cada boleto ({@code INICIALES:AAAAMMDD:HHmm:SALA:ASIENTO}) se
+     * obtiene el horario, y se confirma en la {@link AgendaSalas} que la función siga programada a esa hora.
+     *
+     * @param cliente Cliente que ordena.
+     * @param ahora   Momento de la orden.
+     * @return La función más próxima que aún no inicia, o {@code null} si no tiene ninguna.
+     */
+    private Funcion buscarProximaFuncion(Cliente cliente, LocalDateTime ahora) {
+        if (libroBoletos == null || agendaSalas == null) return null;
+        List<String> boletos;
+        try {
+            int total = libroBoletos.contarBoletos(cliente.getNickname());
+            boletos = libroBoletos.leerBoletos(cliente.getNickname(), Math.max(0, total - BOLETOS_REVISADOS), BOLETOS_REVISADOS);
+        } catch (IOException e) {
+            return null; // Sin historial legible la orden se atiende sin límite
         }
 
-        // Fallback: Si no hay personal, el sistema asume el rol (Bot)
-        if (vendedorAsignado == null) {
-            vendedorAsignado = new VendedorDulceria("Sistema", "Auto", "Bot", 0, "CocinaExpress", "pass", "x", "x", Empleado.Turno.MATUTINO, "Domingo");
-        }
+        Funcion proxima = null;
+        for (String boleto : boletos) {
+            // Formato: "Boleto: INICIALES:AAAAMMDD:HHmm:SALA:ASIENTO | Título"
+            int inicio = boleto.indexOf(": ");
+            int fin = boleto.indexOf(" | ");
+            if (inicio < 0 || fin < inicio) continue;
+            String idBoleto = boleto.substring(inicio + 2, fin);
+            int finFuncion = idBoleto.lastIndexOf(':');
+            String[] partes = idBoleto.split(":");
+            if (partes.length != 5) continue;
 
-        // Ejecución Asíncrona: Hilo de Preparación
-        PreparacionDulceria preparacion = new PreparacionDulceria(cliente, claveOrden, detalleOrden, vendedorAsignado, ahora);
-        Thread hiloPrep = new Thread(preparacion);
-        hiloPrep.start();
+            LocalDateTime horario;
+            try {
+                horario = LocalDateTime.parse(partes[1] + partes[2], FORMATO_HORARIO_BOLETO);
+            } catch (DateTimeParseException e) {
+                continue;
+            }
+            if (!horario.isAfter(ahora) || (proxima != null && !horario.isBefore(proxima.getHorario()))) continue;
+
+            String idFuncion = idBoleto.substring(0, finFuncion);
+            for (Funcion funcion : agendaSalas.funcionesQueInician(horario)) {
+                if (funcion.getIdFuncion().equals(idFuncion)) {
+                    proxima = funcion;
+                    break;
+                }
+            }
+        }
+        return proxima;
     }
 
     // ==========================================
@@ -272,13 +312,15 @@ public class ControladorDulceria {
     /**
      * Construye una lista de productos seleccionados interactivamente por el usuario.
      * <p>
-     * Utiliza el mapa {@code precios} para validar existencia y obtener el costo
-     * de cada ítem según su tamaño (Clave compuesta: PRODUCTO_TAMAÑO).
+     * Utiliza una instantánea del {@link CatalogoPrecios} para validar existencia y obtener el costo
+     * de cada ítem según su tamaño (Clave compuesta: PRODUCTO_TAMAÑO). Toda la orden se cotiza con la
+     * misma instantánea, aunque los precios se recarguen mientras el cliente elige.
      *
      * @return Lista de objetos {@link Producto} validados.
      */
     private List<Producto> armarOrdenPersonalizada() {
         List<Producto> productos = new ArrayList<>();
+        Map<String, Double> precios = catalogoPrecios.instantanea();
         boolean continuar = true;
         
         while (continuar) {
@@ -0,0 +1,105 @@
+package mx.unam.fi.cine.controlador;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Instantánea inmutable del estado de una orden de dulcería en el sistema <b>CineByt</b>.
+ * <p>
+ * Se genera en cada transición de la {@link PreparacionDulceria} y se publica en el {@link RegistroOrdenes}.
+ * Al ser inmutable puede compartirse entre el hilo de la cocina, los oyentes, la bandeja del cliente y la
+ * bitácora en disco sin copias ni sincronización.
+ * </p>
+ *
+ * @author Equipo CineByt
+ * @version 1.0
+ * @see mx.unam.fi.cine.controlador.RegistroOrdenes
+ * @see mx.unam.fi.cine.controlador.PreparacionDulceria
+ */
+public final class EstadoOrden {
+
+    /** Identificador numérico de la orden. */
+    private final long idOrden;
+
+    /** Clave legible de la orden. */
+    private final String claveOrden;
+
+    /** Nickname del cliente propietario. */
+    private final String nickname;
+
+    /** Descripción de lo ordenado. */
+    private final String detalle;
+
+    /** Estado alcanzado. */
+    private final PreparacionDulceria.Estado estado;
+
+    /** Nickname del vendedor que atiende la orden; {@code null} mientras está en cola. */
+    private final String vendedor;
+
+    /** Momento en que se alcanzó cada estado hasta ahora. */
+    private final Map<PreparacionDulceria.Estado, LocalDateTime> marcas;
+
+    /** Mensaje para el cliente asociado al estado. */
+    private final String mensaje;
+
+    /**
+     * Constructor de la instantánea.
+     *
+     * @param idOrden    Identificador numérico de la orden.
+     * @param claveOrden Clave legible.
+     * @param nickname   Cliente propietario.
+     * @param detalle    Descripción de lo ordenado.
+     * @param estado     Estado alcanzado.
+     * @param vendedor   Vendedor asignado, o {@code null}.
+     * @param marcas     Momento de cada estado alcanzado (se copia).
+     * @param mensaje    Mensaje para el cliente.
+     */
+    public EstadoOrden(long idOrden, String claveOrden, String nickname, String detalle, PreparacionDulceria.Estado estado,
+                       String vendedor, Map<PreparacionDulceria.Estado, LocalDateTime> marcas, String mensaje) {
+        this.idOrden = idOrden;
+        this.claveOrden = claveOrden;
+        this.nickname = nickname;
+        this.detalle = detalle;
+        this.estado = estado;
+        this.vendedor = vendedor;
+        this.marcas = Collections.unmodifiableMap(new EnumMap<>(marcas));
+        this.mensaje = mensaje;
+    }
+
+    // ----------------------------------------------------------------------------------
+    // Métodos de Acceso (Getters)
+    // ----------------------------------------------------------------------------------
+
+    /** @return Identificador numérico de la orden. */
+    public long getIdOrden() { return idOrden; }
+
+    /** @return Clave legible de la orden. */
+    public String getClaveOrden() { return claveOrden; }
+
+    /** @return Nickname del cliente propietario. */
+    public String getNickname() { return nickname; }
+
+    /** @return Descripción de lo ordenado. */
+    public String getDetalle() { return detalle; }
+
+    /** @return Estado alcanzado. */
+    public PreparacionDulceria.Estado getEstado() { return estado; }
+
+    /** @return Nickname del vendedor asignado, o {@code null} si la orden sigue en cola. */
+    public String getVendedor() { return vendedor; }
+
+    /**
+     * Obtiene el momento en que la orden alcanzó un estado.
+     * @param estado Estado consultado.
+     * @return Fecha y hora, o {@code null} si aún no lo alcanza.
+     */
+    public LocalDateTime getMarca(PreparacionDulceria.Estado estado) { return marcas.get(estado); }
+
+    /** @return Momento de la transición que generó esta instantánea. */
+    public LocalDateTime getMomento() { return marcas.get(estado); }
+
+    /** @return Mensaje para el cliente. */
+    public String getMensaje() { return mensaje; }
+}
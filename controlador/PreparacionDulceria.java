@@ -1,57 +1,78 @@
 package mx.unam.fi.cine.controlador;
 
-import java.io.*;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.concurrent.ThreadLocalRandom;
 import mx.unam.fi.cine.modelo.*;
 
 /**
- * Tarea asíncrona encargada de simular el ciclo de vida de preparación de alimentos.
+ * Orden de dulcería modelada como máquina de estados dentro de la {@link CocinaDulceria}.
  * <p>
- * Esta clase implementa la interfaz {@link Runnable}, permitiendo que sea ejecutada en un hilo independiente
- * gestionado por el {@link ControladorDulceria}. Su propósito es doble:
+ * La orden no ocupa ningún hilo mientras espera: la cocina la asigna a un vendedor libre y un
+ * {@link java.util.concurrent.ScheduledExecutorService} la hace avanzar cuando vence cada fase.
+ * Cada transición genera una {@link EstadoOrden} que la cocina publica en el {@link RegistroOrdenes}.
  * </p>
+ * <b>Estados ({@link Estado}):</b>
+ * <pre>
+ *  GENERADA --asignar--&gt; ASIGNADA --(20-30 s)--&gt; INICIADA --(10-15 s)--&gt; TERMINADA
+ * </pre>
  * <ol>
- * <li><b>Simulación Temporal:</b> Introduce pausas aleatorias (mediante {@code Thread.sleep}) para emular
- * las fases reales de una cocina (Asignación, Inicio, Preparación).</li>
- * <li><b>Comunicación y Auditoría:</b>
- * <ul>
- * <li>Escribe en el archivo de notificaciones del {@code Cliente} para informarle el estado.</li>
- * <li>Escribe en el archivo de historial del {@code VendedorDulceria} para métricas de productividad.</li>
- * </ul>
- * </li>
+ * <li><b>Simulación Temporal:</b> Las duraciones aleatorias de configuración y preparación se devuelven a la
+ * cocina para que programe el siguiente paso; la fase de asignación es el tiempo real que la orden pasa en la cola.</li>
+ * <li><b>Comunicación y Auditoría:</b> La orden ya no escribe archivos. {@link #instantanea()} resume el estado,
+ * sus marcas de tiempo y el mensaje para el cliente; el registro lo entrega a la bandeja y a la consola del cliente
+ * y lo escribe en disco (notificaciones, transiciones e historial del vendedor) en segundo plano.</li>
  * </ol>
+ * Los métodos de transición no son seguros para hilos por sí mismos: la cocina los invoca desde un único hilo.
  *
  * @author Equipo CineByt
- * @version 3.0
+ * @version 6.0
+ * @see mx.unam.fi.cine.controlador.CocinaDulceria
  * @see mx.unam.fi.cine.controlador.ControladorDulceria
- * @see mx.unam.fi.cine.modelo.GestorArchivos
+ * @see mx.unam.fi.cine.controlador.RegistroOrdenes
  */
-public class PreparacionDulceria implements Runnable {
+public class PreparacionDulceria {
+
+    /** Formato de fecha del aviso de orden lista. */
+    private static final DateTimeFormatter FORMATO_LISTA = DateTimeFormatter.ofPattern("yyyyMMdd:HHmm");
+
+    /**
+     * Estados del ciclo de vida de una orden.
+     */
+    public enum Estado {
+        /** Pagada y en la cola de la cocina. */
+        GENERADA,
+        /** Tomada por un vendedor; configurando insumos. */
+        ASIGNADA,
+        /** En preparación física. */
+        INICIADA,
+        /** Lista para recoger. */
+        TERMINADA
+    }
 
     /**
      * Cliente propietario de la orden.
-     * Necesario para determinar el nombre del archivo de notificación destino ({@code notificaciones_NICKNAME.txt}).
+     * Determina la bandeja del {@link RegistroOrdenes} que recibe los avisos.
      */
     private Usuario cliente;
 
     /**
-     * Identificador único de la orden (generado previamente en el Controlador).
-     * Permite la trazabilidad en los logs.
+     * Identificador numérico único de la orden ({@link GeneradorIds}), generado previamente en el Controlador.
      */
-    private String idOrden;
+    private long idOrden;
 
     /**
-     * Resumen del contenido del pedido (ej. "Combo Amix", "Orden Personalizada (3 items)").
+     * Clave legible de la orden, derivada de {@link #idOrden}.
+     * Permite la trazabilidad en los logs y es la que se muestra al cliente.
      */
-    private String detalleOrden; 
+    private String claveOrden;
 
     /**
-     * Empleado asignado a esta tarea.
-     * Su importancia radica en que el log de desempeño se escribirá en su archivo personal ({@code historial_NICKNAME.txt}).
+     * Resumen del contenido del pedido (ej. "Combo Amix", "Orden Personalizada (3 items)").
      */
-    private VendedorDulceria vendedor; 
+    private String detalleOrden; 
 
     /**
      * Marca de tiempo exacta en que se confirmó el pago y se instanció esta tarea.
@@ -59,95 +80,146 @@ public class PreparacionDulceria implements Runnable {
     private LocalDateTime fechaGeneracion;
 
     /**
-     * Constructor para inicializar la tarea de preparación.
+     * Inicio de la próxima función del cliente, antes del cual la orden debería estar lista.
+     * {@code null} si el cliente no tiene funciones por venir.
+     */
+    private LocalDateTime limite;
+
+    /** Estado actual de la orden. */
+    private volatile Estado estado = Estado.GENERADA;
+
+    /** Vendedor que tomó la orden; {@code null} mientras está en cola. */
+    private VendedorDulceria vendedor;
+
+    /** Momento en que un vendedor tomó la orden. */
+    private LocalDateTime fechaAsignacion;
+
+    /** Momento en que inició la preparación física. */
+    private LocalDateTime fechaInicioPrep;
+
+    /** Momento en que la orden quedó lista. */
+    private LocalDateTime fechaFinPrep;
+
+    /**
+     * Constructor para inicializar la orden.
      * <p>
-     * Recibe el contexto completo de la transacción (Quién compra, Qué compra, Quién atiende y Cuándo).
+     * Recibe el contexto de la transacción (Quién compra, Qué compra y Cuándo). El vendedor que la atiende
+     * se conoce hasta que la cocina la toma de su cola.
      *
      * @param cliente         Usuario {@link Cliente} que espera el pedido.
-     * @param idOrden         Clave única de rastreo.
+     * @param idOrden         Identificador numérico de la orden.
+     * @param claveOrden      Clave legible de rastreo.
      * @param detalleOrden    Texto descriptivo de los productos.
-     * @param vendedor        El {@link VendedorDulceria} responsable (real o bot).
      * @param fechaGeneracion Timestamp de creación.
+     * @param limite          Inicio de la próxima función del cliente, o {@code null} si no tiene.
      */
-    public PreparacionDulceria(Usuario cliente, String idOrden, String detalleOrden, VendedorDulceria vendedor, LocalDateTime fechaGeneracion) {
+    public PreparacionDulceria(Usuario cliente, long idOrden, String claveOrden, String detalleOrden,
+                               LocalDateTime fechaGeneracion, LocalDateTime limite) {
         this.cliente = cliente;
         this.idOrden = idOrden;
+        this.claveOrden = claveOrden;
         this.detalleOrden = detalleOrden;
-        this.vendedor = vendedor;
         this.fechaGeneracion = fechaGeneracion;
+        this.limite = limite;
     }
 
     /**
-     * Ejecuta la lógica del hilo de preparación.
-     * <p>
-     * Este método contiene la secuencia de pasos cronometrados que simulan el trabajo en cocina:
-     * <ol>
-     * <li><b>Notificación Inicial:</b> Avisa al cliente que la orden está en cola.</li>
-     * <li><b>Fase de Asignación (Sleep):</b> Simula el tiempo que tarda el vendedor en tomar la orden (20-40s).</li>
-     * <li><b>Fase de Preparación (Sleep):</b> Simula el tiempo de cocción/armado (20-30s + 10-15s).</li>
-     * <li><b>Notificación Final:</b> Escribe un mensaje personalizado del vendedor indicando que está listo.</li>
-     * <li><b>Registro de Bitácora:</b> Escribe un log detallado en el historial del empleado con todos los tiempos.</li>
-     * </ol>
-     * Maneja internamente las excepciones de interrupción de hilos y escritura de archivos.
+     * Obtiene el identificador numérico de la orden.
+     * @return Identificador emitido por {@link GeneradorIds}.
+     */
+    public long getIdOrden() {
+        return idOrden;
+    }
+
+    /**
+     * Obtiene el límite de la orden (inicio de la próxima función del cliente).
+     * @return Fecha y hora límite, o {@code null} si la orden no tiene.
+     */
+    public LocalDateTime getLimite() {
+        return limite;
+    }
+
+    /**
+     * Indica si la orden terminó después de que empezó la función del cliente.
+     * @return {@code true} si la orden tiene límite, ya terminó y lo rebasó.
+     */
+    public boolean perdioFuncion() {
+        return limite != null && fechaFinPrep != null && fechaFinPrep.isAfter(limite);
+    }
+
+    /**
+     * Obtiene el estado actual de la orden.
+     * @return Estado del ciclo de vida.
+     */
+    public Estado getEstado() {
+        return estado;
+    }
+
+    // =================================================================================
+    // TRANSICIONES (invocadas por la cocina)
+    // =================================================================================
+
+    /**
+     * Transición {@code GENERADA -> ASIGNADA}: un vendedor libre toma la orden de la cola.
+     *
+     * @param vendedor El {@link VendedorDulceria} responsable (real o bot).
+     * @return Milisegundos hasta la siguiente transición (configuración de insumos, 20 a 30 segundos).
+     */
+    long asignar(VendedorDulceria vendedor) {
+        this.vendedor = vendedor;
+        fechaAsignacion = LocalDateTime.now();
+        estado = Estado.ASIGNADA;
+        return ThreadLocalRandom.current().nextInt(20000, 30001);
+    }
+
+    /**
+     * Avanza la orden a su siguiente estado una vez vencida la fase actual.
+     * <ul>
+     * <li>{@code ASIGNADA -> INICIADA}: Devuelve la duración de la preparación física (10 a 15 segundos).</li>
+     * <li>{@code INICIADA -> TERMINADA}: Devuelve -1.</li>
+     * </ul>
+     *
+     * @return Milisegundos hasta la siguiente transición, o -1 si la orden terminó.
+     */
+    long avanzar() {
+        if (estado == Estado.ASIGNADA) {
+            fechaInicioPrep = LocalDateTime.now();
+            estado = Estado.INICIADA;
+            return ThreadLocalRandom.current().nextInt(10000, 15001);
+        }
+        fechaFinPrep = LocalDateTime.now();
+        estado = Estado.TERMINADA;
+        return -1;
+    }
+
+    /**
+     * Genera la instantánea del estado actual con el mensaje correspondiente para el cliente.
+     * Se invoca desde el hilo de la cocina inmediatamente después de cada transición.
+     *
+     * @return Estado, marcas de tiempo y mensaje de la orden.
      */
-    @Override
-    public void run() {
-        DateTimeFormatter formato = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
-        
-        // Definición de rutas de salida dinámicas basadas en los usuarios involucrados
-        String archivoNotif = "notificaciones_" + cliente.getNickname() + ".txt";
-        String archivoHistorial = "historial_" + vendedor.getNickname() + ".txt";
-
-        try {
-            // 1. Notificar inicio (Comunicación asíncrona con el Cliente via archivo)
-            String msjEspera = "Orden " + idOrden + ": Estamos trabajando arduamente para que tus alimentos sean deliciosos. Por favor, espera un poco más =D";
-            // 'append = false' para limpiar notificaciones viejas o iniciar limpio el estado actual
-            GestorArchivos.escribirTexto(archivoNotif, msjEspera, false); 
-
-            // =================================================================================
-            // SIMULACIÓN DE TIEMPOS DE PROCESO (Lógica de Negocio Temporal)
-            // =================================================================================
-            
-            // PAUSA 1: Latencia de asignación (Simula cola de espera) -> 20 a 40 segundos
-            Thread.sleep(ThreadLocalRandom.current().nextInt(20000, 40001));
-            LocalDateTime fechaAsignacion = LocalDateTime.now();
-
-            // PAUSA 2: Configuración de insumos -> 20 a 30 segundos
-            Thread.sleep(ThreadLocalRandom.current().nextInt(20000, 30001));
-            LocalDateTime fechaInicioPrep = LocalDateTime.now();
-
-            // PAUSA 3: Ejecución de preparación física -> 10 a 15 segundos
-            Thread.sleep(ThreadLocalRandom.current().nextInt(10000, 15001));
-            LocalDateTime fechaFinPrep = LocalDateTime.now();
-
-            // =================================================================================
-            // FINALIZACIÓN Y PERSISTENCIA
-            // =================================================================================
-
-            // 2. Notificar fin (Actualización de estado para el Cliente)
-            String msjListo = "Hola, soy " + vendedor.getNickname() + ". Ya está lista tu orden de dulcería. Puedes pasar a recogerla. " + fechaFinPrep.format(DateTimeFormatter.ofPattern("yyyyMMdd:HHmm"));
-            GestorArchivos.escribirTexto(archivoNotif, msjListo, false); // Sobrescribe el mensaje de "espera"
-
-            // 3. Registrar Auditoría (KPIs del Empleado)
-            // Se genera un reporte estructurado con los tiempos exactos de cada fase
-            String logEmpleado = String.format("Orden: %s | Tipo: %s\nGenerada: %s\nAsignada: %s\nIniciada: %s\nTerminada: %s\n-----------------",
-                    idOrden, detalleOrden,
-                    fechaGeneracion.format(formato),
-                    fechaAsignacion.format(formato),
-                    fechaInicioPrep.format(formato),
-                    fechaFinPrep.format(formato));
-            
-            // 'append = true' para conservar el historial acumulado del vendedor
-            GestorArchivos.escribirTexto(archivoHistorial, logEmpleado, true); 
-
-        } catch (InterruptedException e) {
-            // Manejo de interrupción del hilo (ej. cierre de la aplicación)
-            System.err.println("La preparación de la orden " + idOrden + " fue interrumpida.");
-            e.printStackTrace();
-        } catch (IOException e) {
-            // Manejo de errores de disco
-            System.err.println("Error de E/S al registrar la orden " + idOrden);
-            e.printStackTrace();
+    EstadoOrden instantanea() {
+        Map<Estado, LocalDateTime> marcas = new EnumMap<>(Estado.class);
+        marcas.put(Estado.GENERADA, fechaGeneracion);
+        if (fechaAsignacion != null) marcas.put(Estado.ASIGNADA, fechaAsignacion);
+        if (fechaInicioPrep != null) marcas.put(Estado.INICIADA, fechaInicioPrep);
+        if (fechaFinPrep != null) marcas.put(Estado.TERMINADA, fechaFinPrep);
+
+        String mensaje;
+        switch (estado) {
+            case GENERADA:
+                mensaje = "Orden " + claveOrden + ": Estamos trabajando arduamente para que tus alimentos sean deliciosos. Por favor, espera un poco más =D";
+                break;
+            case ASIGNADA:
+                mensaje = "Orden " + claveOrden + ": " + vendedor.getNickname() + " tomó tu orden y está reuniendo los insumos.";
+                break;
+            case INICIADA:
+                mensaje = "Orden " + claveOrden + ": Tu orden se está preparando.";
+                break;
+            default:
+                mensaje = "Hola, soy " + vendedor.getNickname() + ". Ya está lista tu orden de dulcería. Puedes pasar a recogerla. " + fechaFinPrep.format(FORMATO_LISTA);
         }
+        return new EstadoOrden(idOrden, claveOrden, cliente.getNickname(), detalleOrden, estado,
+                (vendedor != null) ? vendedor.getNickname() : null, marcas, mensaje);
     }
 }
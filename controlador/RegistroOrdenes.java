@@ -0,0 +1,252 @@
+package mx.unam.fi.cine.controlador;
+
+import java.io.IOException;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import mx.unam.fi.cine.modelo.GestorArchivos;
+
+/**
+ * Registro en memoria del estado de las órdenes de dulcería del sistema <b>CineByt</b>.
+ * <p>
+ * Reemplaza la comunicación por archivos sobrescritos ({@code notificaciones_<nick>.txt} con {@code append=false}),
+ * en la que el cliente solo veía el último mensaje y únicamente al volver a abrir el archivo.
+ * </p>
+ * <b>Estructuras:</b>
+ * <ul>
+ * <li><b>Estado por Orden:</b> {@link ConcurrentHashMap} de identificador de orden a su última
+ * {@link EstadoOrden} (estado y marcas de tiempo). Consultar el estado es una lectura O(1) en memoria
+ * ({@link #estadoDe(long)}). Las órdenes terminadas se retiran después de {@value #PROPIEDAD_RETENCION} ms
+ * (una hora por defecto).</li>
+ * <li><b>Bandeja por Cliente:</b> Buffer circular acotado a {@value #PROPIEDAD_CAPACIDAD_BANDEJA} avisos
+ * (20 por defecto); al llenarse se descarta el más antiguo.</li>
+ * <li><b>Oyentes:</b> Cada publicación se entrega a los {@link OyenteOrdenes} registrados (ej. la consola del
+ * cliente con sesión abierta), en el hilo que publica; deben ser breves.</li>
+ * </ul>
+ * <b>Bitácora Asíncrona:</b> Un hilo <i>daemon</i> agrega cada aviso a {@code notificaciones_<nick>.txt}, cada
+ * transición a {@value #ARCHIVO_TRANSICIONES} y, al terminar la orden, el bloque de tiempos a
+ * {@code historial_<vendedor>.txt}. Los archivos se agregan (ya no se sobrescriben) y conservan el historial
+ * entre ejecuciones; quien publica nunca espera al disco.
+ *
+ * @author Equipo CineByt
+ * @version 1.0
+ * @see mx.unam.fi.cine.controlador.EstadoOrden
+ * @see mx.unam.fi.cine.controlador.CocinaDulceria
+ */
+public class RegistroOrdenes {
+
+    /** Propiedad del sistema con la cantidad de avisos que conserva la bandeja de cada cliente. */
+    public static final String PROPIEDAD_CAPACIDAD_BANDEJA = "cinebyt.capacidadBandeja";
+
+    /** Propiedad del sistema con el tiempo que se conserva una orden terminada, en milisegundos. */
+    public static final String PROPIEDAD_RETENCION = "cinebyt.retencionOrdenesMs";
+
+    /** Archivo de texto donde se registran las transiciones de todas las órdenes. */
+    public static final String ARCHIVO_TRANSICIONES = "cocina_transiciones.txt";
+
+    /** Formato de fecha de los registros en disco. */
+    private static final DateTimeFormatter FORMATO = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
+
+    /** Última instantánea de cada orden. */
+    private final ConcurrentHashMap<Long, EstadoOrden> estados = new ConcurrentHashMap<>();
+
+    /** Bandeja de avisos por nickname. */
+    private final ConcurrentHashMap<String, Bandeja> bandejas = new ConcurrentHashMap<>();
+
+    /** Oyentes de cambios de estado. */
+    private final List<OyenteOrdenes> oyentes = new CopyOnWriteArrayList<>();
+
+    /** Capacidad de cada bandeja. */
+    private final int capacidadBandeja;
+
+    /** Tiempo que se conserva una orden terminada. */
+    private final long retencionMs;
+
+    /** Hilo de la bitácora en disco y de la depuración de órdenes terminadas. */
+    private final ScheduledThreadPoolExecutor bitacora;
+
+    /**
+     * Receptor de cambios de estado de las órdenes.
+     */
+    @FunctionalInterface
+    public interface OyenteOrdenes {
+        /**
+         * Recibe la nueva instantánea de una orden.
+         * @param estado Estado publicado.
+         */
+        void cambioEstado(EstadoOrden estado);
+    }
+
+    /**
+     * Buffer circular de avisos de un cliente.
+     */
+    private static final class Bandeja {
+        /** Avisos; la posición {@code inicio} es el más antiguo. */
+        private final EstadoOrden[] avisos;
+        /** Posición del aviso más antiguo. */
+        private int inicio;
+        /** Avisos almacenados. */
+        private int cuenta;
+
+        Bandeja(int capacidad) {
+            this.avisos = new EstadoOrden[capacidad];
+        }
+
+        /** Agrega un aviso, descartando el más antiguo si está llena. */
+        synchronized void agregar(EstadoOrden aviso) {
+            if (cuenta < avisos.length) {
+                avisos[(inicio + cuenta++) % avisos.length] = aviso;
+            } else {
+                avisos[inicio] = aviso;
+                inicio = (inicio + 1) % avisos.length;
+            }
+        }
+
+        /** @return Copia de los avisos, del más antiguo al más reciente. */
+        synchronized List<EstadoOrden> leer() {
+            List<EstadoOrden> copia = new ArrayList<>(cuenta);
+            for (int i = 0; i < cuenta; i++) copia.add(avisos[(inicio + i) % avisos.length]);
+            return copia;
+        }
+    }
+
+    /**
+     * Crea el registro y su hilo de bitácora.
+     */
+    public RegistroOrdenes() {
+        this.capacidadBandeja = Math.max(1, Integer.getInteger(PROPIEDAD_CAPACIDAD_BANDEJA, 20));
+        this.retencionMs = Long.getLong(PROPIEDAD_RETENCION, 60 * 60 * 1000L);
+        this.bitacora = new ScheduledThreadPoolExecutor(1, tarea -> {
+            Thread hilo = new Thread(tarea, "registro-ordenes");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    // ==========================================
+    // PUBLICACIÓN Y CONSULTA
+    // ==========================================
+
+    /**
+     * Publica el nuevo estado de una orden: actualiza el registro y la bandeja del cliente, avisa a los
+     * oyentes y programa su escritura en disco.
+     *
+     * @param estado Instantánea recién generada.
+     */
+    public void publicar(EstadoOrden estado) {
+        estados.put(estado.getIdOrden(), estado);
+        bandejas.computeIfAbsent(estado.getNickname(), k -> new Bandeja(capacidadBandeja)).agregar(estado);
+
+        for (OyenteOrdenes oyente : oyentes) {
+            try {
+                oyente.cambioEstado(estado);
+            } catch (RuntimeException e) {
+                System.err.println("Error en oyente de órdenes: " + e.getMessage());
+            }
+        }
+
+        bitacora.execute(() -> escribir(estado));
+        if (estado.getEstado() == PreparacionDulceria.Estado.TERMINADA) {
+            bitacora.schedule(() -> estados.remove(estado.getIdOrden(), estado), retencionMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Consulta el estado actual de una orden.
+     * @param idOrden Identificador numérico de la orden.
+     * @return Última instantánea, o {@code null} si la orden no existe o ya se retiró.
+     */
+    public EstadoOrden estadoDe(long idOrden) {
+        return estados.get(idOrden);
+    }
+
+    /**
+     * Obtiene los avisos recientes de un cliente.
+     * @param nickname Cliente consultado.
+     * @return Avisos del más antiguo al más reciente (vacía si no tiene).
+     */
+    public List<EstadoOrden> bandeja(String nickname) {
+        Bandeja bandeja = bandejas.get(nickname);
+        return (bandeja == null) ? new ArrayList<>() : bandeja.leer();
+    }
+
+    /**
+     * Obtiene el estado actual de cada orden que aparece en la bandeja de un cliente.
+     * @param nickname Cliente consultado.
+     * @return Última instantánea de cada orden, en orden de aparición.
+     */
+    public List<EstadoOrden> ordenesDe(String nickname) {
+        Map<Long, EstadoOrden> ultimas = new LinkedHashMap<>();
+        for (EstadoOrden aviso : bandeja(nickname)) {
+            EstadoOrden actual = estados.get(aviso.getIdOrden());
+            ultimas.put(aviso.getIdOrden(), (actual != null) ? actual : aviso);
+        }
+        return new ArrayList<>(ultimas.values());
+    }
+
+    /**
+     * Registra un oyente de cambios de estado.
+     * @param oyente Receptor a agregar.
+     */
+    public void agregarOyente(OyenteOrdenes oyente) {
+        oyentes.add(oyente);
+    }
+
+    /**
+     * Retira un oyente previamente registrado.
+     * @param oyente Receptor a retirar.
+     */
+    public void quitarOyente(OyenteOrdenes oyente) {
+        oyentes.remove(oyente);
+    }
+
+    /**
+     * Termina de escribir la bitácora pendiente. Se invoca al cerrar la aplicación, después de la cocina.
+     */
+    public void cerrar() {
+        bitacora.setExecuteExistingDelayedTasksAfterShutdownPolicy(false); // Las depuraciones ya no importan
+        bitacora.shutdown();
+        try {
+            bitacora.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ==========================================
+    // BITÁCORA EN DISCO (hilo de bitácora)
+    // ==========================================
+
+    /**
+     * Agrega una publicación a los archivos de texto del cliente, de la cocina y, al terminar, del vendedor.
+     * @param estado Instantánea publicada.
+     */
+    private void escribir(EstadoOrden estado) {
+        String momento = estado.getMomento().format(FORMATO);
+        try {
+            GestorArchivos.escribirTexto("notificaciones_" + estado.getNickname() + ".txt",
+                    "[" + momento + "] " + estado.getMensaje(), true);
+            GestorArchivos.escribirTexto(ARCHIVO_TRANSICIONES, momento + " | " + estado.getClaveOrden() + " | "
+                    + estado.getEstado() + " | " + (estado.getVendedor() != null ? estado.getVendedor() : "-"), true);
+
+            if (estado.getEstado() == PreparacionDulceria.Estado.TERMINADA) {
+                // Registro de Auditoría (KPIs del Empleado) con los tiempos exactos de cada fase
+                String logEmpleado = String.format("Orden: %s | Tipo: %s\nGenerada: %s\nAsignada: %s\nIniciada: %s\nTerminada: %s\n-----------------",
+                        estado.getClaveOrden(), estado.getDetalle(),
+                        estado.getMarca(PreparacionDulceria.Estado.GENERADA).format(FORMATO),
+                        estado.getMarca(PreparacionDulceria.Estado.ASIGNADA).format(FORMATO),
+                        estado.getMarca(PreparacionDulceria.Estado.INICIADA).format(FORMATO),
+                        momento);
+                GestorArchivos.escribirTexto("historial_" + estado.getVendedor() + ".txt", logEmpleado, true);
+            }
+        } catch (IOException e) {
+            System.err.println("Error de E/S al registrar la orden " + estado.getClaveOrden());
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package mx.unam.fi.cine.modelo;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Agenda de ocupación de cada sala del sistema <b>CineByt</b>, ordenada por hora de inicio.
+ * <p>
+ * Mantiene por sala un {@link TreeMap} de funciones indexado por su {@link LocalDateTime} de inicio.
+ * Como la regla de negocio impide que dos funciones de la misma sala se traslapen, los intervalos
+ * [inicio, fin + limpieza] de una sala son disjuntos y quedan ordenados tanto por inicio como por fin.
+ * Gracias a esa invariante, para validar una nueva función basta comparar contra su vecina anterior
+ * y su vecina siguiente: O(log n) en lugar de recorrer toda la cartelera.
+ * </p>
+ * <b>Mantenimiento:</b>
+ * <ul>
+ * <li>Se construye a partir de la lista maestra al arrancar ({@code CineByt.cargarDatos}).</li>
+ * <li>Se actualiza con {@link #agregar(Funcion)} en cada alta de función ({@code ControladorAdministrador}).</li>
+ * </ul>
+ * <b>Búsqueda de Horarios Libres:</b> {@link #horariosDisponibles} recorre únicamente las funciones del día
+ * consultado (un {@code subMap}) y deriva de los huecos entre ellas las franjas de inicio factibles.
+ *
+ * @author Equipo CineByt
+ * @version 1.0
+ * @see mx.unam.fi.cine.controlador.ControladorAdministrador
+ */
+public class AgendaSalas {
+
+    /**
+     * Minutos de limpieza/preparación requeridos entre dos funciones de la misma sala.
+     */
+    public static final int MINUTOS_LIMPIEZA = 30;
+
+    /**
+     * Hora más temprana a la que puede iniciar una función.
+     */
+    public static final LocalTime HORA_APERTURA = LocalTime.of(10, 0);
+
+    /**
+     * Hora más tardía a la que puede iniciar una función (última función del día).
+     */
+    public static final LocalTime HORA_ULTIMA_FUNCION = LocalTime.of(23, 0);
+
+    /** Agenda por nombre de sala: hora de inicio → función. */
+    private final Map<String, NavigableMap<LocalDateTime, Funcion>> porSala = new HashMap<>();
+
+    /**
+     * Construye la agenda a partir de la lista maestra de funciones.
+     * @param funciones Lista maestra (cartelera) cargada en memoria.
+     */
+    public AgendaSalas(List<Funcion> funciones) {
+        reconstruir(funciones);
+    }
+
+    /**
+     * Descarta el contenido actual y vuelve a registrar todas las funciones.
+     * @param funciones Lista maestra de funciones.
+     */
+    public synchronized void reconstruir(List<Funcion> funciones) {
+        porSala.clear();
+        for (Funcion funcion : funciones) {
+            agregar(funcion);
+        }
+    }
+
+    /**
+     * Registra una función en la agenda de su sala.
+     * @param funcion Función recién dada de alta (o cargada).
+     */
+    public synchronized void agregar(Funcion funcion) {
+        agendaDe(funcion.getSala().getNombre()).put(funcion.getHorario(), funcion);
+    }
+
+    /**
+     * Valida si es posible agendar una función sin conflictos de horario.
+     * <p>
+     * <b>Regla de Negocio (30 Minutos):</b> Existe colisión con una función existente si
+     * {@code (InicioNueva < FinExistente + 30) AND (FinNueva > InicioExistente - 30)}.
+     * Solo se evalúan la función que inicia en o antes de {@code inicio} y la que inicia inmediatamente después.
+     * <br>
+     * <b>Horario de Operación:</b> Igual que en {@link #horariosDisponibles}, la función debe iniciar entre
+     * {@link #HORA_APERTURA} y {@link #HORA_ULTIMA_FUNCION}; así el alta solo acepta inicios que se ofrecerían.
+     *
+     * @param nombreSala      Nombre de la sala objetivo.
+     * @param inicio          Fecha y hora de inicio propuesta.
+     * @param duracionMinutos Duración de la película a proyectar.
+     * @return {@code true} si la sala está libre (respetando limpieza y horario); {@code false} en otro caso.
+     */
+    public synchronized boolean estaDisponible(String nombreSala, LocalDateTime inicio, int duracionMinutos) {
+        LocalTime hora = inicio.toLocalTime();
+        if (hora.isBefore(HORA_APERTURA) || hora.isAfter(HORA_ULTIMA_FUNCION)) return false;
+
+        NavigableMap<LocalDateTime, Funcion> agenda = agendaDe(nombreSala);
+        LocalDateTime fin = inicio.plusMinutes(duracionMinutos);
+
+        Map.Entry<LocalDateTime, Funcion> anterior = agenda.floorEntry(inicio);
+        if (anterior != null && colisiona(anterior.getValue(), inicio, fin)) return false;
+
+        Map.Entry<LocalDateTime, Funcion> siguiente = agenda.higherEntry(inicio);
+        return siguiente == null || !colisiona(siguiente.getValue(), inicio, fin);
+    }
+
+    /**
+     * Calcula todas las horas de inicio factibles para una película en una sala y fecha.
+     * <p>
+     * <b>Algoritmo:</b> Se toma la función que inicia en o antes de la apertura (puede venir del día anterior)
+     * y las que inician dentro del horario de operación. Recorriéndolas en orden, cada hueco entre el fin
+     * (más limpieza) de una función y el inicio (menos limpieza y duración) de la siguiente produce una franja.
+     * El costo es O(log n + k), con k = funciones del día, sin probar hora por hora.
+     *
+     * @param nombreSala      Nombre de la sala.
+     * @param fecha           Día a consultar.
+     * @param duracionMinutos Duración de la película ({@link Pelicula#getDuracionMinutos()}).
+     * @return Franjas de inicio factibles en orden cronológico (vacía si la sala está llena).
+     */
+    public synchronized List<FranjaHoraria> horariosDisponibles(String nombreSala, LocalDate fecha, int duracionMinutos) {
+        NavigableMap<LocalDateTime, Funcion> agenda = agendaDe(nombreSala);
+        LocalDateTime apertura = fecha.atTime(HORA_APERTURA);
+        LocalDateTime ultimoInicio = fecha.atTime(HORA_ULTIMA_FUNCION);
+        List<FranjaHoraria> franjas = new ArrayList<>();
+
+        // Cursor: primera hora de inicio que no choca con lo ya recorrido
+        LocalDateTime cursor = apertura;
+        Map.Entry<LocalDateTime, Funcion> anterior = agenda.floorEntry(apertura);
+        if (anterior != null) cursor = max(cursor, finDe(anterior.getValue()).plusMinutes(MINUTOS_LIMPIEZA));
+
+        // Funciones que pueden limitar un inicio dentro del horario de operación
+        LocalDateTime limite = ultimoInicio.plusMinutes(duracionMinutos + MINUTOS_LIMPIEZA);
+        for (Funcion siguiente : agenda.subMap(apertura, false, limite, true).values()) {
+            LocalDateTime inicioMaximo = siguiente.getHorario().minusMinutes(MINUTOS_LIMPIEZA + duracionMinutos);
+            LocalDateTime hasta = inicioMaximo.isBefore(ultimoInicio) ? inicioMaximo : ultimoInicio;
+            if (!hasta.isBefore(cursor)) {
+                franjas.add(new FranjaHoraria(cursor, hasta));
+            }
+            cursor = max(cursor, finDe(siguiente).plusMinutes(MINUTOS_LIMPIEZA));
+        }
+
+        // Hueco final: ninguna función lo cierra antes de la última hora de inicio permitida
+        if (!cursor.isAfter(ultimoInicio)) {
+            franjas.add(new FranjaHoraria(cursor, ultimoInicio));
+        }
+        return franjas;
+    }
+
+    /**
+     * Obtiene las funciones de una sala que inician en un día, en orden cronológico.
+     *
+     * @param nombreSala Nombre de la sala.
+     * @param fecha      Día a consultar.
+     * @return Lista de funciones del día (vacía si la sala está libre).
+     */
+    public synchronized List<Funcion> funcionesDelDia(String nombreSala, LocalDate fecha) {
+        return new ArrayList<>(agendaDe(nombreSala)
+                .subMap(fecha.atStartOfDay(), true, fecha.plusDays(1).atStartOfDay(), false)
+                .values());
+    }
+
+    /**
+     * Obtiene las funciones de todas las salas que inician exactamente en un momento dado.
+     * El costo es una búsqueda por sala, por lo que no depende del tamaño de la cartelera.
+     *
+     * @param inicio Fecha y hora de inicio buscada.
+     * @return Funciones que inician en ese momento (vacía si no hay ninguna).
+     */
+    public synchronized List<Funcion> funcionesQueInician(LocalDateTime inicio) {
+        List<Funcion> encontradas = new ArrayList<>();
+        for (NavigableMap<LocalDateTime, Funcion> agenda : porSala.values()) {
+            Funcion funcion = agenda.get(inicio);
+            if (funcion != null) encontradas.add(funcion);
+        }
+        return encontradas;
+    }
+
+    /**
+     * Obtiene (o crea) la agenda de una sala.
+     * @param nombreSala Nombre de la sala.
+     * @return Mapa ordenado de inicio → función.
+     */
+    private NavigableMap<LocalDateTime, Funcion> agendaDe(String nombreSala) {
+        return porSala.computeIfAbsent(nombreSala, k -> new TreeMap<>());
+    }
+
+    /**
+     * Devuelve la mayor de dos fechas.
+     * @param a Primera fecha.
+     * @param b Segunda fecha.
+     * @return La más tardía.
+     */
+    private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    /**
+     * Calcula la fecha y hora de término de una función (sin incluir limpieza).
+     * @param funcion Función existente.
+     * @return Inicio más la duración de la película.
+     */
+    static LocalDateTime finDe(Funcion funcion) {
+        return funcion.getHorario().plusMinutes(funcion.getPelicula().getDuracionMinutos());
+    }
+
+    /**
+     * Aplica la regla de colisión con margen de limpieza entre una función existente y un intervalo propuesto.
+     *
+     * @param existente Función ya agendada.
+     * @param inicio    Inicio propuesto.
+     * @param fin       Fin propuesto.
+     * @return {@code true} si los intervalos se traslapan considerando la limpieza.
+     */
+    private static boolean colisiona(Funcion existente, LocalDateTime inicio, LocalDateTime fin) {
+        LocalDateTime inicioExistente = existente.getHorario();
+        return inicio.isBefore(finDe(existente).plusMinutes(MINUTOS_LIMPIEZA))
+                && fin.isAfter(inicioExistente.minusMinutes(MINUTOS_LIMPIEZA));
+    }
+}
@@ -0,0 +1,122 @@
+package mx.unam.fi.cine.modelo;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Representa un apartado temporal de asientos mientras el cliente completa su pago en <b>CineByt</b>.
+ * <p>
+ * Un apartado nace en estado {@code ACTIVO} con una fecha límite. A partir de ahí solo puede tener
+ * un desenlace, decidido mediante una operación CAS sobre su estado:
+ * </p>
+ * <ul>
+ * <li><b>CONFIRMADO:</b> El pago terminó a tiempo y los asientos pasan a vendidos.</li>
+ * <li><b>CANCELADO:</b> El pago fue rechazado y los asientos se liberan de inmediato.</li>
+ * <li><b>EXPIRADO:</b> Se alcanzó la fecha límite y el barredor de {@link GestorApartados} liberó los asientos.</li>
+ * </ul>
+ * Esto garantiza que un apartado vencido nunca se convierta en venta, aunque el pago y la expiración
+ * ocurran al mismo tiempo en hilos distintos.
+ *
+ * @author Equipo CineByt
+ * @version 1.0
+ * @see mx.unam.fi.cine.modelo.GestorApartados
+ */
+public class ApartadoAsientos {
+
+    /** Estado inicial: los asientos están apartados y el pago sigue en curso. */
+    static final int ACTIVO = 0;
+
+    /** Estado final: la venta fue confirmada. */
+    static final int CONFIRMADO = 1;
+
+    /** Estado final: el apartado fue cancelado por el propio flujo de compra. */
+    static final int CANCELADO = 2;
+
+    /** Estado final: la fecha límite se alcanzó antes de confirmar. */
+    static final int EXPIRADO = 3;
+
+    /** Función a la que pertenecen los asientos apartados. */
+    private final Funcion funcion;
+
+    /** Asientos apartados (inmutable). */
+    private final List<Asiento> asientos;
+
+    /** Instante límite del apartado, en milisegundos de época. */
+    private final long vencimiento;
+
+    /** Estado actual; solo transiciona desde {@link #ACTIVO} mediante CAS. */
+    private final AtomicInteger estado = new AtomicInteger(ACTIVO);
+
+    /** Tarea programada de expiración (se cancela al confirmar o cancelar). */
+    private volatile ScheduledFuture<?> tareaExpiracion;
+
+    /**
+     * Constructor del apartado. Solo {@link GestorApartados} crea instancias, después de reservar los asientos.
+     *
+     * @param funcion     Función de los asientos.
+     * @param asientos    Asientos ya reservados en la sala.
+     * @param vencimiento Instante límite en milisegundos de época.
+     */
+    ApartadoAsientos(Funcion funcion, List<Asiento> asientos, long vencimiento) {
+        this.funcion = funcion;
+        this.asientos = Collections.unmodifiableList(asientos);
+        this.vencimiento = vencimiento;
+    }
+
+    /**
+     * Intenta mover el apartado de {@code ACTIVO} a un estado final.
+     * @param nuevoEstado Estado final deseado.
+     * @return {@code true} si esta llamada decidió el desenlace.
+     */
+    boolean finalizar(int nuevoEstado) {
+        return estado.compareAndSet(ACTIVO, nuevoEstado);
+    }
+
+    /**
+     * Asocia la tarea programada de expiración.
+     * @param tarea Tarea devuelta por el planificador.
+     */
+    void setTareaExpiracion(ScheduledFuture<?> tarea) {
+        this.tareaExpiracion = tarea;
+    }
+
+    /**
+     * Obtiene la tarea programada de expiración.
+     * @return Tarea programada, o {@code null} si aún no se asigna.
+     */
+    ScheduledFuture<?> getTareaExpiracion() {
+        return tareaExpiracion;
+    }
+
+    /**
+     * Obtiene la función del apartado.
+     * @return Objeto Funcion.
+     */
+    public Funcion getFuncion() { return funcion; }
+
+    /**
+     * Obtiene los asientos apartados.
+     * @return Lista inmutable de asientos.
+     */
+    public List<Asiento> getAsientos() { return asientos; }
+
+    /**
+     * Obtiene el instante límite del apartado.
+     * @return Milisegundos de época.
+     */
+    public long getVencimiento() { return vencimiento; }
+
+    /**
+     * Indica si el apartado sigue vigente (ni confirmado, ni cancelado, ni expirado).
+     * @return {@code true} si está activo.
+     */
+    public boolean isActivo() { return estado.get() == ACTIVO; }
+
+    /**
+     * Indica si el apartado venció antes de confirmarse.
+     * @return {@code true} si expiró.
+     */
+    public boolean isExpirado() { return estado.get() == EXPIRADO; }
+}
@@ -16,10 +16,13 @@ import java.io.*;
  * <li>Su estado ({@code ocupado}) es volátil y específico por cada instancia de {@link Funcion}.
  * Cuando se crea una Función, se clona la estructura de la Sala, permitiendo que el mismo
  * asiento físico tenga estados diferentes en horarios diferentes.</li>
+ * <li><b>Vista Ligera:</b> Los asientos obtenidos de una {@link Sala} no guardan su propio estado; leen y
+ * escriben el bit correspondiente en el mapa de ocupación de la sala. Solo un asiento independiente
+ * (creado con el constructor público o leído de archivos antiguos) utiliza su bandera {@code ocupado}.</li>
  * </ul>
  *
  * @author Equipo CineByt
- * @version 1.0
+ * @version 2.0
  * @see mx.unam.fi.cine.modelo.Sala
  * @see mx.unam.fi.cine.controlador.ControladorCompra
  */
@@ -49,9 +52,20 @@ public class Asiento implements Serializable {
      * <li>{@code false}: El asiento está libre y disponible para compra.</li>
      * </ul>
      * Este atributo es vital para la validación de concurrencia en el {@code ControladorCompra}.
+     * <br>Solo se utiliza cuando el asiento no está vinculado a una {@link Sala}.
      */
     private boolean ocupado;
 
+    /**
+     * Sala cuyo mapa de bits respalda el estado de este asiento ({@code null} si es independiente).
+     */
+    private transient Sala sala;
+
+    /**
+     * Índice lineal del asiento dentro del mapa de bits de su sala.
+     */
+    private transient int indice;
+
     /**
      * Constructor para inicializar un asiento en una ubicación específica.
      * <p>
@@ -66,6 +80,21 @@ public class Asiento implements Serializable {
         this.ocupado = false; // El estado inicial predeterminado es libre
     }
 
+    /**
+     * Constructor de vista utilizado por {@link Sala} para exponer un asiento de su mapa de bits.
+     *
+     * @param sala   Sala que almacena el estado del asiento.
+     * @param indice Índice lineal del asiento en la sala.
+     * @param fila   Letra de la fila.
+     * @param numero Número del asiento en la fila.
+     */
+    Asiento(Sala sala, int indice, char fila, int numero) {
+        this.sala = sala;
+        this.indice = indice;
+        this.fila = fila;
+        this.numero = numero;
+    }
+
     /**
      * Obtiene la letra de la fila.
      * @return El carácter identificador de la fila.
@@ -82,14 +111,38 @@ public class Asiento implements Serializable {
         return numero;
     }
 
+    /**
+     * Obtiene la sala que respalda el estado de este asiento.
+     * @return La sala propietaria, o {@code null} si el asiento es independiente.
+     */
+    Sala getSala() {
+        return sala;
+    }
+
+    /**
+     * Obtiene el índice lineal del asiento dentro de su sala.
+     * @return Índice en el mapa de bits.
+     */
+    int getIndice() {
+        return indice;
+    }
+
     /**
      * Verifica el estado actual de disponibilidad del asiento.
      * Utilizado por la Vista para determinar si pintar el asiento de rojo (ocupado) o verde (libre).
      *
-     * @return {@code true} si el asiento está ocupado/vendido; {@code false} en caso contrario.
+     * @return {@code true} si el asiento está ocupado (vendido o apartado durante un pago); {@code false} en caso contrario.
      */
     public boolean isOcupado() {
-        return ocupado;
+        return (sala != null) ? sala.estaOcupado(indice) : ocupado;
+    }
+
+    /**
+     * Verifica si la venta del asiento está confirmada (a diferencia de un apartado temporal).
+     * @return {@code true} si el asiento fue vendido.
+     */
+    public boolean isVendido() {
+        return (sala != null) ? sala.estaVendido(indice) : ocupado;
     }
 
     /**
@@ -101,7 +154,46 @@ public class Asiento implements Serializable {
      * @param ocupado El nuevo estado del asiento (true para ocupar, false para liberar).
      */
     public void setOcupado(boolean ocupado) {
-        this.ocupado = ocupado;
+        if (sala != null) {
+            sala.marcarOcupado(indice, ocupado);
+        } else {
+            this.ocupado = ocupado;
+        }
+    }
+
+    /**
+     * Captura el estado actual antes de serializar, ya que la referencia a la sala no se persiste.
+     *
+     * @param out Flujo de salida de la serialización.
+     * @throws IOException Si falla la escritura.
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        this.ocupado = isVendido();
+        out.defaultWriteObject();
+    }
+
+    /**
+     * Dos asientos son iguales si representan el mismo lugar de la misma sala.
+     * Permite que {@code List.contains} detecte selecciones duplicadas aunque cada vista sea un objeto nuevo.
+     *
+     * @param obj Objeto a comparar.
+     * @return {@code true} si ambos representan el mismo asiento.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof Asiento)) return false;
+        Asiento otro = (Asiento) obj;
+        return sala == otro.sala && fila == otro.fila && numero == otro.numero;
+    }
+
+    /**
+     * Código hash consistente con {@link #equals(Object)}.
+     * @return Hash basado en la fila y el número.
+     */
+    @Override
+    public int hashCode() {
+        return fila * 31 + numero;
     }
 
     /**
@@ -113,6 +205,6 @@ public class Asiento implements Serializable {
      */
     @Override
     public String toString() {
-        return String.format("%c%d [%s]", fila, numero, (ocupado ? "Ocupado" : "Libre"));
+        return String.format("%c%d [%s]", fila, numero, (isOcupado() ? "Ocupado" : "Libre"));
     }
 }
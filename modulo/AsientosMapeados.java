@@ -0,0 +1,256 @@
+package mx.unam.fi.cine.modelo;
+
+import java.io.*;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Archivo de ocupación de asientos mapeado en memoria ({@link MappedByteBuffer}) para el sistema <b>CineByt</b>.
+ * <p>
+ * Modo de almacenamiento opcional en el que el mapa de bits de asientos vendidos de cada función vive en una
+ * ranura de tamaño fijo dentro de un archivo de {@code ArchivosAplicacion}. Vender un asiento es escribir
+ * un solo byte del búfer mapeado; el sistema operativo se encarga de llevar la página a disco.
+ * </p>
+ * <b>Estructura del Archivo:</b>
+ * <pre>
+ * Cabecera (16 bytes): int MAGICO ("CBAM"), int VERSION, int ranurasUsadas, int reservado
+ * Ranura i (128 bytes, en 16 + i * 128):
+ *   short longitudId, byte[62] idFuncion (UTF-8), byte[64] mapa de bits (hasta 512 asientos)
+ * </pre>
+ * El identificador de la ranura es el identificador numérico de la función ({@link Funcion#getId()}) en decimal.
+ * Las ranuras creadas por versiones anteriores guardan el identificador legible; se reconocen por él la primera
+ * vez que se vincula la función y se reetiquetan con el numérico.
+ * El bit {@code j} del byte {@code k} del mapa corresponde al asiento con índice lineal {@code 8k + j}; leído como
+ * {@code long} en orden little-endian coincide con la palabra correspondiente de {@link Sala}.
+ * <br>
+ * <b>Durabilidad:</b> Una escritura en el búfer sobrevive a la terminación abrupta del proceso, pero ante un
+ * corte de energía solo está garantizada después de {@link #forzar()}. El modo de bitácora
+ * ({@link GestorArchivos#registrarVentas}) sigue siendo el predeterminado porque sincroniza cada venta.
+ * <br>
+ * <b>Concurrencia:</b> Las escrituras comparten bytes entre asientos vecinos, por lo que los métodos son sincronizados.
+ *
+ * @author Equipo CineByt
+ * @version 1.0
+ * @see mx.unam.fi.cine.modelo.GestorArchivos#mapearAsientos(String)
+ */
+public class AsientosMapeados implements Closeable {
+
+    /** Número mágico del archivo: los bytes ASCII "CBAM". */
+    private static final int MAGICO = 0x4342414D;
+
+    /** Versión actual del formato. */
+    private static final int VERSION = 1;
+
+    /** Tamaño de la cabecera en bytes. */
+    private static final int TAM_CABECERA = 16;
+
+    /** Tamaño de cada ranura en bytes. */
+    private static final int TAM_RANURA = 128;
+
+    /** Bytes reservados para el identificador de la función dentro de la ranura. */
+    private static final int TAM_ID = 62;
+
+    /** Bytes del mapa de bits dentro de la ranura (512 asientos). */
+    private static final int TAM_MAPA = 64;
+
+    /** Ranuras que se agregan al archivo cada vez que se llena. */
+    private static final int RANURAS_POR_BLOQUE = 1024;
+
+    /** Archivo abierto en modo lectura/escritura. */
+    private final RandomAccessFile archivo;
+
+    /** Canal del archivo, utilizado para (re)mapearlo. */
+    private final FileChannel canal;
+
+    /** Región mapeada del archivo completo. */
+    private MappedByteBuffer buffer;
+
+    /** Ranuras disponibles en la región mapeada actual. */
+    private int capacidadRanuras;
+
+    /** Ranuras ocupadas. */
+    private int ranurasUsadas;
+
+    /** Directorio en memoria: identificador numérico de función → número de ranura. */
+    private final Map<Long, Integer> ranuras = new HashMap<>();
+
+    /** Ranuras de versiones anteriores, aún identificadas por el identificador legible de la función. */
+    private final Map<String, Integer> ranurasLegadas = new HashMap<>();
+
+    /**
+     * Abre (o crea) el archivo mapeado y construye el directorio de ranuras.
+     * Utilice {@link GestorArchivos#mapearAsientos(String)} en lugar de este constructor.
+     *
+     * @param ruta Ruta del archivo.
+     * @throws IOException Si el archivo no puede abrirse o no tiene el formato esperado.
+     */
+    AsientosMapeados(File ruta) throws IOException {
+        this.archivo = new RandomAccessFile(ruta, "rw");
+        this.canal = archivo.getChannel();
+
+        boolean nuevo = archivo.length() < TAM_CABECERA;
+        int ranurasEnArchivo = nuevo ? 0 : (int) ((archivo.length() - TAM_CABECERA) / TAM_RANURA);
+        mapear(Math.max(ranurasEnArchivo, RANURAS_POR_BLOQUE));
+
+        if (nuevo) {
+            buffer.putInt(0, MAGICO);
+            buffer.putInt(4, VERSION);
+            buffer.putInt(8, 0);
+        } else if (buffer.getInt(0) != MAGICO || buffer.getInt(4) != VERSION) {
+            close();
+            throw new IOException("El archivo de asientos no tiene un formato reconocido: " + ruta);
+        }
+
+        ranurasUsadas = buffer.getInt(8);
+        for (int i = 0; i < ranurasUsadas; i++) {
+            String id = leerId(i);
+            try {
+                ranuras.put(Long.parseLong(id), i);
+            } catch (NumberFormatException e) {
+                ranurasLegadas.put(id, i);
+            }
+        }
+    }
+
+    /**
+     * Enlaza una función con su ranura.
+     * <p>
+     * Si la función ya tenía ranura, los asientos vendidos registrados en ella se aplican a la sala
+     * (el archivo mapeado es más reciente que la instantánea). Si no, se le asigna una ranura nueva
+     * con la ocupación actual de la sala.
+     *
+     * @param funcion Función cargada o recién dada de alta.
+     * @throws IOException Si el archivo no puede crecer.
+     */
+    public synchronized void vincular(Funcion funcion) throws IOException {
+        Integer ranura = ranuras.get(funcion.getId());
+        if (ranura == null && !ranurasLegadas.isEmpty()) {
+            ranura = ranurasLegadas.remove(funcion.getIdFuncion());
+            if (ranura != null) etiquetar(ranura, funcion.getId());
+        }
+        if (ranura != null) {
+            long[] bits = new long[TAM_MAPA / 8];
+            int base = inicioMapa(ranura);
+            for (int i = 0; i < bits.length; i++) bits[i] = buffer.getLong(base + i * 8);
+            funcion.getSala().aplicarVendidos(bits);
+        } else {
+            ranura = asignarRanura(funcion.getId());
+            long[] bits = funcion.getSala().getBitsVendidos();
+            int base = inicioMapa(ranura);
+            for (int i = 0; i < Math.min(bits.length, TAM_MAPA / 8); i++) buffer.putLong(base + i * 8, bits[i]);
+        }
+    }
+
+    /**
+     * Registra la venta de asientos encendiendo sus bits en la ranura de la función.
+     *
+     * @param funcion  Función vendida.
+     * @param asientos Asientos ya confirmados como vendidos en memoria.
+     * @throws IOException Si el archivo no puede crecer para una función sin ranura.
+     */
+    public synchronized void marcarVendidos(Funcion funcion, List<Asiento> asientos) throws IOException {
+        Integer ranura = ranuras.get(funcion.getId());
+        if (ranura == null) {
+            vincular(funcion); // Copia la ocupación completa, que ya incluye esta venta
+            return;
+        }
+        int base = inicioMapa(ranura);
+        SalaLayout layout = funcion.getSala().getLayout();
+        for (Asiento asiento : asientos) {
+            int indice = layout.indiceDe(asiento.getFila(), asiento.getNumero());
+            if (indice < 0 || indice >= TAM_MAPA * 8) continue;
+            int posicion = base + (indice >>> 3);
+            buffer.put(posicion, (byte) (buffer.get(posicion) | (1 << (indice & 7))));
+        }
+    }
+
+    /**
+     * Obliga al sistema operativo a escribir en disco las páginas modificadas.
+     */
+    public synchronized void forzar() {
+        buffer.force();
+    }
+
+    /**
+     * Fuerza los cambios pendientes y cierra el archivo.
+     * @throws IOException Si falla el cierre.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (buffer != null) buffer.force();
+        canal.close();
+        archivo.close();
+    }
+
+    /**
+     * Reserva la siguiente ranura libre para una función, haciendo crecer el archivo si es necesario.
+     *
+     * @param idFuncion Identificador numérico de la función.
+     * @return Número de ranura asignado.
+     * @throws IOException Si el archivo no puede crecer.
+     */
+    private int asignarRanura(long idFuncion) throws IOException {
+        if (ranurasUsadas == capacidadRanuras) {
+            mapear(capacidadRanuras + RANURAS_POR_BLOQUE);
+        }
+
+        int ranura = ranurasUsadas;
+        etiquetar(ranura, idFuncion);
+
+        ranurasUsadas++;
+        buffer.putInt(8, ranurasUsadas); // Se publica después de escribir la ranura completa
+        return ranura;
+    }
+
+    /**
+     * Escribe el identificador numérico de la función en una ranura y la registra en el directorio.
+     * @param ranura    Número de ranura.
+     * @param idFuncion Identificador numérico de la función.
+     */
+    private void etiquetar(int ranura, long idFuncion) {
+        byte[] id = Long.toString(idFuncion).getBytes(StandardCharsets.UTF_8); // A lo más 19 bytes
+        int inicio = TAM_CABECERA + ranura * TAM_RANURA;
+        buffer.putShort(inicio, (short) id.length);
+        for (int i = 0; i < TAM_ID; i++) buffer.put(inicio + 2 + i, i < id.length ? id[i] : 0); // Limpia restos de un id legado
+        ranuras.put(idFuncion, ranura);
+    }
+
+    /**
+     * Lee el identificador de función almacenado en una ranura.
+     * @param ranura Número de ranura.
+     * @return Identificador de la función.
+     */
+    private String leerId(int ranura) {
+        int inicio = TAM_CABECERA + ranura * TAM_RANURA;
+        byte[] id = new byte[Math.min(buffer.getShort(inicio), TAM_ID)];
+        for (int i = 0; i < id.length; i++) id[i] = buffer.get(inicio + 2 + i);
+        return new String(id, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Calcula la posición del mapa de bits de una ranura.
+     * @param ranura Número de ranura.
+     * @return Posición absoluta en el búfer.
+     */
+    private static int inicioMapa(int ranura) {
+        return TAM_CABECERA + ranura * TAM_RANURA + 2 + TAM_ID;
+    }
+
+    /**
+     * Mapea el archivo completo con capacidad para la cantidad de ranuras indicada (extendiéndolo si hace falta).
+     *
+     * @param cantidadRanuras Ranuras que debe abarcar la región.
+     * @throws IOException Si falla el mapeo.
+     */
+    private void mapear(int cantidadRanuras) throws IOException {
+        if (buffer != null) buffer.force();
+        buffer = canal.map(FileChannel.MapMode.READ_WRITE, 0, TAM_CABECERA + (long) cantidadRanuras * TAM_RANURA);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        capacidadRanuras = cantidadRanuras;
+    }
+}
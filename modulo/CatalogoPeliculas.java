@@ -0,0 +1,146 @@
+package mx.unam.fi.cine.modelo;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Catálogo en memoria de las películas del sistema <b>CineByt</b>, indexado por identificador estable.
+ * <p>
+ * Envuelve la lista maestra de películas (que se sigue persistiendo tal cual en {@code peliculas.dat}) y
+ * garantiza que en memoria exista <b>una sola instancia por película</b>: las funciones cargadas de sus
+ * particiones se resuelven contra el catálogo, de modo que {@code funcion.getPelicula()} es exactamente
+ * el objeto de la lista maestra y las películas pueden compararse por identidad.
+ * </p>
+ * <b>Identificadores:</b>
+ * <ul>
+ * <li>Toda alta debe pasar por {@link #registrar(Pelicula)}, que asigna el siguiente identificador libre.</li>
+ * <li>Las películas de versiones anteriores (sin identificador) reciben uno al construir el catálogo,
+ * en el orden de la lista.</li>
+ * </ul>
+ * <b>Resolución de Funciones ({@link #resolver}):</b> Se busca la película por identificador; las funciones de
+ * archivos anteriores (sin identificador) se buscan por título. Si la película no está en el catálogo
+ * (ej. {@code peliculas.dat} perdido), la copia de la función se registra para no dejarla huérfana.
+ * <br>
+ * Si la construcción o la resolución modifican el catálogo, {@link #isModificado()} lo indica para que
+ * se persista {@code peliculas.dat}.
+ *
+ * @author Equipo CineByt
+ * @version 1.0
+ * @see mx.unam.fi.cine.modelo.Pelicula
+ * @see mx.unam.fi.cine.modelo.CodecFunciones
+ */
+public class CatalogoPeliculas {
+
+    /** Lista maestra de películas (forma persistida). */
+    private final List<Pelicula> peliculas;
+
+    /** Índice por identificador. */
+    private final Map<Integer, Pelicula> porId = new HashMap<>();
+
+    /** Índice por título, utilizado solo para resolver referencias de archivos anteriores. */
+    private final Map<String, Pelicula> porTitulo = new HashMap<>();
+
+    /** Siguiente identificador a asignar. */
+    private int siguienteId = 1;
+
+    /** Indica si el catálogo cambió respecto a lo leído de disco. */
+    private boolean modificado;
+
+    /**
+     * Construye el catálogo sobre la lista maestra cargada de disco, asignando identificador
+     * a las películas que no lo tengan.
+     * @param peliculas Lista mutable de películas.
+     */
+    public CatalogoPeliculas(List<Pelicula> peliculas) {
+        this.peliculas = peliculas;
+        synchronized (peliculas) {
+            for (Pelicula pelicula : peliculas) {
+                siguienteId = Math.max(siguienteId, pelicula.getId() + 1);
+            }
+            for (Pelicula pelicula : peliculas) {
+                if (pelicula.getId() == 0 || porId.containsKey(pelicula.getId())) {
+                    pelicula.asignarId(siguienteId++);
+                    modificado = true;
+                }
+                indexar(pelicula);
+            }
+        }
+    }
+
+    /**
+     * Registra una nueva película en la lista maestra y le asigna identificador.
+     * @param pelicula Película recién creada.
+     */
+    public synchronized void registrar(Pelicula pelicula) {
+        pelicula.asignarId(siguienteId++);
+        synchronized (peliculas) { // Coordina con la copia de PersistenciaDiferida
+            peliculas.add(pelicula);
+        }
+        indexar(pelicula);
+    }
+
+    /**
+     * Obtiene una película por su identificador.
+     * @param id Identificador estable.
+     * @return La película, o {@code null} si no existe.
+     */
+    public synchronized Pelicula buscarPorId(int id) {
+        return porId.get(id);
+    }
+
+    /**
+     * Sustituye la película de cada función por la instancia compartida del catálogo.
+     *
+     * @param funciones Funciones recién cargadas de disco.
+     * @return Número de funciones cuya referencia se reemplazó.
+     */
+    public synchronized int resolver(List<Funcion> funciones) {
+        int resueltas = 0;
+        for (Funcion funcion : funciones) {
+            Pelicula copia = funcion.getPelicula();
+            Pelicula canonica = (copia.getId() != 0) ? porId.get(copia.getId()) : porTitulo.get(copia.getTitulo());
+            if (canonica == null) {
+                // Película ausente del catálogo: se conserva la copia de la función como instancia canónica
+                if (copia.getId() == 0 || porId.containsKey(copia.getId())) copia.asignarId(siguienteId++);
+                siguienteId = Math.max(siguienteId, copia.getId() + 1);
+                synchronized (peliculas) {
+                    peliculas.add(copia);
+                }
+                indexar(copia);
+                modificado = true;
+                continue;
+            }
+            if (canonica != copia) {
+                funcion.resolverPelicula(canonica);
+                resueltas++;
+            }
+        }
+        return resueltas;
+    }
+
+    /**
+     * Indica si se asignaron identificadores o se agregaron películas desde que se leyó {@code peliculas.dat}.
+     * @return {@code true} si el catálogo debe persistirse.
+     */
+    public synchronized boolean isModificado() {
+        return modificado;
+    }
+
+    /**
+     * Obtiene la lista maestra para su persistencia y despliegue.
+     * @return Lista de películas respaldada por el catálogo.
+     */
+    public List<Pelicula> getPeliculas() {
+        return peliculas;
+    }
+
+    /**
+     * Agrega una película a los índices.
+     * @param pelicula Película con identificador asignado.
+     */
+    private void indexar(Pelicula pelicula) {
+        porId.put(pelicula.getId(), pelicula);
+        porTitulo.putIfAbsent(pelicula.getTitulo(), pelicula);
+    }
+}
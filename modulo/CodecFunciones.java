@@ -0,0 +1,207 @@
+package mx.unam.fi.cine.modelo;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Codificador binario compacto y versionado de la cartelera (particiones de {@code funciones/}) del sistema <b>CineByt</b>.
+ * <p>
+ * Sustituye a la serialización estándar de Java para la lista de funciones. El formato se escribe a mano
+ * con {@link DataOutput}, sin descriptores de clase ni objetos por asiento:
+ * </p>
+ * <pre>
+ * int     MAGICO ("CBFN")
+ * short   VERSION
+ * int     nPeliculas
+ *   int id, texto titulo, texto genero, texto sinopsis, int duracionMinutos   (tabla de películas)
+ * int     nFunciones
+ *   int refPelicula, long idFuncion, texto sala, long horario (segundos época UTC),
+ *   short nPalabras, long[nPalabras] bitsVendidos                         (por función)
+ * </pre>
+ * <ul>
+ * <li><b>Películas por Referencia:</b> Cada película se escribe una sola vez en la tabla inicial y las
+ * funciones la referencian por su posición. Al decodificar, todas las funciones de una película
+ * comparten la misma instancia.</li>
+ * <li><b>Identificador Estable (versión 2):</b> Cada entrada de la tabla lleva el identificador de la película
+ * en {@link CatalogoPeliculas}, que resuelve la referencia a la instancia de {@code peliculas.dat}. Los demás
+ * campos se conservan solo como respaldo por si la película faltara en el catálogo. La versión 1 (sin
+ * identificador) se sigue leyendo; sus películas se resuelven por título.</li>
+ * <li><b>Identificador Numérico (versión 3):</b> El identificador de la función es el {@code long} de
+ * {@link GeneradorIds}. Las versiones 1 y 2 guardaban el identificador legible; al leerlas se emite
+ * uno numérico nuevo, por lo que esas particiones deben reescribirse en la versión actual
+ * (ver {@link ParticionesFunciones#cargarVigentes}).</li>
+ * <li><b>Asientos como Bits:</b> La ocupación se guarda como el mapa de bits de {@link Sala}, omitiendo
+ * las palabras finales vacías.</li>
+ * <li><b>Compatibilidad:</b> El número mágico no puede confundirse con la cabecera de un
+ * {@link ObjectOutputStream} ({@code 0xACED}), por lo que {@link GestorArchivos#leerFunciones} distingue
+ * ambos formatos y sigue leyendo los archivos anteriores.</li>
+ * </ul>
+ *
+ * @author Equipo CineByt
+ * @version 3.0
+ * @see mx.unam.fi.cine.modelo.GestorArchivos#guardarFunciones
+ * @see mx.unam.fi.cine.modelo.Sala
+ */
+public final class CodecFunciones {
+
+    /** Número mágico del formato compacto: los bytes ASCII "CBFN". */
+    public static final int MAGICO = 0x4342464E;
+
+    /** Versión actual del formato (3: identificador numérico de función). */
+    public static final short VERSION = 3;
+
+    /** Versión con identificador de película e identificador legible de función; solo se lee. */
+    private static final short VERSION_ID_LEGIBLE = 2;
+
+    /** Versión anterior, sin identificador de película; solo se lee. */
+    private static final short VERSION_SIN_ID = 1;
+
+    /**
+     * Clase utilitaria: no se instancia.
+     */
+    private CodecFunciones() {}
+
+    /**
+     * Escribe la cartelera completa en formato compacto.
+     *
+     * @param funciones Lista de funciones a persistir.
+     * @param out       Flujo de salida (se recomienda con búfer).
+     * @throws IOException Si falla la escritura.
+     */
+    public static void escribir(List<Funcion> funciones, DataOutputStream out) throws IOException {
+        out.writeInt(MAGICO);
+        out.writeShort(VERSION);
+
+        // 1. Tabla de películas (deduplicadas por identidad)
+        Map<Pelicula, Integer> referencias = new IdentityHashMap<>();
+        List<Pelicula> tabla = new ArrayList<>();
+        for (Funcion funcion : funciones) {
+            if (!referencias.containsKey(funcion.getPelicula())) {
+                referencias.put(funcion.getPelicula(), tabla.size());
+                tabla.add(funcion.getPelicula());
+            }
+        }
+        out.writeInt(tabla.size());
+        for (Pelicula pelicula : tabla) {
+            out.writeInt(pelicula.getId());
+            escribirTexto(out, pelicula.getTitulo());
+            escribirTexto(out, pelicula.getGenero());
+            escribirTexto(out, pelicula.getSinopsis());
+            out.writeInt(pelicula.getDuracionMinutos());
+        }
+
+        // 2. Funciones con su mapa de bits de asientos vendidos
+        out.writeInt(funciones.size());
+        for (Funcion funcion : funciones) {
+            out.writeInt(referencias.get(funcion.getPelicula()));
+            out.writeLong(funcion.getId());
+            escribirTexto(out, funcion.getSala().getNombre());
+            out.writeLong(funcion.getHorario().toEpochSecond(ZoneOffset.UTC));
+
+            long[] bits = funcion.getSala().getBitsVendidos();
+            int palabras = bits.length;
+            while (palabras > 0 && bits[palabras - 1] == 0) palabras--;
+            out.writeShort(palabras);
+            for (int i = 0; i < palabras; i++) out.writeLong(bits[i]);
+        }
+        out.flush();
+    }
+
+    /**
+     * Lee una cartelera escrita con {@link #escribir}.
+     *
+     * @param in Flujo de entrada posicionado al inicio del archivo.
+     * @return Lista mutable de funciones restauradas.
+     * @throws IOException Si el número mágico o la versión no son reconocidos, o el archivo está truncado.
+     */
+    public static List<Funcion> leer(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGICO) {
+            throw new IOException("El archivo no está en el formato compacto de funciones.");
+        }
+        short version = in.readShort();
+        if (version != VERSION && version != VERSION_ID_LEGIBLE && version != VERSION_SIN_ID) {
+            throw new IOException("Versión de formato de funciones no soportada: " + version);
+        }
+
+        Pelicula[] tabla = new Pelicula[in.readInt()];
+        for (int i = 0; i < tabla.length; i++) {
+            int id = (version == VERSION_SIN_ID) ? 0 : in.readInt();
+            String titulo = leerTexto(in);
+            String genero = leerTexto(in);
+            String sinopsis = leerTexto(in);
+            tabla[i] = new Pelicula(titulo, genero, sinopsis, in.readInt());
+            tabla[i].asignarId(id);
+        }
+
+        int total = in.readInt();
+        List<Funcion> funciones = new ArrayList<>(total);
+        for (int i = 0; i < total; i++) {
+            Pelicula pelicula = tabla[in.readInt()];
+            long idFuncion;
+            if (version == VERSION) {
+                idFuncion = in.readLong();
+            } else {
+                leerTexto(in); // Identificador legible anterior: se sustituye por uno numérico
+                idFuncion = GeneradorIds.siguiente();
+            }
+            String nombreSala = leerTexto(in);
+            LocalDateTime horario = LocalDateTime.ofEpochSecond(in.readLong(), 0, ZoneOffset.UTC);
+
+            long[] bits = new long[in.readUnsignedShort()];
+            for (int j = 0; j < bits.length; j++) bits[j] = in.readLong();
+
+            funciones.add(new Funcion(idFuncion, pelicula, new Sala(nombreSala, bits), horario));
+        }
+        return funciones;
+    }
+
+    /**
+     * Lee la versión de formato de una cartelera sin decodificarla.
+     *
+     * @param in Flujo de entrada posicionado al inicio del archivo.
+     * @return Versión del formato compacto, o {@code 0} si el archivo no está en formato compacto.
+     * @throws IOException Si el archivo está truncado.
+     */
+    public static short leerVersion(DataInputStream in) throws IOException {
+        return (in.readInt() == MAGICO) ? in.readShort() : 0;
+    }
+
+    /**
+     * Escribe una cadena como longitud en bytes seguida de su contenido UTF-8 ({@code -1} para {@code null}).
+     * A diferencia de {@link DataOutput#writeUTF}, no limita el texto a 64 KB (ej. sinopsis extensas).
+     *
+     * @param out   Flujo de salida.
+     * @param texto Cadena a escribir.
+     * @throws IOException Si falla la escritura.
+     */
+    private static void escribirTexto(DataOutputStream out, String texto) throws IOException {
+        if (texto == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Lee una cadena escrita con {@link #escribirTexto}.
+     *
+     * @param in Flujo de entrada.
+     * @return La cadena, o {@code null}.
+     * @throws IOException Si el archivo está truncado.
+     */
+    private static String leerTexto(DataInputStream in) throws IOException {
+        int longitud = in.readInt();
+        if (longitud < 0) return null;
+        byte[] bytes = new byte[longitud];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
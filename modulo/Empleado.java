@@ -1,5 +1,9 @@
 package mx.unam.fi.cine.modelo;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
 /**
  * Clase base abstracta que define el contrato operativo para todo el personal interno de <b>CineByt</b>.
  * <p>
@@ -18,7 +22,7 @@ package mx.unam.fi.cine.modelo;
  * </ul>
  *
  * @author Equipo CineByt
- * @version 1.0
+ * @version 2.0
  * @see mx.unam.fi.cine.modelo.Usuario
  * @see mx.unam.fi.cine.modelo.Administrador
  * @see mx.unam.fi.cine.modelo.VendedorDulceria
@@ -33,15 +37,47 @@ public abstract class Empleado extends Usuario {
      * evitando inconsistencias en la base de datos o lógica condicional.
      * </p>
      * <ul>
-     * <li>{@code MATUTINO}: Turno de apertura y primeras funciones.</li>
-     * <li>{@code VESPERTINO}: Turno con mayor afluencia de gente.</li>
-     * <li>{@code NOCTURNO}: Turno de cierre y limpieza.</li>
+     * <li>{@code MATUTINO}: Turno de apertura y primeras funciones (08:00 a 15:00).</li>
+     * <li>{@code VESPERTINO}: Turno con mayor afluencia de gente (15:00 a 21:00).</li>
+     * <li>{@code NOCTURNO}: Turno de cierre y limpieza (21:00 a 03:00 del día siguiente).</li>
      * </ul>
      */
     public enum Turno { 
-        MATUTINO, 
-        VESPERTINO, 
-        NOCTURNO 
+        MATUTINO(8, 15), 
+        VESPERTINO(15, 21), 
+        NOCTURNO(21, 3);
+
+        /** Hora (0-23) en que inicia el turno. */
+        private final int horaInicio;
+
+        /** Hora (0-23) en que termina el turno (exclusiva); menor que el inicio si cruza la medianoche. */
+        private final int horaFin;
+
+        Turno(int horaInicio, int horaFin) {
+            this.horaInicio = horaInicio;
+            this.horaFin = horaFin;
+        }
+
+        /**
+         * Indica si una hora del día cae dentro del turno.
+         * @param hora Hora a evaluar.
+         * @return {@code true} si el turno cubre esa hora.
+         */
+        public boolean cubre(LocalTime hora) {
+            int h = hora.getHour();
+            return (horaInicio < horaFin) ? (h >= horaInicio && h < horaFin) : (h >= horaInicio || h < horaFin);
+        }
+
+        /**
+         * Obtiene el día en que comenzó el turno que cubre un momento. En un turno que cruza la medianoche,
+         * las horas anteriores a su fin pertenecen al turno iniciado el día anterior.
+         * @param momento Fecha y hora dentro del turno.
+         * @return Fecha de inicio del turno.
+         */
+        public LocalDate diaDeInicio(LocalDateTime momento) {
+            boolean cola = horaInicio > horaFin && momento.getHour() < horaFin;
+            return cola ? momento.toLocalDate().minusDays(1) : momento.toLocalDate();
+        }
     }
 
     /**
@@ -0,0 +1,59 @@
+package mx.unam.fi.cine.modelo;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Intervalo continuo de horas de inicio factibles para una nueva función en una sala de <b>CineByt</b>.
+ * <p>
+ * Cualquier hora entre {@code desde} y {@code hasta} (ambos inclusive) puede usarse como inicio de la
+ * función sin violar la regla de limpieza de 30 minutos ni el horario de operación del cine.
+ * Es el resultado de {@link AgendaSalas#horariosDisponibles}.
+ * </p>
+ *
+ * @author Equipo CineByt
+ * @version 1.0
+ * @see mx.unam.fi.cine.modelo.AgendaSalas
+ */
+public class FranjaHoraria {
+
+    /** Formato corto de hora para la presentación en consola. */
+    private static final DateTimeFormatter FORMATO_HORA = DateTimeFormatter.ofPattern("HH:mm");
+
+    /** Primera hora de inicio factible. */
+    private final LocalDateTime desde;
+
+    /** Última hora de inicio factible. */
+    private final LocalDateTime hasta;
+
+    /**
+     * Constructor de la franja.
+     * @param desde Primera hora de inicio factible.
+     * @param hasta Última hora de inicio factible (no anterior a {@code desde}).
+     */
+    public FranjaHoraria(LocalDateTime desde, LocalDateTime hasta) {
+        this.desde = desde;
+        this.hasta = hasta;
+    }
+
+    /**
+     * Obtiene la primera hora de inicio factible.
+     * @return Fecha y hora inicial.
+     */
+    public LocalDateTime getDesde() { return desde; }
+
+    /**
+     * Obtiene la última hora de inicio factible.
+     * @return Fecha y hora final.
+     */
+    public LocalDateTime getHasta() { return hasta; }
+
+    /**
+     * Representación en cadena de la franja.
+     * @return Cadena con formato "HH:mm - HH:mm".
+     */
+    @Override
+    public String toString() {
+        return desde.format(FORMATO_HORA) + " - " + hasta.format(FORMATO_HORA);
+    }
+}
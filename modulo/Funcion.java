@@ -3,6 +3,7 @@ package mx.unam.fi.cine.modelo;
 import java.io.*;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 
 /**
  * Representa una proyección específica (evento) dentro de la cartelera del sistema <b>CineByt</b>.
@@ -14,7 +15,9 @@ import java.time.format.DateTimeFormatter;
  * </p>
  * * <h3>Arquitectura y Gestión de Estado:</h3>
  * Un aspecto fundamental de esta clase es su manejo de la <b>Sala</b>. Implementa una relación
- * de <b>Composición Fuerte</b>: cada Función instancia su propia copia de un objeto {@code Sala}.
+ * de <b>Composición Fuerte</b>: cada Función instancia su propio objeto {@code Sala}, que contiene
+ * únicamente el estado de ocupación de esta proyección. La distribución de asientos ({@link SalaLayout})
+ * es inmutable y se comparte entre todas las funciones de la misma sala.
  * <br>
  * Esto es crucial para el sistema de ventas: permite que el Asiento A1 esté "Ocupado" 
  * en la función de las 18:00, pero "Libre" en la función de las 20:00, aunque físicamente sea el mismo lugar.
@@ -33,11 +36,16 @@ public class Funcion implements Serializable {
     private static final long serialVersionUID = 1L;
 
     /**
-     * Identificador único generado algorítmicamente.
-     * Formato: {@code INICIALES:FECHA:HORA:SALA}
-     * Permite búsquedas rápidas y validaciones de unicidad sin comparar todos los campos.
+     * Formato de fecha y hora del identificador legible ({@code AAAAMMDD:HHmm}).
      */
-    private String idFuncion;
+    private static final DateTimeFormatter FORMATO_ID = DateTimeFormatter.ofPattern("yyyyMMdd:HHmm");
+
+    /**
+     * Identificador numérico único emitido por {@link GeneradorIds}.
+     * Es la llave de la función en índices, bitácora de ventas y archivos; el formato legible
+     * {@code INICIALES:FECHA:HORA:SALA} solo se genera al imprimir ({@link #getIdFuncion()}).
+     */
+    private long id;
 
     /**
      * Referencia a la película que se proyectará.
@@ -63,8 +71,9 @@ public class Funcion implements Serializable {
      * Realiza dos tareas críticas de inicialización:
      * <ol>
      * <li><b>Instanciación de Sala:</b> Crea un nuevo objeto {@code Sala} basado en el nombre proporcionado.
-     * Esto garantiza que la gestión de asientos sea independiente de otras funciones.</li>
-     * <li><b>Generación de ID:</b> Construye el identificador único basado en los datos inmutables iniciales.</li>
+     * Esto garantiza que la gestión de asientos sea independiente de otras funciones, reutilizando
+     * la topología compartida en lugar de regenerarla.</li>
+     * <li><b>Generación de ID:</b> Obtiene un identificador numérico único de {@link GeneradorIds}.</li>
      * </ol>
      *
      * @param pelicula    Objeto {@link Pelicula} con la información de la cinta.
@@ -73,48 +82,34 @@ public class Funcion implements Serializable {
      */
     public Funcion(Pelicula pelicula, String nombreSala, LocalDateTime horario) {
         this.pelicula = pelicula;
-        // Composición: La función tiene su propia instancia de Sala para gestionar sus propios asientos de forma aislada
+        // Composición: La función tiene su propio estado de ocupación; la topología es compartida
         this.sala = new Sala(nombreSala); 
         this.horario = horario;
-        this.idFuncion = generarIdUnico();
+        this.id = GeneradorIds.siguiente();
     }
 
     /**
-     * Genera un identificador único (Clave Primaria lógica) para la función.
-     * <p>
-     * El algoritmo de construcción es:
-     * <ul>
-     * <li><b>Iniciales:</b> Primera letra de cada palabra del título (ej. "Star Wars" -> "SW").</li>
-     * <li><b>Fecha:</b> Formato AAAAMMDD (ej. "20231025").</li>
-     * <li><b>Hora:</b> Formato HHmm (ej. "1830").</li>
-     * <li><b>Sala:</b> Nombre de la sala sin espacios (ej. "SalaA").</li>
-     * </ul>
+     * Constructor de restauración utilizado por {@link CodecFunciones}.
+     * Conserva el identificador persistido en lugar de emitir uno nuevo.
      *
-     * @return Una cadena con el formato {@code INICIALES:AAAAMMDD:HHmm:SALA}.
-     */
-    private String generarIdUnico() {
-        // 1. Obtención de iniciales del título
-        StringBuilder iniciales = new StringBuilder();
-        String[] palabras = pelicula.getTitulo().split(" ");
-        for (String palabra : palabras) {
-            if (!palabra.isEmpty()) {
-                iniciales.append(palabra.charAt(0));
-            }
-        }
+     * @param id        Identificador numérico original de la función.
+     * @param pelicula  Película proyectada (instancia compartida del catálogo decodificado).
+     * @param sala      Sala con su ocupación ya restaurada.
+     * @param horario   Fecha y hora de inicio.
+     */
+    Funcion(long id, Pelicula pelicula, Sala sala, LocalDateTime horario) {
+        this.id = id;
+        this.pelicula = pelicula;
+        this.sala = sala;
+        this.horario = horario;
+    }
 
-        // 2. Formato de fecha y hora para cadena compacta
-        DateTimeFormatter fmtFecha = DateTimeFormatter.ofPattern("yyyyMMdd");
-        DateTimeFormatter fmtHora = DateTimeFormatter.ofPattern("HHmm");
-        
-        String fechaStr = horario.format(fmtFecha);
-        String horaStr = horario.format(fmtHora);
-
-        // 3. Construcción del ID final concatenado
-        return String.format("%s:%s:%s:%s", 
-                iniciales.toString().toUpperCase(), 
-                fechaStr, 
-                horaStr, 
-                sala.getNombre().replace(" ", ""));
+    /**
+     * Asigna un identificador numérico a una función deserializada de una versión anterior (que solo tenía
+     * el identificador legible). No tiene efecto si la función ya tiene identificador.
+     */
+    void asegurarId() {
+        if (id == 0) id = GeneradorIds.siguiente();
     }
 
     // ----------------------------------------------------------------------------------
@@ -122,16 +117,59 @@ public class Funcion implements Serializable {
     // ----------------------------------------------------------------------------------
 
     /**
-     * Obtiene el ID único de la función.
-     * @return Cadena identificadora.
+     * Obtiene el identificador numérico de la función (llave para mapas, índices y archivos).
+     * @return Identificador emitido por {@link GeneradorIds}.
+     */
+    public long getId() { return id; }
+
+    /**
+     * Genera el identificador legible de la función, para mostrarlo al usuario.
+     * <p>
+     * El formato es {@code INICIALES:AAAAMMDD:HHmm:SALA}:
+     * <ul>
+     * <li><b>Iniciales:</b> Primera letra de cada palabra del título (ej. "Star Wars" -> "SW").</li>
+     * <li><b>Fecha y Hora:</b> Inicio de la función (ej. "20231025:1830").</li>
+     * <li><b>Sala:</b> Nombre de la sala sin espacios (ej. "SalaA").</li>
+     * </ul>
+     * Se calcula en cada llamada; no debe usarse como llave (utilice {@link #getId()}).
+     *
+     * @return Cadena identificadora legible.
      */
-    public String getIdFuncion() { return idFuncion; }
+    public String getIdFuncion() {
+        StringBuilder clave = new StringBuilder(32);
+        String titulo = pelicula.getTitulo();
+        boolean inicioPalabra = true;
+        for (int i = 0; i < titulo.length(); i++) {
+            char c = titulo.charAt(i);
+            if (c == ' ') {
+                inicioPalabra = true;
+            } else if (inicioPalabra) {
+                clave.append(Character.toUpperCase(c));
+                inicioPalabra = false;
+            }
+        }
+        clave.append(':');
+        FORMATO_ID.formatTo(horario, clave);
+        clave.append(':');
+        String nombreSala = sala.getNombre();
+        for (int i = 0; i < nombreSala.length(); i++) {
+            if (nombreSala.charAt(i) != ' ') clave.append(nombreSala.charAt(i));
+        }
+        return clave.toString();
+    }
     
     /**
      * Obtiene la película asociada.
      * @return Objeto Pelicula.
      */
     public Pelicula getPelicula() { return pelicula; }
+
+    /**
+     * Sustituye la película por la instancia compartida del catálogo (misma película, otra copia en memoria).
+     * Lo invoca {@link CatalogoPeliculas#resolver} al cargar la cartelera.
+     * @param pelicula Instancia canónica de la película.
+     */
+    void resolverPelicula(Pelicula pelicula) { this.pelicula = pelicula; }
     
     /**
      * Obtiene la sala exclusiva de esta función.
@@ -142,6 +180,27 @@ public class Funcion implements Serializable {
      */
     public Sala getSala() { return sala; }
     
+    /**
+     * Reserva atómicamente un grupo de asientos de esta función: se ocupan todos o ninguno.
+     * <p>
+     * Es seguro invocarlo desde varias terminales de venta a la vez; delega en
+     * {@link Sala#ocuparAsientos(List)}, que opera con CAS sobre el mapa de bits sin candados globales.
+     *
+     * @param asientos Asientos obtenidos de {@code getSala().buscarAsiento(...)}.
+     * @return {@code true} si todos quedaron reservados; {@code false} si alguno ya estaba ocupado.
+     */
+    public boolean reservarAsientos(List<Asiento> asientos) {
+        return sala.ocuparAsientos(asientos);
+    }
+
+    /**
+     * Libera un grupo de asientos reservados previamente con {@link #reservarAsientos(List)}.
+     * @param asientos Asientos a liberar.
+     */
+    public void liberarAsientos(List<Asiento> asientos) {
+        sala.liberarAsientos(asientos);
+    }
+
     /**
      * Obtiene el horario de inicio.
      * @return Objeto LocalDateTime.
@@ -151,16 +210,13 @@ public class Funcion implements Serializable {
     /**
      * Actualiza el horario de la función.
      * <p>
-     * <b>Nota de Diseño:</b> Actualmente, cambiar el horario no regenera automáticamente
-     * el {@code idFuncion}. Si la integridad del ID es crítica respecto al horario,
-     * se recomienda recrear el objeto Funcion en lugar de modificarlo.
+     * <b>Nota de Diseño:</b> El identificador numérico no cambia; el identificador legible
+     * ({@link #getIdFuncion()}) reflejará el nuevo horario.
      *
      * @param horario Nuevo LocalDateTime de inicio.
      */
     public void setHorario(LocalDateTime horario) { 
         this.horario = horario; 
-        // Nota técnica: Se mantiene el ID original por consistencia referencial, 
-        // aunque semánticamente el ID contenga la hora antigua.
     }
 
     /**
@@ -173,6 +229,6 @@ public class Funcion implements Serializable {
     public String toString() {
         DateTimeFormatter printable = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
         return String.format("Función [%s] - %s en %s a las %s", 
-                idFuncion, pelicula.getTitulo(), sala.getNombre(), horario.format(printable));
+                getIdFuncion(), pelicula.getTitulo(), sala.getNombre(), horario.format(printable));
     }
 }
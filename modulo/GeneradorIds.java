@@ -0,0 +1,112 @@
+package mx.unam.fi.cine.modelo;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Servicio central de identificadores del sistema <b>CineByt</b>.
+ * <p>
+ * Emite identificadores numéricos de 64 bits, monótonos y libres de colisiones, para funciones y
+ * órdenes de dulcería. Los identificadores numéricos son los que se usan como llave en mapas, índices,
+ * bitácoras y archivos; el formato legible para el usuario se genera solo al imprimir.
+ * </p>
+ * <b>Estructura del Identificador (estilo "snowflake"):</b>
+ * <pre>
+ *  bit 63      : 0 (siempre positivo)
+ *  bits 62..22 : milisegundos desde {@link #EPOCA} (41 bits, ~69 años)
+ *  bits 21..12 : nodo (10 bits, propiedad {@value #PROPIEDAD_NODO})
+ *  bits 11..0  : secuencia dentro del mismo milisegundo (12 bits, 4096 ids/ms)
+ * </pre>
+ * <ul>
+ * <li><b>Monotonía:</b> Si el reloj retrocede, se sigue emitiendo a partir del último milisegundo usado.</li>
+ * <li><b>Saturación:</b> Al agotar la secuencia de un milisegundo se continúa en el siguiente, por lo que
+ * dos llamadas nunca devuelven el mismo valor.</li>
+ * </ul>
+ *
+ * @author Equipo CineByt
+ * @version 1.0
+ * @see mx.unam.fi.cine.modelo.Funcion
+ * @see mx.unam.fi.cine.controlador.ControladorDulceria
+ */
+public final class GeneradorIds {
+
+    /** Propiedad del sistema con el número de nodo (0-1023) de esta instancia de la aplicación. */
+    public static final String PROPIEDAD_NODO = "cinebyt.nodo";
+
+    /** Época propia de los identificadores: 2024-01-01T00:00:00Z. */
+    public static final long EPOCA = 1704067200000L;
+
+    /** Bits de la secuencia. */
+    private static final int BITS_SECUENCIA = 12;
+
+    /** Bits del nodo. */
+    private static final int BITS_NODO = 10;
+
+    /** Desplazamiento de la marca de tiempo. */
+    private static final int DESPLAZAMIENTO_TIEMPO = BITS_SECUENCIA + BITS_NODO;
+
+    /** Máscara de la secuencia. */
+    private static final long MASCARA_SECUENCIA = (1L << BITS_SECUENCIA) - 1;
+
+    /** Nodo de esta instancia, ya desplazado a su posición. */
+    private static final long NODO = (Integer.getInteger(PROPIEDAD_NODO, 0) & ((1L << BITS_NODO) - 1)) << BITS_SECUENCIA;
+
+    /** Formato de fecha y hora de las claves legibles ({@code AAAAMMDD:HHmm}). */
+    private static final DateTimeFormatter FORMATO_CLAVE = DateTimeFormatter.ofPattern("yyyyMMdd:HHmm");
+
+    /** Último milisegundo (relativo a la época) utilizado. */
+    private static long ultimoInstante = -1;
+
+    /** Secuencia dentro de {@link #ultimoInstante}. */
+    private static long secuencia;
+
+    /**
+     * Clase utilitaria: no se instancia.
+     */
+    private GeneradorIds() {}
+
+    /**
+     * Emite un nuevo identificador.
+     * @return Identificador positivo, mayor que todos los emitidos antes en este proceso.
+     */
+    public static synchronized long siguiente() {
+        long ahora = Math.max(System.currentTimeMillis() - EPOCA, ultimoInstante);
+        if (ahora == ultimoInstante) {
+            secuencia = (secuencia + 1) & MASCARA_SECUENCIA;
+            if (secuencia == 0) ahora++; // Secuencia agotada: se toma prestado el siguiente milisegundo
+        } else {
+            secuencia = 0;
+        }
+        ultimoInstante = ahora;
+        return (ahora << DESPLAZAMIENTO_TIEMPO) | NODO | secuencia;
+    }
+
+    /**
+     * Obtiene el instante de emisión de un identificador.
+     * @param id Identificador emitido por {@link #siguiente()}.
+     * @return Milisegundos desde la época Unix.
+     */
+    public static long instanteDe(long id) {
+        return (id >>> DESPLAZAMIENTO_TIEMPO) + EPOCA;
+    }
+
+    /**
+     * Genera la clave legible de una orden: {@code INICIALES:AAAAMMDD:HHmm:SUFIJO}.
+     * <p>
+     * Conserva el formato anterior (iniciales del cliente, fecha y hora de emisión) y agrega un sufijo
+     * en base 36 con la parte del identificador que distingue órdenes del mismo minuto, de modo que
+     * dos clientes con las mismas iniciales ya no generan la misma clave.
+     *
+     * @param iniciales Iniciales del cliente.
+     * @param id        Identificador numérico de la orden.
+     * @return Clave para mostrar al usuario.
+     */
+    public static String claveLegible(String iniciales, long id) {
+        long instante = instanteDe(id);
+        LocalDateTime fecha = LocalDateTime.ofInstant(Instant.ofEpochMilli(instante), ZoneId.systemDefault());
+        long dentroDelMinuto = ((instante % 60_000L) << DESPLAZAMIENTO_TIEMPO) | (id & ((1L << DESPLAZAMIENTO_TIEMPO) - 1));
+        return iniciales + ":" + fecha.format(FORMATO_CLAVE) + ":" + Long.toString(dentroDelMinuto, 36).toUpperCase();
+    }
+}
@@ -0,0 +1,137 @@
+package mx.unam.fi.cine.modelo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Subsistema de apartados de asientos con expiración automática para el sistema <b>CineByt</b>.
+ * <p>
+ * Protege los asientos elegidos durante la ventana de pago: al apartarlos se reservan de forma atómica
+ * en la {@link Sala} (nadie más puede venderlos) y se programa su liberación para la fecha límite.
+ * Un pago exitoso convierte el apartado en venta; uno rechazado o vencido devuelve los asientos.
+ * </p>
+ * <b>Diseño del Barredor:</b>
+ * <ul>
+ * <li>Un único hilo <i>daemon</i> con un {@link ScheduledThreadPoolExecutor} atiende a todos los apartados de
+ * todas las funciones. No existe un hilo por apartado.</li>
+ * <li>La cola interna del planificador es un montículo (heap) ordenado por fecha límite: programar o
+ * cancelar un apartado cuesta O(log n), por lo que miles de apartados simultáneos siguen siendo baratos.</li>
+ * <li>Con {@code removeOnCancelPolicy} las tareas de apartados confirmados se eliminan de inmediato
+ * en lugar de esperar su vencimiento.</li>
+ * </ul>
+ *
+ * @author Equipo CineByt
+ * @version 1.0
+ * @see mx.unam.fi.cine.modelo.ApartadoAsientos
+ * @see mx.unam.fi.cine.modelo.Sala#ocuparAsientos(List)
+ */
+public class GestorApartados {
+
+    /** Planificador compartido que libera los apartados vencidos. */
+    private static final ScheduledThreadPoolExecutor BARREDOR;
+
+    /** Cantidad de apartados activos en todo el sistema (métrica). */
+    private static final AtomicInteger ACTIVOS = new AtomicInteger();
+
+    /*
+     * Bloque de inicialización estática.
+     * Crea el hilo barredor como daemon para que no impida el cierre de la aplicación.
+     */
+    static {
+        BARREDOR = new ScheduledThreadPoolExecutor(1, tarea -> {
+            Thread hilo = new Thread(tarea, "barredor-apartados");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        BARREDOR.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Clase utilitaria: no se instancia.
+     */
+    private GestorApartados() {}
+
+    /**
+     * Aparta un grupo de asientos de una función durante un tiempo limitado.
+     * <p>
+     * La reserva es atómica (todos o ninguno) mediante {@link Funcion#reservarAsientos(List)}.
+     * Si la reserva tiene éxito, se programa su expiración automática.
+     *
+     * @param funcion    Función de los asientos.
+     * @param asientos   Asientos elegidos por el cliente.
+     * @param duracionMs Tiempo de vida del apartado en milisegundos.
+     * @return El apartado creado, o {@code null} si alguno de los asientos ya no estaba disponible.
+     */
+    public static ApartadoAsientos apartar(Funcion funcion, List<Asiento> asientos, long duracionMs) {
+        if (!funcion.reservarAsientos(asientos)) {
+            return null;
+        }
+        ApartadoAsientos apartado = new ApartadoAsientos(funcion, new ArrayList<>(asientos),
+                System.currentTimeMillis() + duracionMs);
+        ACTIVOS.incrementAndGet();
+        apartado.setTareaExpiracion(BARREDOR.schedule(() -> expirar(apartado), duracionMs, TimeUnit.MILLISECONDS));
+        return apartado;
+    }
+
+    /**
+     * Convierte un apartado en venta confirmada.
+     *
+     * @param apartado Apartado obtenido de {@link #apartar}.
+     * @return {@code true} si la venta se confirmó; {@code false} si el apartado ya había expirado o
+     * se había cancelado (en ese caso los asientos pudieron haber sido tomados por otro cliente).
+     */
+    public static boolean confirmar(ApartadoAsientos apartado) {
+        if (!apartado.finalizar(ApartadoAsientos.CONFIRMADO)) {
+            return false;
+        }
+        apartado.getFuncion().getSala().confirmarVenta(apartado.getAsientos());
+        cerrar(apartado);
+        return true;
+    }
+
+    /**
+     * Cancela un apartado y libera sus asientos de inmediato (ej. pago rechazado).
+     * No tiene efecto si el apartado ya fue confirmado o expiró.
+     *
+     * @param apartado Apartado a cancelar.
+     */
+    public static void cancelar(ApartadoAsientos apartado) {
+        if (apartado.finalizar(ApartadoAsientos.CANCELADO)) {
+            apartado.getFuncion().liberarAsientos(apartado.getAsientos());
+            cerrar(apartado);
+        }
+    }
+
+    /**
+     * Obtiene la cantidad de apartados vigentes en todas las funciones.
+     * @return Número de apartados activos.
+     */
+    public static int getApartadosActivos() {
+        return ACTIVOS.get();
+    }
+
+    /**
+     * Tarea del barredor: libera los asientos si el apartado sigue activo al llegar su fecha límite.
+     * @param apartado Apartado vencido.
+     */
+    private static void expirar(ApartadoAsientos apartado) {
+        if (apartado.finalizar(ApartadoAsientos.EXPIRADO)) {
+            apartado.getFuncion().liberarAsientos(apartado.getAsientos());
+            ACTIVOS.decrementAndGet();
+        }
+    }
+
+    /**
+     * Retira la tarea de expiración del planificador y actualiza la métrica de activos.
+     * @param apartado Apartado ya finalizado.
+     */
+    private static void cerrar(ApartadoAsientos apartado) {
+        ScheduledFuture<?> tarea = apartado.getTareaExpiracion();
+        if (tarea != null) tarea.cancel(false);
+        ACTIVOS.decrementAndGet();
+    }
+}
@@ -1,8 +1,21 @@
 package mx.unam.fi.cine.modelo;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Motor de persistencia unificado para el sistema <b>CineByt</b>.
@@ -14,7 +27,14 @@ import java.util.List;
  * <li><b>Serialización Binaria (.dat):</b> Para la persistencia de estado de objetos complejos del Modelo
  * (Listas de {@code Usuario}, {@code Funcion}, etc.). Mantiene la integridad de las relaciones entre objetos.</li>
  * <li><b>Texto Plano (.txt):</b> Para la generación de reportes legibles, tickets de venta y
- * lectura de configuraciones externas (ej. precios de dulcería).</li>
+ * lectura de configuraciones externas (ej. precios de dulcería). Los historiales extensos se leen como flujo,
+ * por páginas o desde el final ({@link #lineasTexto}, {@link #leerPagina}, {@link #leerUltimasLineas}).</li>
+ * <li><b>Formato Compacto de Funciones:</b> La cartelera (particiones semanales de {@link ParticionesFunciones})
+ * se codifica con {@link CodecFunciones} en lugar de la serialización estándar, conservando la lectura de archivos anteriores.</li>
+ * <li><b>Asientos Mapeados (.map, opcional):</b> Ocupación de cada función en un archivo mapeado en memoria,
+ * actualizado bit por bit al vender ({@link #mapearAsientos(String)}).</li>
+ * <li><b>Bitácora de Ventas (.journal):</b> Registro de solo-agregado con los asientos vendidos desde la
+ * última instantánea de la cartelera, evitando reescribir todas las funciones por cada boleto.</li>
  * </ol>
  * <b>Estructura de Directorios:</b>
  * <br>
@@ -34,6 +54,46 @@ public class GestorArchivos {
      */
     public static final String CARPETA_ARCHIVOS = "ArchivosAplicacion";
 
+    /**
+     * Nombre del archivo de bitácora de ventas (Write-Ahead Journal).
+     * Contiene únicamente los asientos vendidos posteriores a la última compactación.
+     */
+    public static final String BITACORA_VENTAS = "ventas.journal";
+
+    /**
+     * Bitácora de una versión anterior (identificadores legibles) apartada al arrancar. Sus registros se siguen
+     * reproduciendo hasta que una compactación los consolida; las ventas nuevas van a {@link #BITACORA_VENTAS}.
+     */
+    public static final String BITACORA_ANTERIOR = BITACORA_VENTAS + ".anterior";
+
+    /**
+     * Nombre del archivo de ocupación mapeado en memoria (modo opcional, ver {@link #mapearAsientos(String)}).
+     */
+    public static final String ARCHIVO_ASIENTOS_MAPEADOS = "asientos.map";
+
+    /**
+     * Propiedad del sistema que activa el modo de asientos mapeados ({@code -Dcinebyt.asientosMapeados=true}).
+     */
+    public static final String PROPIEDAD_ASIENTOS_MAPEADOS = "cinebyt.asientosMapeados";
+
+    /**
+     * Contador de registros escritos en la bitácora desde la última compactación.
+     * Permite a los controladores decidir cuándo conviene consolidar una nueva instantánea.
+     */
+    private static int registrosBitacora = 0;
+
+    /** Número mágico de la bitácora con identificadores numéricos: los bytes ASCII "CBVJ". */
+    private static final int MAGICO_BITACORA = 0x4342564A;
+
+    /** Tamaño en bytes de cada registro de la bitácora (long id, int día, char fila, int número). */
+    private static final int TAM_REGISTRO_BITACORA = 18;
+
+    /** Indica si hay registros en el formato anterior ({@link #BITACORA_ANTERIOR}) que aún no se compactan. */
+    private static boolean bitacoraAnterior = false;
+
+    /** Tamaño del bloque de lectura de {@link #leerPagina} y {@link #leerUltimasLineas}. */
+    private static final int TAM_BLOQUE_LECTURA = 8192;
+
     /*
      * Bloque de inicialización estática.
      * --------------------------------------------------------------------------------------
@@ -66,17 +126,22 @@ public class GestorArchivos {
      * <b>Manejo de Recursos:</b>
      * Utiliza <i>Try-with-resources</i> para asegurar el cierre automático del flujo (stream),
      * evitando fugas de memoria o bloqueos de archivo.
+     * <br>
+     * <b>Escritura Atómica:</b> El objeto se serializa primero en un archivo temporal ({@code .tmp}) que después
+     * reemplaza al original. Un cierre abrupto a mitad de la escritura nunca deja una instantánea corrupta.
      *
      * @param nombreArchivo Nombre del archivo destino (ej: "usuarios.dat").
      * @param objeto        La instancia a serializar. Debe implementar la interfaz {@link Serializable}.
      * @throws IOException Si ocurre un fallo en el acceso al disco o durante la escritura de bytes.
      */
     public static void guardarObjeto(String nombreArchivo, Object objeto) throws IOException {
-        String rutaCompleta = CARPETA_ARCHIVOS + File.separator + nombreArchivo;
+        Path destino = Paths.get(CARPETA_ARCHIVOS, nombreArchivo);
+        Path temporal = Paths.get(CARPETA_ARCHIVOS, nombreArchivo + ".tmp");
         
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(rutaCompleta))) {
+        try (ObjectOutputStream oos = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(temporal.toFile())))) {
             oos.writeObject(objeto);
         }
+        reemplazarArchivo(temporal, destino);
     }
 
     /**
@@ -99,6 +164,339 @@ public class GestorArchivos {
         }
     }
 
+    /**
+     * Persiste la cartelera en el formato binario compacto de {@link CodecFunciones}.
+     * <p>
+     * Sigue la misma escritura atómica que {@link #guardarObjeto} (archivo temporal y reemplazo).
+     *
+     * @param nombreArchivo Nombre del archivo destino (ej: "funciones/funciones_20250106.dat").
+     * @param funciones     Lista de funciones a persistir.
+     * @throws IOException Si ocurre un fallo en el acceso al disco.
+     */
+    public static void guardarFunciones(String nombreArchivo, List<Funcion> funciones) throws IOException {
+        Path destino = Paths.get(CARPETA_ARCHIVOS, nombreArchivo);
+        Path temporal = Paths.get(CARPETA_ARCHIVOS, nombreArchivo + ".tmp");
+
+        try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporal.toFile())))) {
+            CodecFunciones.escribir(funciones, dos);
+        }
+        reemplazarArchivo(temporal, destino);
+    }
+
+    /**
+     * Recupera la cartelera desde disco, detectando automáticamente su formato.
+     * <p>
+     * <b>Ruta de Migración:</b> Si el archivo inicia con el número mágico de {@link CodecFunciones} se decodifica
+     * en formato compacto; en caso contrario se trata como un archivo anterior de serialización estándar y se
+     * lee con {@link ObjectInputStream}. La siguiente escritura lo dejará en el formato compacto.
+     *
+     * @param nombreArchivo Nombre del archivo fuente.
+     * @return Lista mutable de funciones.
+     * @throws IOException            Si el archivo no existe o es ilegible.
+     * @throws ClassNotFoundException Si un archivo anterior contiene clases incompatibles.
+     */
+    @SuppressWarnings("unchecked")
+    public static List<Funcion> leerFunciones(String nombreArchivo) throws IOException, ClassNotFoundException {
+        String rutaCompleta = CARPETA_ARCHIVOS + File.separator + nombreArchivo;
+
+        try (BufferedInputStream bis = new BufferedInputStream(new FileInputStream(rutaCompleta))) {
+            bis.mark(4);
+            DataInputStream dis = new DataInputStream(bis);
+            boolean compacto = dis.readInt() == CodecFunciones.MAGICO;
+            bis.reset();
+
+            if (compacto) {
+                return CodecFunciones.leer(dis);
+            }
+            try (ObjectInputStream ois = new ObjectInputStream(bis)) {
+                List<Funcion> funciones = (List<Funcion>) ois.readObject();
+                for (Funcion funcion : funciones) {
+                    funcion.asegurarId(); // Las versiones serializadas solo tenían el identificador legible
+                }
+                return funciones;
+            }
+        }
+    }
+
+    /**
+     * Indica si un archivo de cartelera está escrito en la versión actual de {@link CodecFunciones}.
+     * <p>
+     * Las versiones anteriores no guardan el identificador numérico de las funciones; al leerlas se
+     * emiten identificadores nuevos, así que deben reescribirse antes de que la bitácora los referencie.
+     *
+     * @param nombreArchivo Nombre del archivo a revisar.
+     * @return {@code true} si el archivo está en la versión actual.
+     * @throws IOException Si el archivo no se puede leer.
+     */
+    public static boolean funcionesEnVersionActual(String nombreArchivo) throws IOException {
+        String rutaCompleta = CARPETA_ARCHIVOS + File.separator + nombreArchivo;
+        try (DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(rutaCompleta), 16))) {
+            return CodecFunciones.leerVersion(dis) == CodecFunciones.VERSION;
+        } catch (EOFException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Indica si está activo el modo de almacenamiento de asientos mapeado en memoria.
+     * @return {@code true} si la propiedad {@value #PROPIEDAD_ASIENTOS_MAPEADOS} vale {@code true}.
+     */
+    public static boolean usarAsientosMapeados() {
+        return Boolean.getBoolean(PROPIEDAD_ASIENTOS_MAPEADOS);
+    }
+
+    /**
+     * Abre (o crea) un archivo de ocupación de asientos mapeado en memoria.
+     * <p>
+     * En lugar de serializar la ocupación dentro de la cartelera, cada función obtiene una ranura de tamaño fijo
+     * en el archivo y cada venta es una escritura de un bit en el {@link java.nio.MappedByteBuffer}.
+     * Al arrancar, el archivo se mapea y su contenido se aplica directamente a las salas.
+     *
+     * @param nombreArchivo Nombre del archivo (ej. {@value #ARCHIVO_ASIENTOS_MAPEADOS}).
+     * @return Manejador del archivo mapeado; debe cerrarse al terminar la aplicación.
+     * @throws IOException Si el archivo no puede abrirse o tiene un formato desconocido.
+     */
+    public static AsientosMapeados mapearAsientos(String nombreArchivo) throws IOException {
+        return new AsientosMapeados(new File(CARPETA_ARCHIVOS, nombreArchivo));
+    }
+
+    /**
+     * Reemplaza un archivo por su versión temporal recién escrita, de forma atómica cuando el sistema lo permite.
+     *
+     * @param temporal Archivo temporal completo.
+     * @param destino  Archivo definitivo.
+     * @throws IOException Si el reemplazo falla.
+     */
+    private static void reemplazarArchivo(Path temporal, Path destino) throws IOException {
+        try {
+            Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            // Algunos sistemas de archivos no soportan el reemplazo atómico
+            Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Aparta un archivo de datos ilegible renombrándolo con el sufijo {@code .corrupto-<fecha y hora>}.
+     * <p>
+     * Se utiliza al arrancar cuando un archivo no puede deserializarse: en lugar de que la siguiente escritura
+     * lo sobrescriba con una lista vacía, el original se conserva para su revisión o recuperación manual.
+     * </p>
+     *
+     * @param nombreArchivo Archivo relativo a {@link #CARPETA_ARCHIVOS}.
+     * @return Nombre con el que se conservó el archivo, o {@code null} si no pudo renombrarse.
+     */
+    public static String apartarArchivoCorrupto(String nombreArchivo) {
+        String apartado = nombreArchivo + ".corrupto-"
+                + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
+        try {
+            Files.move(Paths.get(CARPETA_ARCHIVOS, nombreArchivo), Paths.get(CARPETA_ARCHIVOS, apartado));
+            return apartado;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // ==========================================
+    // BITÁCORA DE VENTAS (Write-Ahead Journal)
+    // ==========================================
+
+    /**
+     * Agrega al final de la bitácora los asientos vendidos en una transacción.
+     * <p>
+     * Cada registro ocupa {@value #TAM_REGISTRO_BITACORA} bytes (identificador numérico de la función, su fecha,
+     * fila y número), por lo que el costo de una venta ya no depende del tamaño de la cartelera. La escritura se
+     * fuerza a disco ({@code sync}) antes de regresar, de modo que un boleto confirmado sobrevive a un cierre abrupto.
+     * </p>
+     * <b>Orden de Operaciones:</b> El invocador debe marcar los asientos en memoria <i>antes</i> de
+     * registrarlos aquí; así cualquier instantánea tomada por {@link #compactarBitacora} ya los contiene.
+     * Si la escritura falla, la bitácora se recorta a su longitud previa para que un registro a medias no quede
+     * entre los registros completos que se agreguen después.
+     *
+     * @param funcion  Función vendida.
+     * @param asientos Asientos adquiridos en la transacción.
+     * @throws IOException Si falla la escritura en disco.
+     */
+    public static synchronized void registrarVentas(Funcion funcion, List<Asiento> asientos) throws IOException {
+        File archivo = new File(CARPETA_ARCHIVOS, BITACORA_VENTAS);
+        long longitudPrevia = archivo.length();
+        boolean nueva = longitudPrevia == 0;
+        int dia = (int) funcion.getHorario().toLocalDate().toEpochDay();
+
+        try (FileOutputStream fos = new FileOutputStream(archivo, true);
+             DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(fos))) {
+            if (nueva) dos.writeInt(MAGICO_BITACORA);
+            for (Asiento asiento : asientos) {
+                dos.writeLong(funcion.getId());
+                dos.writeInt(dia);
+                dos.writeChar(asiento.getFila());
+                dos.writeInt(asiento.getNumero());
+            }
+            dos.flush();
+            fos.getFD().sync();
+        } catch (IOException e) {
+            // Un registro a medias desalinearía los siguientes: se recorta al último registro completo
+            try {
+                truncarBitacora(archivo, longitudPrevia);
+            } catch (IOException ignorada) {
+                e.addSuppressed(ignorada); // Queda para el recorte del siguiente arranque
+            }
+            throw e;
+        }
+        registrosBitacora += asientos.size();
+    }
+
+    /**
+     * Lee todos los registros pendientes de la bitácora de ventas.
+     * <p>
+     * Se utiliza durante el arranque para reaplicar las ventas posteriores a la última instantánea.
+     * Si el último registro quedó incompleto (cierre abrupto durante la escritura), se descarta y el archivo
+     * se trunca al último registro completo, ya que esa venta nunca fue confirmada al cliente.
+     * </p>
+     * Una bitácora sin el número mágico proviene de una versión anterior (identificadores legibles): se aparta
+     * de inmediato como {@value #BITACORA_ANTERIOR} y {@value #BITACORA_VENTAS} inicia vacía en el formato actual, de
+     * modo que las ventas siguientes se registran aunque la compactación de arranque falle. Los registros apartados
+     * se devuelven primero, como legados ({@link RegistroVenta#esLegado()}), en cada lectura hasta que una
+     * compactación los consolida ({@link #isBitacoraAnterior()}).
+     *
+     * @return Lista de registros en el orden en que fueron escritos (vacía si no hay bitácora).
+     * @throws IOException Si el archivo existe pero no se puede leer.
+     */
+    public static synchronized List<RegistroVenta> leerBitacoraVentas() throws IOException {
+        List<RegistroVenta> registros = new ArrayList<>();
+        File archivo = new File(CARPETA_ARCHIVOS, BITACORA_VENTAS);
+        File anterior = new File(CARPETA_ARCHIVOS, BITACORA_ANTERIOR);
+        registrosBitacora = 0;
+
+        if (archivo.length() >= 4 && !tieneCabeceraActual(archivo)) {
+            if (anterior.exists() || !archivo.renameTo(anterior)) {
+                throw new IOException("No se pudo apartar la bitácora de ventas en el formato anterior.");
+            }
+        }
+        bitacoraAnterior = anterior.exists();
+        if (bitacoraAnterior) registros.addAll(leerRegistrosAnteriores(anterior));
+
+        if (archivo.length() < 4) {
+            if (archivo.exists()) truncarBitacora(archivo, 0); // Ni siquiera la cabecera quedó completa
+            registrosBitacora = registros.size();
+            return registros;
+        }
+
+        int actuales = 0;
+        try (DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(archivo)))) {
+            dis.readInt(); // Cabecera ya verificada
+            while (true) {
+                try {
+                    long idFuncion = dis.readLong();
+                    LocalDate fecha = LocalDate.ofEpochDay(dis.readInt());
+                    char fila = dis.readChar();
+                    int numero = dis.readInt();
+                    registros.add(new RegistroVenta(idFuncion, fecha, fila, numero));
+                    actuales++;
+                } catch (EOFException e) {
+                    break; // Fin de archivo (o registro truncado)
+                }
+            }
+        }
+        long valido = 4 + (long) actuales * TAM_REGISTRO_BITACORA;
+        if (archivo.length() > valido) truncarBitacora(archivo, valido);
+        registrosBitacora = registros.size();
+        return registros;
+    }
+
+    /**
+     * Verifica si una bitácora inicia con el número mágico del formato actual.
+     * @param archivo Bitácora de al menos 4 bytes.
+     * @return {@code true} si está en el formato actual.
+     * @throws IOException Si no se puede leer.
+     */
+    private static boolean tieneCabeceraActual(File archivo) throws IOException {
+        try (DataInputStream dis = new DataInputStream(new FileInputStream(archivo))) {
+            return dis.readInt() == MAGICO_BITACORA;
+        }
+    }
+
+    /**
+     * Lee los registros de una bitácora de versiones anteriores (identificador legible, fila y número).
+     * Un registro final incompleto se ignora; el archivo completo se descarta al compactar.
+     *
+     * @param archivo Bitácora apartada.
+     * @return Registros legados en el orden en que fueron escritos.
+     * @throws IOException Si no se puede leer.
+     */
+    private static List<RegistroVenta> leerRegistrosAnteriores(File archivo) throws IOException {
+        List<RegistroVenta> registros = new ArrayList<>();
+        try (DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(archivo)))) {
+            while (true) {
+                try {
+                    String idLegado = dis.readUTF();
+                    char fila = dis.readChar();
+                    int numero = dis.readInt();
+                    registros.add(new RegistroVenta(idLegado, fila, numero));
+                } catch (EOFException e) {
+                    break;
+                }
+            }
+        }
+        return registros;
+    }
+
+    /**
+     * Indica si quedan registros en el formato anterior (identificadores legibles) sin compactar.
+     * Conviene compactar con {@link #compactarBitacora} en cuanto sea posible; mientras tanto las ventas nuevas
+     * se siguen registrando y los registros apartados se reproducen en cada arranque.
+     * @return {@code true} si la última lectura encontró registros anteriores sin compactar.
+     */
+    public static synchronized boolean isBitacoraAnterior() {
+        return bitacoraAnterior;
+    }
+
+    /**
+     * Consolida la bitácora en una nueva instantánea y la vacía (Snapshot + Compactación).
+     * <p>
+     * Primero persiste la cartelera vigente en sus particiones semanales ({@link ParticionesFunciones#guardar})
+     * y, solo si la escritura tuvo éxito,
+     * reinicia la bitácora (solo la cabecera) y descarta la bitácora anterior apartada. Ambas operaciones se realizan bajo el mismo candado que
+     * {@link #registrarVentas}, por lo que ninguna venta puede perderse entre la instantánea y el truncado.
+     * </p>
+     *
+     * @param funciones Cartelera vigente (lista maestra) a persistir.
+     * @throws IOException Si falla la escritura de la instantánea o el truncado de la bitácora.
+     */
+    public static synchronized void compactarBitacora(List<Funcion> funciones) throws IOException {
+        ParticionesFunciones.guardar(funciones);
+        String rutaCompleta = CARPETA_ARCHIVOS + File.separator + BITACORA_VENTAS;
+        try (DataOutputStream dos = new DataOutputStream(new FileOutputStream(rutaCompleta, false))) {
+            dos.writeInt(MAGICO_BITACORA);
+        }
+        File anterior = new File(CARPETA_ARCHIVOS, BITACORA_ANTERIOR);
+        if (anterior.exists() && !anterior.delete()) {
+            throw new IOException("No se pudo descartar " + BITACORA_ANTERIOR + " tras compactar.");
+        }
+        registrosBitacora = 0;
+        bitacoraAnterior = false;
+    }
+
+    /**
+     * Obtiene la cantidad de registros acumulados desde la última compactación.
+     * @return Número de asientos registrados en la bitácora.
+     */
+    public static synchronized int getRegistrosBitacora() {
+        return registrosBitacora;
+    }
+
+    /**
+     * Recorta la bitácora de ventas a una longitud dada.
+     * @param archivo  Archivo de la bitácora.
+     * @param longitud Nueva longitud en bytes.
+     * @throws IOException Si el archivo no puede modificarse.
+     */
+    private static void truncarBitacora(File archivo, long longitud) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(archivo, "rw")) {
+            raf.setLength(longitud);
+        }
+    }
+
     // ==========================================
     // MÉTODOS PARA TEXTO PLANO (.txt)
     // ==========================================
@@ -121,25 +519,20 @@ public class GestorArchivos {
      * <ul>
      * <li>{@code true}: (Append) Agrega el texto al final del archivo sin borrar lo anterior (útil para logs).</li>
      * <li>{@code false}: (Overwrite) Sobrescribe el archivo completo (útil para tickets nuevos).</li>
-     * <li>Se utiliza {@link BufferedWriter} para optimizar la escritura en búferes.</li>
      * </ul>
+     * La escritura se delega a {@link PoolEscritores}, que mantiene el archivo abierto entre llamadas:
+     * en modo append la línea puede quedar en búfer unos instantes; en modo sobrescritura se escribe de inmediato.
      * @throws IOException Si falla la operación de escritura.
      */
     public static void escribirTexto(String nombreArchivo, String contenido, boolean append) throws IOException {
-        String rutaCompleta = CARPETA_ARCHIVOS + File.separator + nombreArchivo;
-        
-        // FileWriter recibe el flag 'append' en su constructor
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(rutaCompleta, append))) {
-            bw.write(contenido);
-            bw.newLine(); // Garantiza la separación de registros mediante salto de línea del sistema
-        }
+        PoolEscritores.escribir(nombreArchivo, contenido, append);
     }
 
     /**
      * Lee secuencialmente el contenido de un archivo de texto.
      * <p>
      * Carga información línea por línea en memoria. Es utilizado críticamente por el
-     * {@code ControladorDulceria} para leer el catálogo de precios desde {@code PreciosProductos.txt}.
+     * {@code CatalogoPrecios} para leer los precios de dulcería desde {@code PreciosProductos.txt}.
      * </p>
      *
      * @param nombreArchivo Nombre del archivo a leer.
@@ -149,6 +542,7 @@ public class GestorArchivos {
     public static List<String> leerArchivoTexto(String nombreArchivo) throws IOException {
         String rutaCompleta = CARPETA_ARCHIVOS + File.separator + nombreArchivo;
         List<String> lineas = new ArrayList<>();
+        PoolEscritores.vaciar(nombreArchivo); // Hace visibles las líneas aún en búfer
         
         try (BufferedReader br = new BufferedReader(new FileReader(rutaCompleta))) {
             String linea;
@@ -160,6 +554,135 @@ public class GestorArchivos {
         return lineas;
     }
 
+    /**
+     * Abre un archivo de texto como flujo perezoso de líneas.
+     * <p>
+     * A diferencia de {@link #leerArchivoTexto}, las líneas se leen conforme se consumen, por lo que la
+     * memoria no depende del tamaño del archivo. El flujo mantiene el archivo abierto y <b>debe cerrarse</b>
+     * (ej. con {@code try-with-resources}).
+     * </p>
+     *
+     * @param nombreArchivo Nombre del archivo a leer.
+     * @return Flujo de líneas del archivo.
+     * @throws IOException Si el archivo no se encuentra o no se puede abrir.
+     */
+    public static Stream<String> lineasTexto(String nombreArchivo) throws IOException {
+        String rutaCompleta = CARPETA_ARCHIVOS + File.separator + nombreArchivo;
+        PoolEscritores.vaciar(nombreArchivo);
+
+        BufferedReader br = new BufferedReader(new FileReader(rutaCompleta));
+        return br.lines().onClose(() -> {
+            try {
+                br.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Lee una página de líneas a partir de una posición en bytes del archivo.
+     * <p>
+     * La lectura se hace por bloques con {@link FileChannel} desde la posición indicada, sin recorrer lo anterior.
+     * Para recorrer un archivo completo se inicia en 0 y se continúa con
+     * {@link PaginaTexto#getSiguienteDesplazamiento()} mientras {@link PaginaTexto#hayMas()}.
+     * </p>
+     *
+     * @param nombreArchivo  Nombre del archivo a leer.
+     * @param desplazamiento Posición en bytes del inicio de la página (inicio de una línea).
+     * @param maxLineas      Máximo de líneas a devolver.
+     * @return Página con las líneas leídas y la posición de la siguiente.
+     * @throws IOException Si el archivo no se encuentra o no se puede leer.
+     */
+    public static PaginaTexto leerPagina(String nombreArchivo, long desplazamiento, int maxLineas) throws IOException {
+        PoolEscritores.vaciar(nombreArchivo);
+        Charset codificacion = Charset.defaultCharset();
+        List<String> lineas = new ArrayList<>(Math.min(maxLineas, 256));
+
+        try (FileChannel canal = FileChannel.open(rutaDe(nombreArchivo), StandardOpenOption.READ)) {
+            long tamanio = canal.size();
+            long posicion = desplazamiento;      // Siguiente byte a leer del archivo
+            long inicioLinea = desplazamiento;   // Inicio de la línea en construcción
+            ByteArrayOutputStream linea = new ByteArrayOutputStream();
+            ByteBuffer bloque = ByteBuffer.allocate(TAM_BLOQUE_LECTURA);
+
+            while (lineas.size() < maxLineas && posicion < tamanio) {
+                bloque.clear();
+                int leidos = canal.read(bloque, posicion);
+                if (leidos <= 0) break;
+                bloque.flip();
+                while (bloque.hasRemaining() && lineas.size() < maxLineas) {
+                    byte b = bloque.get();
+                    posicion++;
+                    if (b == '\n') {
+                        lineas.add(decodificarLinea(linea, codificacion));
+                        linea.reset();
+                        inicioLinea = posicion;
+                    } else {
+                        linea.write(b);
+                    }
+                }
+                if (lineas.size() >= maxLineas) posicion = inicioLinea; // Descarta lo leído de más
+            }
+            // Última línea sin salto al final del archivo
+            if (lineas.size() < maxLineas && linea.size() > 0) {
+                lineas.add(decodificarLinea(linea, codificacion));
+                inicioLinea = tamanio;
+            }
+            return new PaginaTexto(lineas, inicioLinea, inicioLinea < tamanio);
+        }
+    }
+
+    /**
+     * Lee las últimas líneas de un archivo de texto ("tail").
+     * <p>
+     * Recorre el archivo hacia atrás por bloques con {@link FileChannel} contando saltos de línea, de modo que
+     * el costo depende de las líneas solicitadas y no del tamaño del archivo.
+     * </p>
+     *
+     * @param nombreArchivo Nombre del archivo a leer.
+     * @param cantidad      Número de líneas finales deseadas.
+     * @return Las últimas {@code cantidad} líneas en su orden original (menos si el archivo es más corto).
+     * @throws IOException Si el archivo no se encuentra o no se puede leer.
+     */
+    public static List<String> leerUltimasLineas(String nombreArchivo, int cantidad) throws IOException {
+        PoolEscritores.vaciar(nombreArchivo);
+        long inicio = 0;
+
+        try (FileChannel canal = FileChannel.open(rutaDe(nombreArchivo), StandardOpenOption.READ)) {
+            long fin = canal.size();
+            ByteBuffer bloque = ByteBuffer.allocate(TAM_BLOQUE_LECTURA);
+            int saltos = 0;
+            long posicion = fin;
+            boolean primero = true;
+
+            buscar:
+            while (posicion > 0) {
+                int longitud = (int) Math.min(TAM_BLOQUE_LECTURA, posicion);
+                posicion -= longitud;
+                bloque.clear().limit(longitud);
+                while (bloque.hasRemaining()) {
+                    if (canal.read(bloque, posicion + bloque.position()) < 0) break;
+                }
+                for (int i = longitud - 1; i >= 0; i--) {
+                    if (bloque.get(i) != '\n') {
+                        primero = false;
+                        continue;
+                    }
+                    if (primero) { // Salto final del archivo: no inicia una línea nueva
+                        primero = false;
+                        continue;
+                    }
+                    if (++saltos == cantidad) {
+                        inicio = posicion + i + 1;
+                        break buscar;
+                    }
+                }
+            }
+        }
+        return leerPagina(nombreArchivo, inicio, cantidad).getLineas();
+    }
+
     /**
      * Verifica la existencia física de un archivo en el directorio de la aplicación.
      * <p>
@@ -175,4 +698,26 @@ public class GestorArchivos {
         File archivo = new File(CARPETA_ARCHIVOS + File.separator + nombreArchivo);
         return archivo.exists();
     }
+
+    /**
+     * Construye la ruta de un archivo dentro de la carpeta de la aplicación.
+     * @param nombreArchivo Nombre del archivo.
+     * @return Ruta del archivo.
+     */
+    private static Path rutaDe(String nombreArchivo) {
+        return Paths.get(CARPETA_ARCHIVOS, nombreArchivo);
+    }
+
+    /**
+     * Decodifica los bytes de una línea, descartando el retorno de carro final (archivos con saltos CRLF).
+     * @param linea        Bytes acumulados de la línea.
+     * @param codificacion Codificación de los archivos de texto.
+     * @return Línea decodificada.
+     */
+    private static String decodificarLinea(ByteArrayOutputStream linea, Charset codificacion) {
+        byte[] bytes = linea.toByteArray();
+        int longitud = bytes.length;
+        if (longitud > 0 && bytes[longitud - 1] == '\r') longitud--;
+        return new String(bytes, 0, longitud, codificacion);
+    }
 }
@@ -0,0 +1,111 @@
+package mx.unam.fi.cine.modelo;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Índice compuesto de la cartelera del sistema <b>CineByt</b>: Película → Fecha → Funciones ordenadas por hora.
+ * <p>
+ * Evita que el flujo de compra recorra la lista maestra completa de funciones comparando títulos y fechas
+ * en cada consulta. Con el índice, buscar las funciones de una película en un día cuesta una búsqueda
+ * en un {@link HashMap} más una en un {@link TreeMap} (O(log d), con d = días con funciones).
+ * </p>
+ * <b>Mantenimiento:</b>
+ * <ul>
+ * <li>Se construye a partir de la lista maestra al arrancar ({@code CineByt.cargarDatos}).</li>
+ * <li>Se actualiza con {@link #agregar(Funcion)} en cada alta de función ({@code ControladorAdministrador}).</li>
+ * </ul>
+ * La clave de película es su identificador estable ({@link Pelicula#getId()}), asignado por
+ * {@link CatalogoPeliculas}; así, editar el título de una película no la separa de sus funciones.
+ *
+ * @author Equipo CineByt
+ * @version 1.0
+ * @see mx.unam.fi.cine.modelo.Funcion
+ * @see mx.unam.fi.cine.controlador.ControladorCompra
+ */
+public class IndiceFunciones {
+
+    /** Orden cronológico de las funciones dentro de un mismo día. */
+    private static final Comparator<Funcion> POR_HORARIO = Comparator.comparing(Funcion::getHorario);
+
+    /** Estructura del índice: clave de película → (fecha → funciones ordenadas por hora). */
+    private final Map<Integer, NavigableMap<LocalDate, List<Funcion>>> porPelicula = new HashMap<>();
+
+    /**
+     * Construye el índice a partir de la lista maestra de funciones.
+     * @param funciones Lista maestra (cartelera) cargada en memoria.
+     */
+    public IndiceFunciones(List<Funcion> funciones) {
+        reconstruir(funciones);
+    }
+
+    /**
+     * Descarta el contenido actual y vuelve a indexar todas las funciones.
+     * @param funciones Lista maestra de funciones.
+     */
+    public synchronized void reconstruir(List<Funcion> funciones) {
+        porPelicula.clear();
+        for (Funcion funcion : funciones) {
+            agregar(funcion);
+        }
+    }
+
+    /**
+     * Agrega una función al índice conservando el orden por horario dentro de su día.
+     * @param funcion Función recién dada de alta (o cargada).
+     */
+    public synchronized void agregar(Funcion funcion) {
+        List<Funcion> delDia = porPelicula
+                .computeIfAbsent(clave(funcion.getPelicula()), k -> new TreeMap<>())
+                .computeIfAbsent(funcion.getHorario().toLocalDate(), k -> new ArrayList<>());
+
+        int posicion = Collections.binarySearch(delDia, funcion, POR_HORARIO);
+        delDia.add(posicion < 0 ? -posicion - 1 : posicion, funcion);
+    }
+
+    /**
+     * Obtiene las funciones de una película en una fecha, ordenadas por hora de inicio.
+     *
+     * @param pelicula Película buscada.
+     * @param fecha    Día de la proyección.
+     * @return Copia de la lista de funciones (vacía si no hay ninguna).
+     */
+    public synchronized List<Funcion> buscar(Pelicula pelicula, LocalDate fecha) {
+        NavigableMap<LocalDate, List<Funcion>> porFecha = porPelicula.get(clave(pelicula));
+        if (porFecha == null || !porFecha.containsKey(fecha)) {
+            return Collections.emptyList();
+        }
+        return new ArrayList<>(porFecha.get(fecha));
+    }
+
+    /**
+     * Obtiene, en orden cronológico, los días en que una película tiene funciones a partir de una fecha.
+     *
+     * @param pelicula Película buscada.
+     * @param desde    Primer día a considerar (inclusive).
+     * @return Lista de fechas con al menos una función (vacía si no hay ninguna).
+     */
+    public synchronized List<LocalDate> fechasConFunciones(Pelicula pelicula, LocalDate desde) {
+        NavigableMap<LocalDate, List<Funcion>> porFecha = porPelicula.get(clave(pelicula));
+        if (porFecha == null) {
+            return Collections.emptyList();
+        }
+        return new ArrayList<>(porFecha.tailMap(desde, true).keySet());
+    }
+
+    /**
+     * Calcula la clave de índice de una película.
+     * @param pelicula Película a indexar.
+     * @return Clave de búsqueda.
+     */
+    private static Integer clave(Pelicula pelicula) {
+        return pelicula.getId();
+    }
+}
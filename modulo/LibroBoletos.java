@@ -0,0 +1,287 @@
+package mx.unam.fi.cine.modelo;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Libro único de boletos vendidos del sistema <b>CineByt</b> (registro de solo-agregado con índice en memoria).
+ * <p>
+ * Reemplaza a los archivos individuales {@code tickets_<nick>.txt}. Todos los boletos se agregan a un
+ * solo archivo de texto ({@value #ARCHIVO_LIBRO}) con una línea por boleto en formato
+ * {@code nickname<TAB>texto del boleto}.
+ * </p>
+ * <b>Índice por Cliente:</b>
+ * <ul>
+ * <li>Para cada nickname se guarda la posición (offset) y longitud en bytes de cada uno de sus boletos.</li>
+ * <li>Contar los boletos de un cliente es O(1) ({@link #contarBoletos}); el detalle se obtiene leyendo
+ * solo esos fragmentos del archivo mediante {@link RandomAccessFile} ({@link #leerBoletos}).</li>
+ * <li>El índice se reconstruye con una sola lectura secuencial del libro al abrirlo.</li>
+ * </ul>
+ * <b>Escritura por Lote:</b> Todos los boletos de una compra se agregan con una sola escritura
+ * ({@link #registrar}), en lugar de abrir y cerrar un archivo por cada asiento.
+ * <br>
+ * <b>Migración:</b> Al abrir el libro, los archivos {@code tickets_<nick>.txt} existentes se incorporan
+ * y se renombran con la extensión {@code .migrado}. En la misma escritura que sus boletos se agrega una línea de
+ * marca con nickname vacío ({@code <TAB>tickets_<nick>.txt}); así, si el renombrado falla, el archivo no vuelve a
+ * incorporarse en el siguiente arranque.
+ *
+ * @author Equipo CineByt
+ * @version 1.0
+ * @see mx.unam.fi.cine.controlador.ControladorCompra
+ * @see mx.unam.fi.cine.controlador.ControladorAdministrador
+ */
+public class LibroBoletos {
+
+    /** Nombre del archivo del libro dentro de {@link GestorArchivos#CARPETA_ARCHIVOS}. */
+    public static final String ARCHIVO_LIBRO = "libro_boletos.txt";
+
+    /** Prefijo de los archivos de tickets por cliente de versiones anteriores. */
+    private static final String PREFIJO_LEGADO = "tickets_";
+
+    /** Archivo físico del libro. */
+    private final File archivo;
+
+    /** Índice por nickname con la ubicación de cada boleto dentro del archivo. */
+    private final Map<String, Entradas> indice = new HashMap<>();
+
+    /** Archivos de tickets anteriores ya incorporados al libro (líneas de marca). */
+    private final Set<String> migrados = new HashSet<>();
+
+    /** Tamaño en bytes del contenido válido del libro (posición del siguiente registro). */
+    private long tamanio;
+
+    /**
+     * Abre (o crea) el libro de boletos, reconstruye su índice y migra los archivos de tickets anteriores.
+     * <p>
+     * Si el libro no puede leerse, se informa la advertencia y se continúa con un índice vacío:
+     * las nuevas compras se siguen registrando.
+     * </p>
+     */
+    public LibroBoletos() {
+        this.archivo = new File(GestorArchivos.CARPETA_ARCHIVOS, ARCHIVO_LIBRO);
+        try {
+            reconstruirIndice();
+            migrarArchivosLegados();
+        } catch (IOException e) {
+            System.out.println("Advertencia: No se pudo indexar el libro de boletos: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Agrega los boletos de una compra al libro con una sola escritura y actualiza el índice.
+     *
+     * @param nickname Cliente propietario de los boletos.
+     * @param boletos  Texto de cada boleto (una entrada por asiento).
+     * @throws IOException Si falla la escritura en disco; en ese caso el índice no se modifica.
+     */
+    public synchronized void registrar(String nickname, List<String> boletos) throws IOException {
+        if (boletos.isEmpty()) return;
+        agregar(nickname, boletos, null);
+    }
+
+    /**
+     * Agrega un lote de boletos y, opcionalmente, una línea de marca de migración, con una sola escritura.
+     *
+     * @param nickname Cliente propietario de los boletos.
+     * @param boletos  Texto de cada boleto (puede estar vacía).
+     * @param migrado  Archivo anterior que el lote incorpora, o {@code null}.
+     * @throws IOException Si falla la escritura en disco; en ese caso el índice no se modifica.
+     */
+    private void agregar(String nickname, List<String> boletos, String migrado) throws IOException {
+        String clave = limpiar(nickname);
+        byte[] prefijo = (clave + "\t").getBytes(StandardCharsets.UTF_8);
+        long[] offsets = new long[boletos.size()];
+        int[] longitudes = new int[boletos.size()];
+        ByteArrayOutputStream lote = new ByteArrayOutputStream();
+
+        for (int i = 0; i < boletos.size(); i++) {
+            byte[] texto = limpiar(boletos.get(i)).getBytes(StandardCharsets.UTF_8);
+            lote.write(prefijo);
+            offsets[i] = tamanio + lote.size();
+            longitudes[i] = texto.length;
+            lote.write(texto);
+            lote.write('\n');
+        }
+        if (migrado != null) {
+            lote.write(("\t" + limpiar(migrado) + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+
+        try (FileOutputStream fos = new FileOutputStream(archivo, true)) {
+            lote.writeTo(fos);
+        }
+        tamanio += lote.size();
+
+        Entradas entradas = indice.computeIfAbsent(clave, k -> new Entradas());
+        for (int i = 0; i < offsets.length; i++) {
+            entradas.agregar(offsets[i], longitudes[i]);
+        }
+        if (migrado != null) migrados.add(limpiar(migrado));
+    }
+
+    /**
+     * Obtiene la cantidad de boletos comprados por un cliente.
+     * @param nickname Cliente consultado.
+     * @return Número de boletos (0 si no tiene historial).
+     */
+    public synchronized int contarBoletos(String nickname) {
+        Entradas entradas = indice.get(limpiar(nickname)); // Misma clave con la que se registró
+        return entradas == null ? 0 : entradas.cuenta;
+    }
+
+    /**
+     * Lee el texto de todos los boletos de un cliente, accediendo directamente a sus posiciones en el libro.
+     *
+     * @param nickname Cliente consultado.
+     * @return Boletos en orden de compra (vacía si no tiene historial).
+     * @throws IOException Si falla la lectura del archivo.
+     */
+    public synchronized List<String> leerBoletos(String nickname) throws IOException {
+        return leerBoletos(nickname, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Lee una página de boletos de un cliente.
+     * <p>
+     * Gracias al índice, solo se leen del disco los boletos de la página solicitada, por lo que un historial
+     * extenso puede recorrerse con memoria constante.
+     *
+     * @param nickname Cliente consultado.
+     * @param desde    Posición (base 0) del primer boleto de la página, en orden de compra.
+     * @param cantidad Máximo de boletos a leer.
+     * @return Boletos de la página (vacía si {@code desde} rebasa el historial).
+     * @throws IOException Si falla la lectura del archivo.
+     */
+    public synchronized List<String> leerBoletos(String nickname, int desde, int cantidad) throws IOException {
+        Entradas entradas = indice.get(limpiar(nickname)); // Misma clave con la que se registró
+        if (entradas == null || desde >= entradas.cuenta) return Collections.emptyList();
+
+        int hasta = (int) Math.min(entradas.cuenta, (long) desde + cantidad);
+        List<String> boletos = new ArrayList<>(hasta - desde);
+        try (RandomAccessFile raf = new RandomAccessFile(archivo, "r")) {
+            for (int i = desde; i < hasta; i++) {
+                byte[] texto = new byte[entradas.longitudes[i]];
+                raf.seek(entradas.offsets[i]);
+                raf.readFully(texto);
+                boletos.add(new String(texto, StandardCharsets.UTF_8));
+            }
+        }
+        return boletos;
+    }
+
+    /**
+     * Recorre el libro una sola vez y registra la ubicación de cada boleto y los archivos anteriores ya migrados.
+     * <p>
+     * Si la última línea quedó incompleta (cierre abrupto durante una escritura), se trunca el archivo
+     * al último registro completo para que las siguientes escrituras no se mezclen con ella.
+     *
+     * @throws IOException Si el archivo existe pero no se puede leer.
+     */
+    private void reconstruirIndice() throws IOException {
+        indice.clear();
+        migrados.clear();
+        tamanio = 0;
+        if (!archivo.exists()) return;
+
+        long posicion = 0;
+        try (InputStream in = new BufferedInputStream(new FileInputStream(archivo), 1 << 16)) {
+            ByteArrayOutputStream nick = new ByteArrayOutputStream();
+            ByteArrayOutputStream marca = new ByteArrayOutputStream();
+            long inicioTexto = -1;
+            boolean esMarca = false;
+            int b;
+            while ((b = in.read()) != -1) {
+                if (inicioTexto < 0) {
+                    if (b == '\t') {
+                        inicioTexto = posicion + 1;
+                        esMarca = nick.size() == 0; // Nickname vacío: marca de migración
+                    } else if (b == '\n') nick.reset(); // Línea sin separador: se ignora
+                    else nick.write(b);
+                } else if (b == '\n') {
+                    if (esMarca) {
+                        migrados.add(new String(marca.toByteArray(), StandardCharsets.UTF_8));
+                        marca.reset();
+                    } else {
+                        indice.computeIfAbsent(new String(nick.toByteArray(), StandardCharsets.UTF_8), k -> new Entradas())
+                              .agregar(inicioTexto, (int) (posicion - inicioTexto));
+                    }
+                    nick.reset();
+                    inicioTexto = -1;
+                    tamanio = posicion + 1;
+                } else if (esMarca) {
+                    marca.write(b);
+                }
+                posicion++;
+            }
+        }
+        if (posicion != tamanio) {
+            // Ya con el archivo de lectura cerrado
+            try (RandomAccessFile raf = new RandomAccessFile(archivo, "rw")) {
+                raf.setLength(tamanio);
+            }
+        }
+    }
+
+    /**
+     * Incorpora al libro los archivos {@code tickets_<nick>.txt} de versiones anteriores.
+     * Cada archivo se agrega en un solo lote junto con su marca y después se renombra. Un archivo cuya marca
+     * ya está en el libro (renombrado fallido en un arranque anterior) no se vuelve a agregar: solo se
+     * reintenta el renombrado.
+     *
+     * @throws IOException Si falla la lectura de un archivo anterior o la escritura en el libro.
+     */
+    private void migrarArchivosLegados() throws IOException {
+        File[] legados = new File(GestorArchivos.CARPETA_ARCHIVOS)
+                .listFiles((dir, nombre) -> nombre.startsWith(PREFIJO_LEGADO) && nombre.endsWith(".txt"));
+        if (legados == null) return;
+
+        for (File legado : legados) {
+            String nombre = legado.getName();
+            String nickname = nombre.substring(PREFIJO_LEGADO.length(), nombre.length() - ".txt".length());
+            if (!migrados.contains(limpiar(nombre))) {
+                // Los archivos anteriores se escribieron con FileWriter (codificación por defecto de la plataforma)
+                agregar(nickname, Files.readAllLines(legado.toPath(), Charset.defaultCharset()), nombre);
+            }
+            if (!legado.renameTo(new File(legado.getPath() + ".migrado"))) {
+                System.out.println("Advertencia: No se pudo renombrar " + nombre + " tras migrarlo.");
+            }
+        }
+    }
+
+    /**
+     * Elimina los caracteres que romperían el formato de una línea del libro.
+     * @param texto Texto original.
+     * @return Texto sin tabuladores ni saltos de línea.
+     */
+    private static String limpiar(String texto) {
+        return texto.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+    }
+
+    /**
+     * Ubicaciones de los boletos de un cliente (arreglos paralelos que crecen por duplicación).
+     */
+    private static final class Entradas {
+        long[] offsets = new long[4];
+        int[] longitudes = new int[4];
+        int cuenta;
+
+        void agregar(long offset, int longitud) {
+            if (cuenta == offsets.length) {
+                offsets = Arrays.copyOf(offsets, cuenta * 2);
+                longitudes = Arrays.copyOf(longitudes, cuenta * 2);
+            }
+            offsets[cuenta] = offset;
+            longitudes[cuenta] = longitud;
+            cuenta++;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package mx.unam.fi.cine.modelo;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Fragmento de un archivo de texto leído por páginas en el sistema <b>CineByt</b>.
+ * <p>
+ * Resultado de {@link GestorArchivos#leerPagina}: contiene un número acotado de líneas y la posición
+ * en bytes donde comienza la siguiente página, de modo que un historial de cualquier tamaño puede
+ * recorrerse manteniendo en memoria solo una página a la vez.
+ * </p>
+ *
+ * @author Equipo CineByt
+ * @version 1.0
+ * @see mx.unam.fi.cine.modelo.GestorArchivos#leerPagina(String, long, int)
+ */
+public class PaginaTexto {
+
+    /** Líneas de la página, sin salto de línea. */
+    private final List<String> lineas;
+
+    /** Posición en bytes donde inicia la siguiente página. */
+    private final long siguienteDesplazamiento;
+
+    /** Indica si el archivo contiene más líneas después de esta página. */
+    private final boolean hayMas;
+
+    /**
+     * Constructor de la página.
+     *
+     * @param lineas                  Líneas leídas.
+     * @param siguienteDesplazamiento Posición de la siguiente página.
+     * @param hayMas                  {@code true} si quedan líneas por leer.
+     */
+    public PaginaTexto(List<String> lineas, long siguienteDesplazamiento, boolean hayMas) {
+        this.lineas = Collections.unmodifiableList(lineas);
+        this.siguienteDesplazamiento = siguienteDesplazamiento;
+        this.hayMas = hayMas;
+    }
+
+    /**
+     * Obtiene las líneas de la página.
+     * @return Lista inmutable de líneas.
+     */
+    public List<String> getLineas() {
+        return lineas;
+    }
+
+    /**
+     * Obtiene la posición donde inicia la siguiente página.
+     * @return Desplazamiento en bytes.
+     */
+    public long getSiguienteDesplazamiento() {
+        return siguienteDesplazamiento;
+    }
+
+    /**
+     * Indica si quedan líneas por leer.
+     * @return {@code true} si existe una página siguiente.
+     */
+    public boolean hayMas() {
+        return hayMas;
+    }
+}
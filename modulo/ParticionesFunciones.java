@@ -0,0 +1,421 @@
+package mx.unam.fi.cine.modelo;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Almacenamiento de la cartelera particionado por semana para el sistema <b>CineByt</b>.
+ * <p>
+ * En lugar de un único {@code funciones.dat} con todas las funciones de la historia del cine, cada semana
+ * (de lunes a domingo) se guarda en su propio archivo {@code funciones/funciones_AAAAMMDD.dat}, nombrado
+ * por la fecha de su lunes y codificado con {@link CodecFunciones}.
+ * </p>
+ * <b>Carga Diferida:</b>
+ * <ul>
+ * <li><b>Vigentes:</b> Al arrancar solo se cargan la semana actual y las futuras ({@link #cargarVigentes}).
+ * El tiempo de arranque y la memoria ya no crecen con el archivo histórico.</li>
+ * <li><b>Archivadas:</b> Las semanas anteriores se leen bajo demanda ({@link #cargarArchivadas}) para
+ * reportes o historial, y se conservan en un caché. Una vez registrado el catálogo ({@link #usarCatalogo}),
+ * sus funciones se resuelven contra {@link CatalogoPeliculas} como las vigentes, y la partición que aún tenía
+ * películas sin identificador se vuelve a guardar con el del catálogo.</li>
+ * </ul>
+ * <b>Escritura:</b> {@link #guardar(List)} agrupa la lista maestra por semana y reescribe únicamente esas
+ * particiones. Como la lista maestra contiene completas todas las semanas vigentes, nunca se sobrescribe
+ * una partición con información parcial.
+ * <br>
+ * <b>Migración:</b> Si existe un {@code funciones.dat} anterior, se reparte en particiones y se renombra
+ * a {@code funciones.dat.migrado} (o se borra si no puede renombrarse). La migración se ejecuta <b>una sola vez</b>:
+ * si el archivo tampoco puede borrarse, se deja la marca {@value #MARCA_MIGRACION} y los arranques posteriores
+ * ignoran el archivo anterior. Repetirla sobrescribiría las particiones con las ventas compactadas desde entonces
+ * y, para archivos sin identificadores numéricos, emitiría identificadores nuevos que dejarían huérfanos los
+ * registros de la bitácora.
+ * <br>
+ * La migración ocurre antes de que exista el catálogo de películas: las semanas archivadas que reparte se
+ * conservan en caché y se reescriben con el identificador del catálogo en cuanto se registra ({@link #usarCatalogo}).
+ *
+ * @author Equipo CineByt
+ * @version 1.0
+ * @see mx.unam.fi.cine.modelo.GestorArchivos#guardarFunciones
+ * @see mx.unam.fi.cine.modelo.CodecFunciones
+ */
+public class ParticionesFunciones {
+
+    /** Subcarpeta de {@link GestorArchivos#CARPETA_ARCHIVOS} que contiene las particiones. */
+    public static final String CARPETA_PARTICIONES = "funciones";
+
+    /** Archivo único de versiones anteriores. */
+    private static final String ARCHIVO_LEGADO = "funciones.dat";
+
+    /** Marca (dentro de {@link #CARPETA_PARTICIONES}) de que el archivo anterior ya se particionó. */
+    private static final String MARCA_MIGRACION = "migracion.completa";
+
+    /** Prefijo del nombre de cada partición. */
+    private static final String PREFIJO = "funciones_";
+
+    /** Formato de la fecha (lunes) en el nombre de la partición. */
+    private static final DateTimeFormatter FORMATO_PARTICION = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    /** Primera partición cargada en la lista maestra; las anteriores se consideran archivadas. */
+    private static LocalDate horizonte = LocalDate.MIN;
+
+    /** Caché de particiones archivadas ya leídas (lunes → funciones). */
+    private static final Map<LocalDate, List<Funcion>> archivadas = new HashMap<>();
+
+    /** Catálogo contra el que se resuelven las particiones archivadas; {@code null} hasta {@link #usarCatalogo}. */
+    private static CatalogoPeliculas catalogo;
+
+    /*
+     * Bloque de inicialización estática.
+     * Garantiza la existencia de la subcarpeta de particiones.
+     */
+    static {
+        File carpeta = new File(GestorArchivos.CARPETA_ARCHIVOS, CARPETA_PARTICIONES);
+        if (!carpeta.exists() && !carpeta.mkdirs()) {
+            System.err.println("ERROR CRÍTICO: No se pudo crear el directorio de particiones de funciones.");
+        }
+    }
+
+    /**
+     * Clase utilitaria: no se instancia.
+     */
+    private ParticionesFunciones() {}
+
+    /**
+     * Calcula la partición (lunes de la semana) a la que pertenece una fecha.
+     * @param fecha Fecha de una función.
+     * @return Lunes de esa semana.
+     */
+    public static LocalDate particionDe(LocalDate fecha) {
+        return fecha.with(DayOfWeek.MONDAY);
+    }
+
+    /**
+     * Carga las funciones de la semana actual y de las semanas futuras.
+     * <p>
+     * Si encuentra un {@code funciones.dat} anterior, primero lo reparte en particiones (migración única).
+     * <br>
+     * Las particiones en una versión anterior del formato se reescriben al cargarse (identificadores numéricos).
+     * <br>
+     * <b>Aislamiento de Fallos:</b> Una partición ilegible (o un archivo anterior ilegible) no impide cargar
+     * las demás: se aparta con {@link GestorArchivos#apartarArchivoCorrupto} para que no sea sobrescrita,
+     * se informa la advertencia y se continúa con el resto de la cartelera.
+     * <br>
+     * Un error al <i>escribir</i> las particiones durante la migración (ej. disco lleno) no es corrupción: el
+     * archivo anterior se deja en su lugar, intacto, para reintentar en el siguiente arranque, y el error se propaga.
+     *
+     * @param hoy Fecha actual.
+     * @return Lista mutable con las funciones vigentes (lista maestra de la aplicación).
+     * @throws IOException Si no es posible enumerar las particiones o falla la escritura de la migración.
+     */
+    public static synchronized List<Funcion> cargarVigentes(LocalDate hoy) throws IOException {
+        horizonte = particionDe(hoy);
+        archivadas.clear();
+
+        if (GestorArchivos.existeArchivo(ARCHIVO_LEGADO) && archivoMarca().exists()) {
+            retirarArchivoLegado(); // Ya particionado en un arranque anterior: nunca se vuelve a repartir
+        } else if (GestorArchivos.existeArchivo(ARCHIVO_LEGADO)) {
+            List<Funcion> todas = null;
+            try {
+                todas = GestorArchivos.leerFunciones(ARCHIVO_LEGADO);
+            } catch (IOException | ClassNotFoundException | RuntimeException e) {
+                reportarIlegible(ARCHIVO_LEGADO, e); // Solo un archivo ilegible se aparta
+            }
+            if (todas != null) return migrarArchivoLegado(todas);
+        }
+
+        List<Funcion> vigentes = new ArrayList<>();
+        for (LocalDate particion : particionesEnDisco().tailSet(horizonte, true)) {
+            String nombre = nombreArchivo(particion);
+            try {
+                boolean actual = GestorArchivos.funcionesEnVersionActual(nombre);
+                List<Funcion> leidas = GestorArchivos.leerFunciones(nombre);
+                if (!actual) {
+                    // Fija de inmediato los identificadores numéricos recién emitidos, antes de que la bitácora los use
+                    GestorArchivos.guardarFunciones(nombre, leidas);
+                }
+                vigentes.addAll(leidas);
+            } catch (IOException | ClassNotFoundException | RuntimeException e) {
+                reportarIlegible(nombre, e);
+            }
+        }
+        return vigentes;
+    }
+
+    /**
+     * Obtiene (bajo demanda) las funciones archivadas de un rango de fechas anteriores a la semana actual.
+     * Las particiones leídas se conservan en caché para consultas posteriores.
+     *
+     * @param desde Primer día del rango (inclusive).
+     * @param hasta Último día del rango (inclusive).
+     * @return Funciones archivadas que inician dentro del rango.
+     * @throws IOException Si alguna partición es ilegible.
+     */
+    public static synchronized List<Funcion> cargarArchivadas(LocalDate desde, LocalDate hasta) throws IOException {
+        List<Funcion> resultado = new ArrayList<>();
+        if (desde.isAfter(hasta)) return resultado;
+        for (LocalDate particion : particionesEnDisco().subSet(particionDe(desde), true, particionDe(hasta), true)) {
+            if (!particion.isBefore(horizonte)) break;
+            for (Funcion funcion : particionArchivada(particion)) {
+                LocalDate fecha = funcion.getHorario().toLocalDate();
+                if (!fecha.isBefore(desde) && !fecha.isAfter(hasta)) resultado.add(funcion);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Registra el catálogo de películas contra el que se resuelven las particiones archivadas.
+     * <p>
+     * Las particiones que ya están en caché (repartidas por la migración o leídas al reaplicar la bitácora,
+     * ambas antes de que existiera el catálogo) se resuelven de inmediato; las que aún tenían películas sin
+     * identificador se vuelven a guardar. Las que se lean después se resuelven al cargarse.
+     *
+     * @param catalogoPeliculas Catálogo ya construido sobre la lista maestra de películas.
+     * @throws IOException Si falla la escritura de alguna partición.
+     */
+    public static synchronized void usarCatalogo(CatalogoPeliculas catalogoPeliculas) throws IOException {
+        catalogo = catalogoPeliculas;
+        for (Map.Entry<LocalDate, List<Funcion>> particion : archivadas.entrySet()) {
+            resolverArchivada(particion.getKey(), particion.getValue());
+        }
+    }
+
+    /**
+     * Persiste la lista maestra reescribiendo únicamente las particiones que contiene.
+     *
+     * @param funciones Lista maestra de funciones vigentes.
+     * @throws IOException Si falla la escritura de alguna partición.
+     */
+    public static synchronized void guardar(List<Funcion> funciones) throws IOException {
+        for (Map.Entry<LocalDate, List<Funcion>> particion : agrupar(funciones).entrySet()) {
+            GestorArchivos.guardarFunciones(nombreArchivo(particion.getKey()), particion.getValue());
+        }
+    }
+
+    /**
+     * Aplica registros de la bitácora de ventas que corresponden a funciones archivadas (no cargadas).
+     * <p>
+     * La semana se deduce de la fecha de la función guardada en cada registro ({@link RegistroVenta#getFecha()}).
+     * Cada partición afectada se carga, se actualiza y se vuelve a guardar, de modo que la compactación
+     * posterior de la bitácora no pierda esas ventas.
+     *
+     * @param ventas Registros cuya función no está en la lista maestra.
+     * @return Número de registros aplicados.
+     * @throws IOException Si falla la lectura o escritura de alguna partición.
+     */
+    public static synchronized int aplicarVentasArchivadas(List<RegistroVenta> ventas) throws IOException {
+        Map<LocalDate, Map<Long, Funcion>> porParticion = new HashMap<>();
+        List<LocalDate> modificadas = new ArrayList<>();
+        int aplicadas = 0;
+
+        for (RegistroVenta venta : ventas) {
+            LocalDate fecha = venta.getFecha();
+            if (fecha == null || !particionDe(fecha).isBefore(horizonte)) continue;
+
+            LocalDate particion = particionDe(fecha);
+            Map<Long, Funcion> funcionesPorId = porParticion.get(particion);
+            if (funcionesPorId == null) {
+                funcionesPorId = new HashMap<>();
+                for (Funcion funcion : particionArchivada(particion)) {
+                    funcionesPorId.put(funcion.getId(), funcion);
+                }
+                porParticion.put(particion, funcionesPorId);
+            }
+
+            Funcion funcion = venta.esLegado()
+                    ? buscarPorIdLegado(funcionesPorId, venta.getIdLegado())
+                    : funcionesPorId.get(venta.getIdFuncion());
+            if (funcion == null) continue;
+            Asiento asiento = funcion.getSala().buscarAsiento(venta.getFila(), venta.getNumero());
+            if (asiento != null && !asiento.isVendido()) {
+                asiento.setOcupado(true);
+                if (!modificadas.contains(particion)) modificadas.add(particion);
+                aplicadas++;
+            }
+        }
+
+        for (LocalDate particion : modificadas) {
+            GestorArchivos.guardarFunciones(nombreArchivo(particion), archivadas.get(particion));
+        }
+        return aplicadas;
+    }
+
+    /**
+     * Busca una función por su identificador legible (registros de bitácoras anteriores).
+     * @param funcionesPorId Funciones de la partición.
+     * @param idLegado       Identificador legible buscado.
+     * @return La función, o {@code null} si no está en la partición.
+     */
+    private static Funcion buscarPorIdLegado(Map<Long, Funcion> funcionesPorId, String idLegado) {
+        for (Funcion funcion : funcionesPorId.values()) {
+            if (funcion.getIdFuncion().equals(idLegado)) return funcion;
+        }
+        return null;
+    }
+
+    /**
+     * Reparte el archivo único anterior en particiones semanales y lo retira ({@link #retirarArchivoLegado}).
+     * @param todas Funciones leídas del archivo anterior.
+     * @return Funciones vigentes del archivo anterior.
+     * @throws IOException Si falla la escritura; el archivo anterior se conserva.
+     */
+    private static List<Funcion> migrarArchivoLegado(List<Funcion> todas) throws IOException {
+        try {
+            guardar(todas);
+        } catch (IOException e) {
+            throw new IOException("No se pudo particionar " + ARCHIVO_LEGADO + " (se conserva para reintentar): " + e.getMessage(), e);
+        }
+        retirarArchivoLegado();
+
+        List<Funcion> vigentes = new ArrayList<>();
+        for (Map.Entry<LocalDate, List<Funcion>> particion : agrupar(todas).entrySet()) {
+            if (particion.getKey().isBefore(horizonte)) {
+                archivadas.put(particion.getKey(), particion.getValue()); // Pendiente de resolver (usarCatalogo)
+            } else {
+                vigentes.addAll(particion.getValue());
+            }
+        }
+        return vigentes;
+    }
+
+    /**
+     * Retira el archivo anterior ya particionado para que la migración no se repita: lo renombra a
+     * {@code funciones.dat.migrado}, o lo borra si no puede renombrarse. Si tampoco puede borrarse, deja la
+     * marca {@value #MARCA_MIGRACION}, que hace que los arranques siguientes lo ignoren.
+     *
+     * @throws IOException Si el archivo no pudo retirarse ni marcarse como migrado.
+     */
+    private static void retirarArchivoLegado() throws IOException {
+        File legado = new File(GestorArchivos.CARPETA_ARCHIVOS, ARCHIVO_LEGADO);
+        if (legado.renameTo(new File(legado.getPath() + ".migrado")) || legado.delete()) {
+            archivoMarca().delete(); // Ya no hace falta: el archivo anterior no está
+            return;
+        }
+        File marca = archivoMarca();
+        if (!marca.exists() && !marca.createNewFile()) {
+            throw new IOException("No se pudo retirar " + ARCHIVO_LEGADO + " ni marcarlo como migrado");
+        }
+        System.out.println("Advertencia: No se pudo retirar " + ARCHIVO_LEGADO + " tras particionarlo; se ignorará en adelante.");
+    }
+
+    /**
+     * Obtiene el archivo de marca de migración completa.
+     * @return Archivo {@value #MARCA_MIGRACION} dentro de la carpeta de particiones.
+     */
+    private static File archivoMarca() {
+        return new File(new File(GestorArchivos.CARPETA_ARCHIVOS, CARPETA_PARTICIONES), MARCA_MIGRACION);
+    }
+
+    /**
+     * Aparta un archivo de funciones ilegible e informa la advertencia.
+     * @param nombre Archivo relativo a {@link GestorArchivos#CARPETA_ARCHIVOS}.
+     * @param causa  Error de lectura.
+     */
+    private static void reportarIlegible(String nombre, Exception causa) {
+        String apartado = GestorArchivos.apartarArchivoCorrupto(nombre);
+        System.out.println("Advertencia: " + nombre + " es ilegible (" + causa + "); "
+                + (apartado != null ? "se conservó como " + apartado : "no se pudo apartar") + ".");
+    }
+
+    /**
+     * Obtiene una partición archivada, leyéndola de disco la primera vez.
+     * @param particion Lunes de la semana.
+     * @return Funciones de esa semana (vacía si no existe el archivo).
+     * @throws IOException Si el archivo es ilegible.
+     */
+    private static List<Funcion> particionArchivada(LocalDate particion) throws IOException {
+        List<Funcion> funciones = archivadas.get(particion);
+        if (funciones == null) {
+            String nombre = nombreArchivo(particion);
+            try {
+                funciones = GestorArchivos.existeArchivo(nombre) ? GestorArchivos.leerFunciones(nombre) : new ArrayList<>();
+            } catch (ClassNotFoundException e) {
+                throw new IOException("Partición incompatible: " + nombre, e);
+            }
+            archivadas.put(particion, funciones);
+            if (catalogo != null) resolverArchivada(particion, funciones);
+        }
+        return funciones;
+    }
+
+    /**
+     * Enlaza las funciones de una partición archivada con las películas del catálogo registrado. Si alguna
+     * película carecía de identificador (datos migrados), la partición se vuelve a guardar para que en disco
+     * quede la referencia al catálogo; si hubo que recuperar películas ausentes, se programa {@code peliculas.dat}.
+     *
+     * @param particion Lunes de la semana.
+     * @param funciones Funciones de esa semana.
+     * @throws IOException Si falla la escritura de la partición.
+     */
+    private static void resolverArchivada(LocalDate particion, List<Funcion> funciones) throws IOException {
+        if (catalogo == null) return;
+        boolean sinIdentificador = false;
+        for (Funcion funcion : funciones) {
+            if (funcion.getPelicula().getId() == 0) sinIdentificador = true;
+        }
+        List<Pelicula> peliculas = catalogo.getPeliculas();
+        int registradas;
+        synchronized (peliculas) {
+            registradas = peliculas.size();
+        }
+        catalogo.resolver(funciones);
+        boolean recuperadas;
+        synchronized (peliculas) {
+            recuperadas = peliculas.size() != registradas;
+        }
+        if (recuperadas) PersistenciaDiferida.programarLista("peliculas.dat", peliculas);
+        if (sinIdentificador) GestorArchivos.guardarFunciones(nombreArchivo(particion), funciones);
+    }
+
+    /**
+     * Agrupa funciones por partición semanal.
+     * @param funciones Funciones a agrupar.
+     * @return Mapa ordenado lunes → funciones.
+     */
+    private static Map<LocalDate, List<Funcion>> agrupar(List<Funcion> funciones) {
+        Map<LocalDate, List<Funcion>> grupos = new TreeMap<>();
+        for (Funcion funcion : funciones) {
+            grupos.computeIfAbsent(particionDe(funcion.getHorario().toLocalDate()), k -> new ArrayList<>()).add(funcion);
+        }
+        return grupos;
+    }
+
+    /**
+     * Enumera las particiones existentes en disco.
+     * @return Conjunto ordenado de lunes con archivo de partición.
+     */
+    private static TreeSet<LocalDate> particionesEnDisco() {
+        TreeSet<LocalDate> particiones = new TreeSet<>();
+        String[] nombres = new File(GestorArchivos.CARPETA_ARCHIVOS, CARPETA_PARTICIONES).list();
+        if (nombres == null) return particiones;
+
+        for (String nombre : nombres) {
+            if (!nombre.startsWith(PREFIJO) || !nombre.endsWith(".dat")) continue;
+            try {
+                particiones.add(LocalDate.parse(nombre.substring(PREFIJO.length(), nombre.length() - 4), FORMATO_PARTICION));
+            } catch (DateTimeParseException e) {
+                // Archivo ajeno a las particiones: se ignora
+            }
+        }
+        return particiones;
+    }
+
+    /**
+     * Construye la ruta (relativa a {@link GestorArchivos#CARPETA_ARCHIVOS}) de una partición.
+     * @param particion Lunes de la semana.
+     * @return Ruta relativa del archivo.
+     */
+    private static String nombreArchivo(LocalDate particion) {
+        return CARPETA_PARTICIONES + File.separator + PREFIJO + particion.format(FORMATO_PARTICION) + ".dat";
+    }
+}
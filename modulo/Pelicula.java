@@ -30,6 +30,15 @@ public class Pelicula implements Serializable {
      */
     private static final long serialVersionUID = 1L;
 
+    /**
+     * Identificador estable de la película dentro del catálogo ({@code 0} = aún sin asignar).
+     * <p>
+     * Lo asigna {@link CatalogoPeliculas} al registrar la película y no cambia aunque se edite el título.
+     * Las funciones persistidas referencian a su película por este valor, de modo que al cargar se
+     * resuelven a la misma instancia del catálogo.
+     */
+    private int id;
+
     /**
      * Título oficial de la película.
      * Se utiliza como identificador visual principal en los menús y reportes.
@@ -78,6 +87,18 @@ public class Pelicula implements Serializable {
     // Métodos de Acceso (Getters y Setters)
     // ----------------------------------------------------------------------------------
 
+    /**
+     * Obtiene el identificador estable de la película.
+     * @return El identificador, o {@code 0} si la película no ha sido registrada en el catálogo.
+     */
+    public int getId() { return id; }
+
+    /**
+     * Asigna el identificador estable. Solo lo invocan {@link CatalogoPeliculas} y {@link CodecFunciones}.
+     * @param id Identificador asignado.
+     */
+    void asignarId(int id) { this.id = id; }
+
     /**
      * Obtiene el título de la película.
      * @return El título como cadena de caracteres.
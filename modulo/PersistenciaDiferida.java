@@ -0,0 +1,198 @@
+package mx.unam.fi.cine.modelo;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Persistencia asíncrona con escritura diferida (<i>write-behind</i>) para el sistema <b>CineByt</b>.
+ * <p>
+ * Las operaciones administrativas y de registro ya no reescriben los archivos {@code .dat} en el hilo de la
+ * consola. En su lugar marcan el archivo como pendiente y regresan de inmediato; un hilo <i>daemon</i>
+ * realiza la escritura más tarde.
+ * </p>
+ * <b>Coalescencia:</b>
+ * <ul>
+ * <li>Se guarda como máximo una escritura pendiente por archivo. Si el archivo se marca varias veces antes de
+ * escribirse, solo se escribe una vez con el estado más reciente.</li>
+ * <li>Cada archivo se escribe como máximo una vez por intervalo (propiedad {@value #PROPIEDAD_INTERVALO},
+ * 2000 ms por defecto).</li>
+ * <li>La copia de cada lista maestra se toma al momento de escribir, sincronizando sobre la propia lista;
+ * quien modifique una lista maestra debe hacerlo dentro de {@code synchronized (lista)}.</li>
+ * </ul>
+ * <b>Garantías de Durabilidad por Operación:</b>
+ * <ul>
+ * <li><b>Venta de boletos:</b> Durable al regresar (la bitácora de ventas se sincroniza con {@code fsync}).
+ * Solo la compactación de la cartelera es diferida.</li>
+ * <li><b>Alta de película o función, registro de cliente o empleado:</b> Durable a más tardar un intervalo después,
+ * o al cerrar la aplicación (salida normal o gancho de apagado). Un cierre abrupto dentro del intervalo
+ * pierde esos cambios.</li>
+ * <li><b>Libro de boletos y archivos de texto:</b> Se escriben de forma síncrona, sin {@code fsync}.</li>
+ * </ul>
+ *
+ * @author Equipo CineByt
+ * @version 1.0
+ * @see mx.unam.fi.cine.modelo.GestorArchivos
+ */
+public class PersistenciaDiferida {
+
+    /** Propiedad del sistema con el intervalo mínimo entre escrituras, en milisegundos. */
+    public static final String PROPIEDAD_INTERVALO = "cinebyt.intervaloPersistenciaMs";
+
+    /** Clave de la escritura pendiente de la cartelera (particiones y compactación de la bitácora). */
+    public static final String CLAVE_FUNCIONES = "funciones";
+
+    /** Intervalo entre escrituras. */
+    private static final long INTERVALO_MS = Long.getLong(PROPIEDAD_INTERVALO, 2000);
+
+    /** Escritura pendiente por archivo (la más reciente reemplaza a la anterior). */
+    private static final ConcurrentHashMap<String, AccionPersistencia> PENDIENTES = new ConcurrentHashMap<>();
+
+    /** Indica si ya hay un vaciado programado. */
+    private static final AtomicBoolean PROGRAMADO = new AtomicBoolean();
+
+    /** Solicitudes de escritura recibidas (métrica). */
+    private static final AtomicLong SOLICITUDES = new AtomicLong();
+
+    /** Escrituras realmente realizadas (métrica). */
+    private static final AtomicLong ESCRITURAS = new AtomicLong();
+
+    /** Hilo que realiza las escrituras diferidas. */
+    private static final ScheduledThreadPoolExecutor ESCRITOR;
+
+    /*
+     * Bloque de inicialización estática.
+     * Crea el hilo escritor como daemon y registra el vaciado final al apagar la JVM.
+     */
+    static {
+        ESCRITOR = new ScheduledThreadPoolExecutor(1, tarea -> {
+            Thread hilo = new Thread(tarea, "persistencia-diferida");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        Runtime.getRuntime().addShutdownHook(new Thread(PersistenciaDiferida::vaciar, "vaciado-persistencia"));
+    }
+
+    /**
+     * Operación de escritura diferida.
+     */
+    @FunctionalInterface
+    public interface AccionPersistencia {
+        /**
+         * Realiza la escritura en disco.
+         * @throws IOException Si falla la escritura.
+         */
+        void ejecutar() throws IOException;
+    }
+
+    /**
+     * Clase utilitaria: no se instancia.
+     */
+    private PersistenciaDiferida() {}
+
+    /**
+     * Programa la escritura de un archivo y regresa de inmediato.
+     * Si ya había una escritura pendiente para el mismo archivo, se reemplaza.
+     *
+     * @param archivo Clave del archivo (ej. "usuarios.dat").
+     * @param accion  Escritura a realizar.
+     */
+    public static void programar(String archivo, AccionPersistencia accion) {
+        SOLICITUDES.incrementAndGet();
+        PENDIENTES.put(archivo, accion);
+        programarVaciado();
+    }
+
+    /**
+     * Programa la serialización de una lista maestra completa en un archivo {@code .dat}.
+     * La copia de la lista se toma al escribir, sincronizando sobre la lista.
+     *
+     * @param nombreArchivo Archivo destino.
+     * @param lista         Lista maestra.
+     */
+    public static void programarLista(String nombreArchivo, List<?> lista) {
+        programar(nombreArchivo, () -> GestorArchivos.guardarObjeto(nombreArchivo, copiar(lista)));
+    }
+
+    /**
+     * Programa la instantánea de la cartelera vigente y la compactación de la bitácora de ventas.
+     * La bitácora solo se vacía después de escribir la instantánea, por lo que diferirla no pone en riesgo ventas.
+     *
+     * @param funciones Lista maestra de funciones.
+     */
+    public static void programarFunciones(List<Funcion> funciones) {
+        programar(CLAVE_FUNCIONES, () -> GestorArchivos.compactarBitacora(copiar(funciones)));
+    }
+
+    /**
+     * Escribe de inmediato todos los archivos pendientes, en el hilo que llama.
+     * Se invoca al cerrar la aplicación y desde el gancho de apagado.
+     */
+    public static synchronized void vaciar() {
+        for (String archivo : new ArrayList<>(PENDIENTES.keySet())) {
+            AccionPersistencia accion = PENDIENTES.remove(archivo);
+            if (accion == null) continue;
+            try {
+                accion.ejecutar();
+                ESCRITURAS.incrementAndGet();
+            } catch (IOException e) {
+                System.out.println("Error crítico al guardar " + archivo + ": " + e.getMessage());
+                PENDIENTES.putIfAbsent(archivo, accion); // Se reintenta en el siguiente vaciado
+            }
+        }
+    }
+
+    /**
+     * Obtiene la cantidad de archivos con escritura pendiente.
+     * @return Número de archivos pendientes.
+     */
+    public static int getPendientes() {
+        return PENDIENTES.size();
+    }
+
+    /**
+     * Obtiene la cantidad de solicitudes de escritura recibidas.
+     * @return Total de solicitudes.
+     */
+    public static long getSolicitudes() {
+        return SOLICITUDES.get();
+    }
+
+    /**
+     * Obtiene la cantidad de escrituras realizadas (menor o igual a las solicitudes gracias a la coalescencia).
+     * @return Total de escrituras.
+     */
+    public static long getEscrituras() {
+        return ESCRITURAS.get();
+    }
+
+    /**
+     * Programa un vaciado dentro de un intervalo, si no hay uno programado ya.
+     */
+    private static void programarVaciado() {
+        if (PROGRAMADO.compareAndSet(false, true)) {
+            ESCRITOR.schedule(() -> {
+                PROGRAMADO.set(false);
+                vaciar();
+                if (!PENDIENTES.isEmpty()) programarVaciado(); // Reintentos de escrituras fallidas
+            }, INTERVALO_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Copia una lista maestra sincronizando sobre ella.
+     * @param lista Lista a copiar.
+     * @param <T>   Tipo de elemento.
+     * @return Copia independiente de la lista.
+     */
+    private static <T> List<T> copiar(List<T> lista) {
+        synchronized (lista) {
+            return new ArrayList<>(lista);
+        }
+    }
+}
@@ -0,0 +1,411 @@
+package mx.unam.fi.cine.modelo;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool acotado de canales de escritura abiertos para los archivos de texto del sistema <b>CineByt</b>.
+ * <p>
+ * Sustituye el patrón "abrir, escribir una línea y cerrar" de {@link GestorArchivos#escribirTexto} por
+ * {@link FileChannel}s que permanecen abiertos entre llamadas, indexados por nombre de archivo.
+ * </p>
+ * <b>Características:</b>
+ * <ul>
+ * <li><b>LRU Acotado:</b> Como máximo {@value #MAX_ABIERTOS_DEFECTO} canales abiertos (propiedad
+ * {@value #PROPIEDAD_MAX_ABIERTOS}); al rebasar el límite se vacía y cierra el menos usado recientemente.</li>
+ * <li><b>Serialización por Archivo:</b> Cada archivo tiene su propio candado, por lo que los hilos de
+ * {@code PreparacionDulceria} que escriben al mismo historial no intercalan sus registros, y los que
+ * escriben a archivos distintos no se bloquean entre sí.</li>
+ * <li><b>Agregado con Búfer:</b> Las líneas en modo {@code append} se acumulan en memoria y se escriben al
+ * reunir {@value #LINEAS_POR_VACIADO_DEFECTO} líneas (propiedad {@value #PROPIEDAD_LINEAS_POR_VACIADO}) o tras
+ * {@value #INACTIVIDAD_MS_DEFECTO} ms sin escrituras (propiedad {@value #PROPIEDAD_INACTIVIDAD}).</li>
+ * <li><b>Sobrescritura Inmediata:</b> En modo sobrescritura ({@code append = false}) el archivo se trunca
+ * y se escribe en ese momento, descartando lo pendiente.</li>
+ * <li><b>Lectura Consistente:</b> {@link GestorArchivos#leerArchivoTexto} invoca {@link #vaciar(String)}
+ * antes de leer, de modo que dentro de la aplicación siempre se observa lo último escrito.</li>
+ * </ul>
+ * <b>Durabilidad:</b> Las líneas en búfer se pierden ante un cierre abrupto del proceso; un gancho de apagado
+ * vacía todos los canales al terminar normalmente. No se realiza {@code fsync}, igual que antes.
+ *
+ * @author Equipo CineByt
+ * @version 1.0
+ * @see mx.unam.fi.cine.modelo.GestorArchivos#escribirTexto(String, String, boolean)
+ */
+public class PoolEscritores {
+
+    /** Propiedad del sistema con el máximo de canales abiertos simultáneamente. */
+    public static final String PROPIEDAD_MAX_ABIERTOS = "cinebyt.maxEscritoresAbiertos";
+
+    /** Propiedad del sistema con el número de líneas que provocan un vaciado. */
+    public static final String PROPIEDAD_LINEAS_POR_VACIADO = "cinebyt.lineasPorVaciado";
+
+    /** Propiedad del sistema con los milisegundos de inactividad tras los cuales se vacía un canal. */
+    public static final String PROPIEDAD_INACTIVIDAD = "cinebyt.inactividadEscritorMs";
+
+    /** Máximo de canales abiertos por defecto. */
+    public static final int MAX_ABIERTOS_DEFECTO = 32;
+
+    /** Líneas por vaciado por defecto. */
+    public static final int LINEAS_POR_VACIADO_DEFECTO = 16;
+
+    /** Inactividad por defecto antes de vaciar, en milisegundos. */
+    public static final long INACTIVIDAD_MS_DEFECTO = 1000;
+
+    /** Máximo de canales abiertos. */
+    private static final int MAX_ABIERTOS = Integer.getInteger(PROPIEDAD_MAX_ABIERTOS, MAX_ABIERTOS_DEFECTO);
+
+    /** Líneas acumuladas que provocan un vaciado. */
+    private static final int LINEAS_POR_VACIADO = Integer.getInteger(PROPIEDAD_LINEAS_POR_VACIADO, LINEAS_POR_VACIADO_DEFECTO);
+
+    /** Inactividad tras la cual se vacía un canal, en nanosegundos. */
+    private static final long INACTIVIDAD_NANOS =
+            TimeUnit.MILLISECONDS.toNanos(Long.getLong(PROPIEDAD_INACTIVIDAD, INACTIVIDAD_MS_DEFECTO));
+
+    /**
+     * Codificación de los archivos de texto. Se conserva la predeterminada de la plataforma, que es la que
+     * usaban {@code FileWriter}/{@code FileReader}, para no alterar los archivos existentes.
+     */
+    private static final Charset CODIFICACION = Charset.defaultCharset();
+
+    /** Separador de registros (el mismo que escribía {@code BufferedWriter.newLine()}). */
+    private static final byte[] SALTO_LINEA = System.lineSeparator().getBytes(CODIFICACION);
+
+    /**
+     * Canales abiertos en orden de acceso (LRU). Protegido por su propio monitor;
+     * el candado del pool se adquiere siempre antes que el de un escritor, nunca al revés.
+     */
+    private static final LinkedHashMap<String, Escritor> ABIERTOS = new LinkedHashMap<String, Escritor>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Escritor> masAntiguo) {
+            if (size() <= MAX_ABIERTOS) return false;
+            DESALOJOS.incrementAndGet();
+            masAntiguo.getValue().cerrar();
+            return true;
+        }
+    };
+
+    /** Escrituras que encontraron su canal ya abierto (métrica). */
+    private static final AtomicLong ACIERTOS = new AtomicLong();
+
+    /** Escrituras que tuvieron que abrir un canal (métrica). */
+    private static final AtomicLong FALLOS = new AtomicLong();
+
+    /** Canales cerrados por rebasar el límite del pool (métrica). */
+    private static final AtomicLong DESALOJOS = new AtomicLong();
+
+    /** Escrituras físicas al disco (métrica). */
+    private static final AtomicLong VACIADOS = new AtomicLong();
+
+    /*
+     * Bloque de inicialización estática.
+     * Programa la revisión periódica de canales inactivos y el vaciado final al apagar la JVM.
+     */
+    static {
+        ScheduledExecutorService revisor = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "vaciado-escritores");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        long periodo = Math.max(1, TimeUnit.NANOSECONDS.toMillis(INACTIVIDAD_NANOS) / 2);
+        revisor.scheduleWithFixedDelay(PoolEscritores::vaciarInactivos, periodo, periodo, TimeUnit.MILLISECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(PoolEscritores::cerrarTodos, "cierre-escritores"));
+    }
+
+    /**
+     * Clase utilitaria: no se instancia.
+     */
+    private PoolEscritores() {}
+
+    /**
+     * Escribe una línea en un archivo de {@link GestorArchivos#CARPETA_ARCHIVOS} a través del pool.
+     *
+     * @param nombreArchivo Nombre del archivo destino.
+     * @param contenido     Texto a escribir (se le agrega el salto de línea).
+     * @param append        {@code true} para agregar al final (con búfer); {@code false} para sobrescribir (inmediato).
+     * @throws IOException Si falla la apertura o la escritura del archivo.
+     */
+    public static void escribir(String nombreArchivo, String contenido, boolean append) throws IOException {
+        byte[] texto = contenido.getBytes(CODIFICACION);
+        while (true) {
+            Escritor escritor = obtener(nombreArchivo);
+            synchronized (escritor) {
+                if (escritor.cerrado) continue; // Desalojado entre obtener() y el candado: se reabre
+                if (append) {
+                    escritor.agregar(texto);
+                } else {
+                    escritor.sobrescribir(texto);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Escribe en disco las líneas pendientes de un archivo, si tiene un canal abierto.
+     *
+     * @param nombreArchivo Nombre del archivo.
+     * @throws IOException Si falla la escritura.
+     */
+    public static void vaciar(String nombreArchivo) throws IOException {
+        Escritor escritor;
+        synchronized (ABIERTOS) {
+            escritor = ABIERTOS.get(nombreArchivo);
+        }
+        if (escritor == null) return;
+        synchronized (escritor) {
+            if (!escritor.cerrado) escritor.vaciar();
+        }
+    }
+
+    /**
+     * Vacía y cierra todos los canales abiertos. El pool sigue siendo utilizable; los canales se
+     * reabren bajo demanda. Se invoca al salir de la aplicación y desde el gancho de apagado.
+     */
+    public static void cerrarTodos() {
+        List<Escritor> escritores;
+        synchronized (ABIERTOS) {
+            escritores = new ArrayList<>(ABIERTOS.values());
+            ABIERTOS.clear();
+        }
+        for (Escritor escritor : escritores) {
+            escritor.cerrar();
+        }
+    }
+
+    // ==========================================
+    // MÉTRICAS
+    // ==========================================
+
+    /**
+     * Obtiene la proporción de escrituras que encontraron su canal abierto.
+     * @return Tasa de aciertos entre 0 y 1 (0 si no hay escrituras).
+     */
+    public static double getTasaAciertos() {
+        long aciertos = ACIERTOS.get();
+        long total = aciertos + FALLOS.get();
+        return (total == 0) ? 0 : (double) aciertos / total;
+    }
+
+    /**
+     * Obtiene la cantidad de canales abiertos actualmente.
+     * @return Canales abiertos.
+     */
+    public static int getAbiertos() {
+        synchronized (ABIERTOS) {
+            return ABIERTOS.size();
+        }
+    }
+
+    /**
+     * Obtiene la cantidad de canales cerrados por rebasar el límite del pool.
+     * @return Total de desalojos.
+     */
+    public static long getDesalojos() {
+        return DESALOJOS.get();
+    }
+
+    /**
+     * Obtiene la cantidad de escrituras físicas realizadas.
+     * @return Total de vaciados a disco.
+     */
+    public static long getVaciados() {
+        return VACIADOS.get();
+    }
+
+    /**
+     * Genera un resumen legible de las métricas del pool.
+     * @return Cadena con aciertos, canales abiertos, desalojos y vaciados.
+     */
+    public static String resumenMetricas() {
+        return String.format("Escritores abiertos: %d/%d | Tasa de aciertos: %.1f%% | Desalojos: %d | Vaciados: %d",
+                getAbiertos(), MAX_ABIERTOS, getTasaAciertos() * 100, getDesalojos(), getVaciados());
+    }
+
+    // ==========================================
+    // MÉTODOS AUXILIARES
+    // ==========================================
+
+    /**
+     * Obtiene el escritor de un archivo, abriéndolo (y desalojando al menos usado) si no está en el pool.
+     *
+     * @param nombreArchivo Nombre del archivo.
+     * @return Escritor abierto.
+     * @throws IOException Si el archivo no puede abrirse.
+     */
+    private static Escritor obtener(String nombreArchivo) throws IOException {
+        synchronized (ABIERTOS) {
+            Escritor escritor = ABIERTOS.get(nombreArchivo);
+            if (escritor != null) {
+                ACIERTOS.incrementAndGet();
+                return escritor;
+            }
+            FALLOS.incrementAndGet();
+            escritor = new Escritor(nombreArchivo);
+            ABIERTOS.put(nombreArchivo, escritor);
+            return escritor;
+        }
+    }
+
+    /**
+     * Vacía los canales con líneas pendientes que no han recibido escrituras durante el tiempo de inactividad.
+     * Ejecutado periódicamente por el hilo revisor.
+     */
+    private static void vaciarInactivos() {
+        List<Escritor> escritores;
+        synchronized (ABIERTOS) {
+            escritores = new ArrayList<>(ABIERTOS.values());
+        }
+        long ahora = System.nanoTime();
+        for (Escritor escritor : escritores) {
+            synchronized (escritor) {
+                if (escritor.cerrado || escritor.lineasPendientes == 0) continue;
+                if (ahora - escritor.ultimaEscritura < INACTIVIDAD_NANOS) continue;
+                try {
+                    escritor.vaciar();
+                } catch (IOException e) {
+                    System.err.println("Advertencia: No se pudo escribir " + escritor.nombre + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    // ==========================================
+    // ESCRITOR POR ARCHIVO
+    // ==========================================
+
+    /**
+     * Canal abierto de un archivo junto con sus líneas pendientes.
+     * Todos los accesos se realizan sincronizados sobre la instancia.
+     */
+    private static final class Escritor {
+
+        /** Nombre del archivo (clave en el pool). */
+        private final String nombre;
+
+        /** Canal abierto en modo escritura. */
+        private final FileChannel canal;
+
+        /** Líneas pendientes de escribir. */
+        private ByteBuffer pendiente = ByteBuffer.allocate(4096);
+
+        /** Número de líneas en {@link #pendiente}. */
+        private int lineasPendientes;
+
+        /** Instante de la última escritura ({@link System#nanoTime()}). */
+        private long ultimaEscritura;
+
+        /** Indica si el canal ya fue cerrado (desalojo o cierre general). */
+        private boolean cerrado;
+
+        /**
+         * Abre (o crea) el archivo.
+         * @param nombre Nombre del archivo dentro de la carpeta de la aplicación.
+         * @throws IOException Si el archivo no puede abrirse.
+         */
+        Escritor(String nombre) throws IOException {
+            this.nombre = nombre;
+            this.canal = FileChannel.open(Paths.get(GestorArchivos.CARPETA_ARCHIVOS + File.separator + nombre),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        }
+
+        /**
+         * Agrega una línea al búfer y lo vacía al alcanzar el umbral de líneas.
+         * @param texto Bytes de la línea (sin salto).
+         * @throws IOException Si falla el vaciado.
+         */
+        void agregar(byte[] texto) throws IOException {
+            int requerido = texto.length + SALTO_LINEA.length;
+            if (pendiente.remaining() < requerido) {
+                ByteBuffer mayor = ByteBuffer.allocate(Math.max(pendiente.capacity() * 2, pendiente.position() + requerido));
+                pendiente.flip();
+                mayor.put(pendiente);
+                pendiente = mayor;
+            }
+            pendiente.put(texto).put(SALTO_LINEA);
+            lineasPendientes++;
+            ultimaEscritura = System.nanoTime();
+            if (lineasPendientes >= LINEAS_POR_VACIADO) vaciar();
+        }
+
+        /**
+         * Reemplaza el contenido del archivo por una sola línea, descartando lo pendiente.
+         * @param texto Bytes de la línea (sin salto).
+         * @throws IOException Si falla la escritura.
+         */
+        void sobrescribir(byte[] texto) throws IOException {
+            pendiente.clear();
+            lineasPendientes = 0;
+            canal.truncate(0);
+            escribirCompleto(ByteBuffer.wrap(texto), 0);
+            escribirCompleto(ByteBuffer.wrap(SALTO_LINEA), texto.length);
+            ultimaEscritura = System.nanoTime();
+            VACIADOS.incrementAndGet();
+        }
+
+        /**
+         * Escribe al final del archivo las líneas pendientes.
+         * <p>
+         * Si la escritura falla, el búfer vuelve a modo escritura conservando solo los bytes que no llegaron al
+         * archivo, de modo que el siguiente vaciado los reintenta a continuación de lo ya escrito.
+         *
+         * @throws IOException Si falla la escritura.
+         */
+        void vaciar() throws IOException {
+            if (lineasPendientes == 0) return;
+            pendiente.flip();
+            try {
+                escribirCompleto(pendiente, canal.size());
+                VACIADOS.incrementAndGet();
+            } finally {
+                pendiente.compact();
+                if (pendiente.position() == 0) lineasPendientes = 0;
+            }
+        }
+
+        /**
+         * Vacía lo pendiente y cierra el canal. Los errores se reportan sin propagarse.
+         */
+        synchronized void cerrar() {
+            if (cerrado) return;
+            try {
+                vaciar();
+            } catch (IOException e) {
+                System.err.println("Advertencia: No se pudo escribir " + nombre + ": " + e.getMessage());
+            }
+            try {
+                canal.close();
+            } catch (IOException e) {
+                System.err.println("Advertencia: No se pudo cerrar " + nombre + ": " + e.getMessage());
+            }
+            cerrado = true;
+        }
+
+        /**
+         * Escribe un búfer completo a partir de una posición del archivo.
+         * @param datos    Bytes a escribir.
+         * @param posicion Posición inicial en el archivo.
+         * @throws IOException Si falla la escritura.
+         */
+        private void escribirCompleto(ByteBuffer datos, long posicion) throws IOException {
+            while (datos.hasRemaining()) {
+                posicion += canal.write(datos, posicion);
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package mx.unam.fi.cine.modelo;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Representa una entrada de la bitácora de ventas (<i>Write-Ahead Journal</i>) del sistema <b>CineByt</b>.
+ * <p>
+ * Cada registro describe únicamente el asiento vendido, no el estado completo de la función.
+ * Esto permite que {@link GestorArchivos} agregue al final del archivo unos cuantos bytes por boleto
+ * en lugar de volver a serializar toda la cartelera después de cada compra.
+ * </p>
+ * <b>Ciclo de Vida:</b>
+ * <ul>
+ * <li>Se escribe en {@code ControladorCompra} al confirmar el pago.</li>
+ * <li>Se reproduce en {@code CineByt.cargarDatos} para reconstruir la ocupación posterior a la última instantánea.</li>
+ * <li>Se descarta cuando la bitácora se compacta en las particiones de la cartelera.</li>
+ * </ul>
+ * La función se identifica por su identificador numérico ({@link GeneradorIds}) y su fecha, que permite
+ * ubicar la partición semanal aunque la función ya esté archivada.
+ *
+ * @author Equipo CineByt
+ * @version 2.0
+ * @see mx.unam.fi.cine.modelo.GestorArchivos
+ */
+public class RegistroVenta {
+
+    /** Formato de la fecha contenida en los identificadores legibles de versiones anteriores. */
+    private static final DateTimeFormatter FORMATO_FECHA_LEGADO = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    /** Identificador numérico de la función ({@code 0} en registros de versiones anteriores). */
+    private final long idFuncion;
+
+    /** Identificador legible de la función; solo en registros de versiones anteriores. */
+    private final String idLegado;
+
+    /** Fecha de la función, utilizada para ubicar su partición semanal ({@code null} si no se conoce). */
+    private final LocalDate fecha;
+
+    /** Letra de la fila del asiento vendido. */
+    private final char fila;
+
+    /** Número del asiento vendido dentro de su fila. */
+    private final int numero;
+
+    /**
+     * Constructor del registro de venta.
+     *
+     * @param idFuncion Identificador numérico de la función ({@link Funcion#getId()}).
+     * @param fecha     Fecha de la función.
+     * @param fila      Letra de la fila.
+     * @param numero    Número del asiento.
+     */
+    public RegistroVenta(long idFuncion, LocalDate fecha, char fila, int numero) {
+        this.idFuncion = idFuncion;
+        this.idLegado = null;
+        this.fecha = fecha;
+        this.fila = fila;
+        this.numero = numero;
+    }
+
+    /**
+     * Constructor para registros de bitácoras anteriores, que guardaban el identificador legible
+     * ({@code INI:AAAAMMDD:hhmm:Sala}). La fecha se deduce del propio identificador.
+     *
+     * @param idLegado Identificador legible de la función.
+     * @param fila     Letra de la fila.
+     * @param numero   Número del asiento.
+     */
+    public RegistroVenta(String idLegado, char fila, int numero) {
+        this.idFuncion = 0;
+        this.idLegado = idLegado;
+        this.fecha = fechaDeIdLegado(idLegado);
+        this.fila = fila;
+        this.numero = numero;
+    }
+
+    /**
+     * Obtiene el identificador numérico de la función.
+     * @return Identificador, o {@code 0} si el registro es de una versión anterior.
+     */
+    public long getIdFuncion() { return idFuncion; }
+
+    /**
+     * Indica si el registro proviene de una bitácora anterior (identificador legible).
+     * @return {@code true} si debe resolverse con {@link #getIdLegado()}.
+     */
+    public boolean esLegado() { return idLegado != null; }
+
+    /**
+     * Obtiene el identificador legible de un registro anterior.
+     * @return Identificador legible, o {@code null} en registros actuales.
+     */
+    public String getIdLegado() { return idLegado; }
+
+    /**
+     * Obtiene la fecha de la función.
+     * @return Fecha, o {@code null} si no pudo determinarse.
+     */
+    public LocalDate getFecha() { return fecha; }
+
+    /**
+     * Obtiene la fila del asiento vendido.
+     * @return Carácter de la fila.
+     */
+    public char getFila() { return fila; }
+
+    /**
+     * Obtiene el número del asiento vendido.
+     * @return Número del asiento.
+     */
+    public int getNumero() { return numero; }
+
+    /**
+     * Representación en cadena del registro para depuración.
+     * @return Cadena con formato "ID_FUNCION:FilaNumero".
+     */
+    @Override
+    public String toString() {
+        return (esLegado() ? idLegado : Long.toString(idFuncion)) + ":" + fila + numero;
+    }
+
+    /**
+     * Extrae la fecha de un identificador legible con formato {@code INI:AAAAMMDD:hhmm:Sala}.
+     * @param idLegado Identificador legible.
+     * @return Fecha de la función, o {@code null} si el identificador no tiene ese formato.
+     */
+    private static LocalDate fechaDeIdLegado(String idLegado) {
+        String[] partes = idLegado.split(":");
+        if (partes.length < 2) return null;
+        try {
+            return LocalDate.parse(partes[1], FORMATO_FECHA_LEGADO);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
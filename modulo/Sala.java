@@ -1,27 +1,46 @@
 package mx.unam.fi.cine.modelo;
 
 import java.io.*;
-import java.util.ArrayList;
+import java.util.AbstractList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 /**
  * Representa la abstracción física de una sala de proyección dentro del modelo <b>CineByt</b>.
  * <p>
- * Esta clase actúa como un contenedor lógico y estructural para los objetos {@link Asiento}.
- * Su responsabilidad principal es definir la topología (layout) de las butacas disponible
- * según el tipo de sala ("Sala A", "Sala B", "Sala VIP").
+ * Esta clase actúa como un contenedor lógico para el estado de los objetos {@link Asiento} en una proyección.
+ * La topología (layout) de las butacas según el tipo de sala ("Sala A", "Sala B", "Sala VIP") se define
+ * una sola vez en {@link SalaLayout} y se comparte entre todas las funciones.
  * </p>
+ * <b>Representación Interna:</b>
+ * <br>
+ * La ocupación se almacena como un mapa de bits primitivo ({@code long[]}): el asiento con índice lineal
+ * {@code i} está ocupado si el bit {@code i} está encendido. Un índice por fila traduce
+ * las coordenadas (fila, número) a ese índice en tiempo constante. Los objetos {@link Asiento} ya no se
+ * almacenan; se crean bajo demanda como <i>vistas</i> ligeras sobre el mapa de bits.
+ * <br>
+ * El índice por fila vive en la topología compartida, por lo que cada sala solo aporta su nombre y su mapa de bits.
+ * <br>
+ * <b>Concurrencia:</b> El mapa de bits es un {@link AtomicLongArray}. Cada cambio se realiza con
+ * operaciones <i>Compare-And-Swap</i> (CAS) sobre la palabra de 64 bits afectada, sin candados globales.
+ * {@link #ocuparAsientos(List)} reserva un grupo de asientos de forma atómica: todos o ninguno.
+ * <br>
+ * <b>Apartados:</b> Se mantienen dos mapas de bits. {@code ocupados} indica los asientos no disponibles
+ * (apartados durante un pago o ya vendidos) y {@code vendidos} solo los de venta confirmada.
+ * Únicamente los vendidos se persisten; un apartado nunca sobrevive a un reinicio.
  * <b>Relación con la Arquitectura:</b>
  * <ul>
  * <li>Es una entidad del <b>Modelo</b> que implementa {@link Serializable} para persistencia.</li>
- * <li>Mantiene una relación de <b>Composición</b> con {@link Asiento} (si la sala deja de existir, sus asientos también).</li>
+ * <li>Mantiene una relación de <b>Composición</b> con {@link Asiento}: cada vista lee y escribe el bit de esta sala.</li>
  * <li>Es utilizada por la clase {@link Funcion} para gestionar la ocupación. Nota: Cada Función crea
- * una copia o instancia propia de Sala para manejar sus propios estados de "Ocupado/Libre" independientemente.</li>
+ * una instancia propia de Sala para manejar sus propios estados de "Ocupado/Libre" independientemente,
+ * pero todas comparten la misma {@link SalaLayout}.</li>
  * </ul>
  *
  * @author Equipo CineByt
- * @version 1.0
+ * @version 2.0
  * @see mx.unam.fi.cine.modelo.Asiento
+ * @see mx.unam.fi.cine.modelo.SalaLayout
  * @see mx.unam.fi.cine.modelo.Funcion
  */
 public class Sala implements Serializable {
@@ -31,89 +50,65 @@ public class Sala implements Serializable {
      */
     private static final long serialVersionUID = 1L;
 
+    /**
+     * Campos persistidos. El mapa de bits de asientos vendidos se serializa como un {@code long[]} simple
+     * bajo el nombre {@code ocupados} para conservar el formato de los archivos existentes.
+     */
+    private static final ObjectStreamField[] serialPersistentFields = {
+        new ObjectStreamField("nombre", String.class),
+        new ObjectStreamField("ocupados", long[].class)
+    };
+
     /**
      * Identificador único y descriptivo de la sala.
-     * Determina la configuración de asientos a generar (ej. "Sala A", "Sala VIP").
+     * Determina la topología compartida ({@link SalaLayout}) a utilizar (ej. "Sala A", "Sala VIP").
      */
     private String nombre;
 
     /**
-     * Lista dinámica que almacena la totalidad de los asientos que componen la sala.
-     * Se utiliza {@code ArrayList} para permitir acceso rápido e iteración eficiente.
+     * Mapa de bits de ocupación. El bit {@code i} representa al asiento con índice lineal {@code i}.
+     * Para la Sala A (150 lugares) ocupa solo 3 palabras de 64 bits.
+     * Todas las modificaciones se realizan mediante CAS para admitir varias terminales de venta simultáneas.
      */
-    private List<Asiento> asientos;
+    private transient AtomicLongArray ocupados;
+
+    /**
+     * Mapa de bits de asientos con venta confirmada (subconjunto de {@code ocupados}).
+     * Es el único estado que se persiste.
+     */
+    private transient AtomicLongArray vendidos;
+
+    /**
+     * Topología compartida por todas las funciones proyectadas en este tipo de sala.
+     * Es derivable del nombre, por lo que no se serializa.
+     */
+    private transient SalaLayout layout;
 
     /**
      * Constructor principal de la Sala.
-     * Inicializa la lista de asientos y dispara inmediatamente la configuración
-     * de la topología interna mediante {@link #configurarAsientos()}.
+     * Obtiene la topología compartida del tipo de sala mediante {@link SalaLayout#obtener(String)}
+     * e inicializa todos los asientos como libres.
      *
      * @param nombre Identificador de la sala (ej. "Sala A"). Debe coincidir con los casos
-     * esperados en la lógica de configuración para evitar una sala vacía.
+     * esperados en {@link SalaLayout} para evitar una sala vacía.
      */
     public Sala(String nombre) {
         this.nombre = nombre;
-        this.asientos = new ArrayList<>();
-        configurarAsientos();
+        this.layout = SalaLayout.obtener(nombre);
+        this.ocupados = new AtomicLongArray((layout.getCapacidad() + 63) / 64);
+        this.vendidos = new AtomicLongArray(ocupados.length());
     }
 
     /**
-     * Genera y estructura la matriz de asientos según las reglas de negocio del proyecto.
-     * <p>
-     * Este método contiene la lógica de definición de espacios ("Hardcoded Layouts"):
-     * <ul>
-     * <li><b>Sala A:</b> Sala Estándar Grande. 10 filas (A-J) con 15 asientos cada una.</li>
-     * <li><b>Sala B:</b> Sala Mixta/Media.
-     * <ul>
-     * <li>Sección Frontal: 4 filas (A-D) de 7 asientos (posiblemente para mejor visión).</li>
-     * <li>Sección Trasera: 6 filas (E-J) de 15 asientos.</li>
-     * </ul>
-     * </li>
-     * <li><b>Sala VIP:</b> Sala Exclusiva. 8 filas (A-H) con solo 6 asientos anchos.</li>
-     * </ul>
-     * Si el nombre no coincide, se imprime una advertencia en consola y la sala queda vacía.
-     */
-    private void configurarAsientos() {
-        // Limpiamos la lista por seguridad para evitar duplicados si se re-inicializa
-        asientos.clear();
-
-        switch (this.nombre) {
-            case "Sala A":
-                // Filas A-J (10 filas), 15 asientos c/u
-                generarFilas('A', 'J', 15);
-                break;
-            case "Sala B":
-                // Lógica asimétrica para Sala B
-                // Filas A-D (4 filas), 7 lugares
-                generarFilas('A', 'D', 7);
-                // Filas E-J (6 filas), 15 lugares
-                generarFilas('E', 'J', 15);
-                break;
-            case "Sala VIP":
-                // Filas A-H (8 filas), 6 lugares
-                // Nota: Los pasillos son visuales en la GUI, lógicamente son 6 asientos consecutivos en el modelo.
-                generarFilas('A', 'H', 6);
-                break;
-            default:
-                // Manejo de error o caso por defecto para nombres desconocidos
-                System.out.println("ADVERTENCIA: Tipo de sala '" + this.nombre + "' no reconocido. Se crea instancia vacía.");
-        }
-    }
-
-    /**
-     * Método auxiliar ("Helper") para instanciar y agregar un rango secuencial de filas a la sala.
-     * Itera sobre los caracteres de las filas y los números de los asientos.
+     * Constructor de restauración utilizado por {@link CodecFunciones}.
+     * Crea la sala con los asientos vendidos indicados por el mapa de bits persistido.
      *
-     * @param filaInicio     Carácter de la fila inicial (ej. 'A').
-     * @param filaFin        Carácter de la fila final (ej. 'J'). Inclusive.
-     * @param cantidadAsientos Número de asientos a generar por cada fila.
-     */
-    private void generarFilas(char filaInicio, char filaFin, int cantidadAsientos) {
-        for (char f = filaInicio; f <= filaFin; f++) {
-            for (int i = 1; i <= cantidadAsientos; i++) {
-                asientos.add(new Asiento(f, i));
-            }
-        }
+     * @param nombre       Identificador de la sala.
+     * @param bitsVendidos Mapa de bits de asientos vendidos (puede ser más corto que la capacidad).
+     */
+    Sala(String nombre, long[] bitsVendidos) {
+        this(nombre);
+        aplicarVendidos(bitsVendidos);
     }
 
     /**
@@ -125,31 +120,260 @@ public class Sala implements Serializable {
     }
 
     /**
-     * Obtiene la lista completa de asientos de la sala.
-     * @return Referencia a la lista de objetos {@link Asiento}.
+     * Obtiene el número total de asientos de la sala.
+     * @return Capacidad de la sala.
+     */
+    public int getCapacidad() {
+        return layout.getCapacidad();
+    }
+
+    /**
+     * Obtiene la topología compartida de esta sala.
+     * @return Instancia inmutable de {@link SalaLayout}.
+     */
+    public SalaLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * Obtiene la lista completa de asientos de la sala, en orden de fila y número.
+     * <p>
+     * La lista es una vista de solo lectura: cada elemento es un {@link Asiento} creado bajo demanda
+     * que refleja (y modifica) el mapa de bits de esta sala.
+     *
+     * @return Vista de la lista de objetos {@link Asiento}.
      */
     public List<Asiento> getAsientos() {
-        return asientos;
+        return new AbstractList<Asiento>() {
+            @Override
+            public Asiento get(int indice) {
+                return new Asiento(Sala.this, indice, layout.filaDe(indice), layout.numeroDe(indice));
+            }
+
+            @Override
+            public int size() {
+                return layout.getCapacidad();
+            }
+        };
     }
 
     /**
-     * Busca una instancia específica de asiento dentro de la colección de la sala.
+     * Busca una instancia específica de asiento dentro de la sala.
      * <p>
-     * Realiza una búsqueda lineal comparando la fila y el número.
-     * Es fundamental para el proceso de compra de boletos, donde se necesita
-     * cambiar el estado de un asiento específico.
+     * Traduce la fila y el número al índice lineal mediante {@link SalaLayout#indiceDe}, por lo que la
+     * búsqueda es de tiempo constante. Es fundamental para el proceso de compra de boletos,
+     * donde se necesita cambiar el estado de un asiento específico.
      *
      * @param fila   Letra de la fila del asiento buscado.
      * @param numero Número del asiento buscado.
      * @return El objeto {@link Asiento} encontrado, o {@code null} si las coordenadas no existen en esta sala.
      */
     public Asiento buscarAsiento(char fila, int numero) {
-        for (Asiento a : asientos) {
-            if (a.getFila() == fila && a.getNumero() == numero) {
-                return a;
+        int indice = layout.indiceDe(fila, numero);
+        return (indice < 0) ? null : new Asiento(this, indice, fila, numero);
+    }
+
+    /**
+     * Consulta el bit de ocupación de un asiento.
+     * @param indice Índice lineal del asiento.
+     * @return {@code true} si el asiento está apartado o vendido.
+     */
+    boolean estaOcupado(int indice) {
+        return (ocupados.get(indice >>> 6) & (1L << indice)) != 0;
+    }
+
+    /**
+     * Consulta si la venta de un asiento ya fue confirmada.
+     * @param indice Índice lineal del asiento.
+     * @return {@code true} si el asiento está vendido.
+     */
+    boolean estaVendido(int indice) {
+        return (vendidos.get(indice >>> 6) & (1L << indice)) != 0;
+    }
+
+    /**
+     * Marca o libera directamente la venta de un asiento de forma atómica (ambos mapas de bits).
+     * Se utiliza al reproducir la bitácora y al migrar archivos antiguos.
+     *
+     * @param indice  Índice lineal del asiento.
+     * @param ocupado Nuevo estado del asiento.
+     */
+    void marcarOcupado(int indice, boolean ocupado) {
+        long mascara = 1L << indice;
+        if (ocupado) {
+            ocupados.getAndAccumulate(indice >>> 6, mascara, (actual, m) -> actual | m);
+            vendidos.getAndAccumulate(indice >>> 6, mascara, (actual, m) -> actual | m);
+        } else {
+            vendidos.getAndAccumulate(indice >>> 6, ~mascara, (actual, m) -> actual & m);
+            ocupados.getAndAccumulate(indice >>> 6, ~mascara, (actual, m) -> actual & m);
+        }
+    }
+
+    /**
+     * Reserva atómicamente un grupo de asientos: se ocupan todos o ninguno.
+     * <p>
+     * <b>Algoritmo (sin candados):</b>
+     * <ol>
+     * <li>Agrupa los asientos solicitados en máscaras por palabra de 64 bits, en orden ascendente.</li>
+     * <li>Para cada palabra, intenta encender sus bits con {@code compareAndSet}. Si algún bit ya está
+     * encendido, otra terminal ganó ese asiento.</li>
+     * <li>En caso de conflicto, apaga los bits que esta misma llamada ya había encendido y regresa {@code false}.</li>
+     * </ol>
+     * Dos terminales nunca pueden obtener el mismo asiento, ya que cada bit solo puede pasar de 0 a 1
+     * mediante un CAS exitoso. Las reservas sobre palabras distintas no compiten entre sí.
+     *
+     * @param asientos Asientos de esta sala a reservar (obtenidos con {@link #buscarAsiento}).
+     * @return {@code true} si se reservaron todos; {@code false} si alguno ya estaba ocupado (no se modifica nada).
+     * @throws IllegalArgumentException Si algún asiento no pertenece a esta sala o está repetido.
+     */
+    public boolean ocuparAsientos(List<Asiento> asientos) {
+        long[] mascaras = calcularMascaras(asientos);
+
+        for (int palabra = 0; palabra < mascaras.length; palabra++) {
+            if (mascaras[palabra] == 0) continue;
+            while (true) {
+                long actual = ocupados.get(palabra);
+                if ((actual & mascaras[palabra]) != 0) {
+                    // Conflicto: deshacer las palabras ya reservadas por esta llamada
+                    for (int previa = 0; previa < palabra; previa++) {
+                        if (mascaras[previa] != 0) {
+                            ocupados.getAndAccumulate(previa, ~mascaras[previa], (a, m) -> a & m);
+                        }
+                    }
+                    return false;
+                }
+                if (ocupados.compareAndSet(palabra, actual, actual | mascaras[palabra])) break;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Confirma la venta de un grupo de asientos previamente reservados con {@link #ocuparAsientos(List)}.
+     * A partir de este momento los asientos forman parte del estado persistido.
+     *
+     * @param asientos Asientos de esta sala ya reservados.
+     * @throws IllegalArgumentException Si algún asiento no pertenece a esta sala o está repetido.
+     */
+    public void confirmarVenta(List<Asiento> asientos) {
+        long[] mascaras = calcularMascaras(asientos);
+        for (int palabra = 0; palabra < mascaras.length; palabra++) {
+            if (mascaras[palabra] != 0) {
+                vendidos.getAndAccumulate(palabra, mascaras[palabra], (a, m) -> a | m);
+            }
+        }
+    }
+
+    /**
+     * Libera atómicamente un grupo de asientos reservados cuya venta no se confirmó
+     * (ej. pago rechazado o apartado vencido).
+     *
+     * @param asientos Asientos de esta sala a liberar.
+     * @throws IllegalArgumentException Si algún asiento no pertenece a esta sala o está repetido.
+     */
+    public void liberarAsientos(List<Asiento> asientos) {
+        long[] mascaras = calcularMascaras(asientos);
+        for (int palabra = 0; palabra < mascaras.length; palabra++) {
+            if (mascaras[palabra] != 0) {
+                ocupados.getAndAccumulate(palabra, ~mascaras[palabra], (a, m) -> a & m);
+            }
+        }
+    }
+
+    /**
+     * Convierte una lista de asientos en una máscara de bits por cada palabra del mapa de ocupación.
+     * Al recorrer las máscaras en orden ascendente, todas las reservas adquieren las palabras en el mismo orden.
+     *
+     * @param asientos Asientos a agrupar.
+     * @return Máscara por palabra (0 si la palabra no se ve afectada).
+     * @throws IllegalArgumentException Si algún asiento no pertenece a esta sala o está repetido.
+     */
+    private long[] calcularMascaras(List<Asiento> asientos) {
+        long[] mascaras = new long[ocupados.length()];
+        for (Asiento asiento : asientos) {
+            if (asiento.getSala() != this) {
+                throw new IllegalArgumentException("El asiento " + asiento.getFila() + asiento.getNumero() + " no pertenece a " + nombre);
+            }
+            int indice = asiento.getIndice();
+            long bit = 1L << indice;
+            if ((mascaras[indice >>> 6] & bit) != 0) {
+                throw new IllegalArgumentException("Asiento " + asiento.getFila() + asiento.getNumero() + " repetido en la solicitud.");
+            }
+            mascaras[indice >>> 6] |= bit;
+        }
+        return mascaras;
+    }
+
+    /**
+     * Obtiene una copia del mapa de bits de asientos vendidos (estado persistible de la sala).
+     * @return Arreglo con una palabra de 64 bits por cada 64 asientos.
+     */
+    long[] getBitsVendidos() {
+        long[] bits = new long[vendidos.length()];
+        for (int i = 0; i < bits.length; i++) bits[i] = vendidos.get(i);
+        return bits;
+    }
+
+    /**
+     * Marca como vendidos (y por lo tanto ocupados) los asientos de un mapa de bits persistido.
+     * Los asientos ya marcados se conservan (unión de bits).
+     *
+     * @param bits Mapa de bits leído del archivo; las palabras sobrantes se ignoran.
+     */
+    void aplicarVendidos(long[] bits) {
+        for (int i = 0; i < Math.min(bits.length, ocupados.length()); i++) {
+            long palabra = bits[i];
+            ocupados.accumulateAndGet(i, palabra, (a, b) -> a | b);
+            vendidos.accumulateAndGet(i, palabra, (a, b) -> a | b);
+        }
+    }
+
+    /**
+     * Serializa el nombre y una copia del mapa de bits de asientos vendidos como {@code long[]}.
+     * Los apartados en curso se omiten deliberadamente.
+     *
+     * @param out Flujo de salida de la serialización.
+     * @throws IOException Si falla la escritura.
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField campos = out.putFields();
+        campos.put("nombre", nombre);
+        campos.put("ocupados", getBitsVendidos());
+        out.writeFields();
+    }
+
+    /**
+     * Vuelve a enlazar la topología compartida al deserializar, ya que solo se persisten el nombre y el mapa de bits.
+     * <p>
+     * <b>Compatibilidad:</b> Los archivos generados por versiones anteriores contienen una lista
+     * {@code asientos} con un objeto {@link Asiento} por lugar. En ese caso se migra su bandera
+     * de ocupación al mapa de bits.
+     *
+     * @param in Flujo de entrada de la deserialización.
+     * @throws IOException            Si el flujo es ilegible.
+     * @throws ClassNotFoundException Si alguna clase del flujo no existe.
+     */
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField campos = in.readFields();
+        this.nombre = (String) campos.get("nombre", null);
+        long[] bits = (long[]) campos.get("ocupados", null);
+
+        this.layout = SalaLayout.obtener(nombre);
+        this.ocupados = new AtomicLongArray((layout.getCapacidad() + 63) / 64);
+        this.vendidos = new AtomicLongArray(ocupados.length());
+        if (bits != null) {
+            aplicarVendidos(bits);
+        } else {
+            // Formato legado (v1.0): lista de objetos Asiento con su propia bandera
+            List<Asiento> legado = (List<Asiento>) campos.get("asientos", null);
+            if (legado != null) {
+                for (Asiento asiento : legado) {
+                    Asiento actual = buscarAsiento(asiento.getFila(), asiento.getNumero());
+                    if (actual != null && asiento.isOcupado()) actual.setOcupado(true);
+                }
             }
         }
-        return null;
     }
 
     /**
@@ -160,6 +384,6 @@ public class Sala implements Serializable {
      */
     @Override
     public String toString() {
-        return "Sala: " + nombre + " (Capacidad: " + asientos.size() + " personas)";
+        return "Sala: " + nombre + " (Capacidad: " + layout.getCapacidad() + " personas)";
     }
 }
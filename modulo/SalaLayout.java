@@ -0,0 +1,214 @@
+package mx.unam.fi.cine.modelo;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Topología inmutable (distribución de filas y asientos) de un tipo de sala en el sistema <b>CineByt</b>.
+ * <p>
+ * Implementa el patrón <b>Flyweight</b>: existe una sola instancia por tipo de sala ("Sala A", "Sala B",
+ * "Sala VIP"), compartida por todas las funciones que se proyectan en ella. Cada {@link Sala} conserva
+ * únicamente su mapa de bits de ocupación y consulta aquí la traducción de coordenadas.
+ * </p>
+ * <b>Ventajas:</b>
+ * <ul>
+ * <li>La distribución se calcula una sola vez por tipo de sala, no una vez por función.</li>
+ * <li>Al ser inmutable, puede compartirse entre hilos sin sincronización.</li>
+ * <li>No se serializa: la cartelera solo guarda el nombre de la sala y su ocupación.</li>
+ * </ul>
+ *
+ * @author Equipo CineByt
+ * @version 1.0
+ * @see mx.unam.fi.cine.modelo.Sala
+ */
+public final class SalaLayout {
+
+    /**
+     * Cantidad máxima de filas direccionables (letras 'A' a 'Z').
+     */
+    private static final int MAX_FILAS = 26;
+
+    /**
+     * Caché de topologías compartidas, indexada por nombre de sala.
+     */
+    private static final Map<String, SalaLayout> CACHE = new ConcurrentHashMap<>();
+
+    /** Nombre del tipo de sala al que corresponde esta topología. */
+    private final String nombre;
+
+    /**
+     * Cantidad de asientos por fila, indexada por {@code fila - 'A'}. Un valor de 0 indica fila inexistente.
+     */
+    private final int[] asientosPorFila;
+
+    /**
+     * Índice lineal del primer asiento de cada fila, indexado por {@code fila - 'A'}.
+     */
+    private final int[] inicioFila;
+
+    /** Número total de asientos. */
+    private final int capacidad;
+
+    /**
+     * Constructor privado: las instancias se obtienen exclusivamente mediante {@link #obtener(String)}.
+     *
+     * @param nombre          Nombre del tipo de sala.
+     * @param asientosPorFila Cantidad de asientos por fila (ya poblada).
+     */
+    private SalaLayout(String nombre, int[] asientosPorFila) {
+        this.nombre = nombre;
+        this.asientosPorFila = asientosPorFila;
+        this.inicioFila = new int[MAX_FILAS];
+
+        // Índice por fila (suma de prefijos) para el acceso O(1)
+        int total = 0;
+        for (int f = 0; f < MAX_FILAS; f++) {
+            inicioFila[f] = total;
+            total += asientosPorFila[f];
+        }
+        this.capacidad = total;
+    }
+
+    /**
+     * Obtiene la topología compartida de un tipo de sala, creándola la primera vez que se solicita.
+     *
+     * @param nombre Nombre de la sala (ej. "Sala A").
+     * @return Instancia única de la topología para ese nombre.
+     */
+    public static SalaLayout obtener(String nombre) {
+        return CACHE.computeIfAbsent(nombre, SalaLayout::configurar);
+    }
+
+    /**
+     * Genera la distribución de asientos según las reglas de negocio del proyecto.
+     * <p>
+     * Este método contiene la lógica de definición de espacios ("Hardcoded Layouts"):
+     * <ul>
+     * <li><b>Sala A:</b> Sala Estándar Grande. 10 filas (A-J) con 15 asientos cada una.</li>
+     * <li><b>Sala B:</b> Sala Mixta/Media.
+     * <ul>
+     * <li>Sección Frontal: 4 filas (A-D) de 7 asientos (posiblemente para mejor visión).</li>
+     * <li>Sección Trasera: 6 filas (E-J) de 15 asientos.</li>
+     * </ul>
+     * </li>
+     * <li><b>Sala VIP:</b> Sala Exclusiva. 8 filas (A-H) con solo 6 asientos anchos.</li>
+     * </ul>
+     * Si el nombre no coincide, se imprime una advertencia en consola y la topología queda vacía.
+     *
+     * @param nombre Nombre del tipo de sala.
+     * @return Nueva topología inmutable.
+     */
+    private static SalaLayout configurar(String nombre) {
+        int[] filas = new int[MAX_FILAS];
+
+        switch (nombre) {
+            case "Sala A":
+                // Filas A-J (10 filas), 15 asientos c/u
+                generarFilas(filas, 'A', 'J', 15);
+                break;
+            case "Sala B":
+                // Lógica asimétrica para Sala B
+                // Filas A-D (4 filas), 7 lugares
+                generarFilas(filas, 'A', 'D', 7);
+                // Filas E-J (6 filas), 15 lugares
+                generarFilas(filas, 'E', 'J', 15);
+                break;
+            case "Sala VIP":
+                // Filas A-H (8 filas), 6 lugares
+                // Nota: Los pasillos son visuales en la GUI, lógicamente son 6 asientos consecutivos en el modelo.
+                generarFilas(filas, 'A', 'H', 6);
+                break;
+            default:
+                // Manejo de error o caso por defecto para nombres desconocidos
+                System.out.println("ADVERTENCIA: Tipo de sala '" + nombre + "' no reconocido. Se crea instancia vacía.");
+        }
+        return new SalaLayout(nombre, filas);
+    }
+
+    /**
+     * Método auxiliar ("Helper") para registrar un rango secuencial de filas.
+     *
+     * @param filas            Arreglo de asientos por fila a poblar.
+     * @param filaInicio       Carácter de la fila inicial (ej. 'A').
+     * @param filaFin          Carácter de la fila final (ej. 'J'). Inclusive.
+     * @param cantidadAsientos Número de asientos por cada fila.
+     */
+    private static void generarFilas(int[] filas, char filaInicio, char filaFin, int cantidadAsientos) {
+        for (char f = filaInicio; f <= filaFin; f++) {
+            filas[f - 'A'] = cantidadAsientos;
+        }
+    }
+
+    /**
+     * Obtiene el nombre del tipo de sala.
+     * @return Nombre de la sala.
+     */
+    public String getNombre() {
+        return nombre;
+    }
+
+    /**
+     * Obtiene el número total de asientos.
+     * @return Capacidad de la sala.
+     */
+    public int getCapacidad() {
+        return capacidad;
+    }
+
+    /**
+     * Traduce coordenadas de asiento a su índice lineal en tiempo constante.
+     *
+     * @param fila   Letra de la fila.
+     * @param numero Número del asiento.
+     * @return Índice lineal, o {@code -1} si las coordenadas no existen en esta sala.
+     */
+    public int indiceDe(char fila, int numero) {
+        int f = fila - 'A';
+        if (f < 0 || f >= MAX_FILAS || numero < 1 || numero > asientosPorFila[f]) {
+            return -1;
+        }
+        return inicioFila[f] + numero - 1;
+    }
+
+    /**
+     * Obtiene la letra de fila correspondiente a un índice lineal.
+     *
+     * @param indice Índice lineal válido ({@code 0 <= indice < capacidad}).
+     * @return Letra de la fila.
+     */
+    public char filaDe(int indice) {
+        return (char) ('A' + posicionFila(indice));
+    }
+
+    /**
+     * Obtiene el número de asiento (dentro de su fila) correspondiente a un índice lineal.
+     *
+     * @param indice Índice lineal válido ({@code 0 <= indice < capacidad}).
+     * @return Número del asiento, comenzando en 1.
+     */
+    public int numeroDe(int indice) {
+        return indice - inicioFila[posicionFila(indice)] + 1;
+    }
+
+    /**
+     * Localiza la fila que contiene un índice lineal recorriendo las filas de atrás hacia adelante.
+     *
+     * @param indice Índice lineal.
+     * @return Posición de la fila ({@code fila - 'A'}).
+     */
+    private int posicionFila(int indice) {
+        if (indice < 0 || indice >= capacidad) throw new IndexOutOfBoundsException("Asiento " + indice);
+        int f = MAX_FILAS - 1;
+        while (asientosPorFila[f] == 0 || inicioFila[f] > indice) f--;
+        return f;
+    }
+
+    /**
+     * Representación en cadena de la topología.
+     * @return Cadena con el nombre y la capacidad.
+     */
+    @Override
+    public String toString() {
+        return "Layout " + nombre + " (" + capacidad + " asientos)";
+    }
+}
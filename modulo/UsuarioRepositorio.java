@@ -0,0 +1,105 @@
+package mx.unam.fi.cine.modelo;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Repositorio en memoria de los usuarios del sistema <b>CineByt</b>, indexado por nickname.
+ * <p>
+ * Envuelve la lista maestra de usuarios (que se sigue persistiendo tal cual en {@code usuarios.dat})
+ * y mantiene a su lado un índice hash {@code nickname → usuario}. Así, el inicio de sesión y la
+ * validación de nicknames duplicados cuestan O(1) en lugar de recorrer toda la lista.
+ * </p>
+ * <b>Mantenimiento del Índice:</b>
+ * <ul>
+ * <li>Se reconstruye a partir de la lista al cargar los datos ({@code CineByt.cargarDatos}).</li>
+ * <li>Toda alta debe pasar por {@link #agregar(Usuario)}, que actualiza lista e índice a la vez y
+ * rechaza nicknames repetidos.</li>
+ * </ul>
+ *
+ * @author Equipo CineByt
+ * @version 1.0
+ * @see mx.unam.fi.cine.modelo.Usuario
+ */
+public class UsuarioRepositorio {
+
+    /** Lista maestra de usuarios (forma persistida). */
+    private final List<Usuario> usuarios;
+
+    /** Índice hash por nickname. */
+    private final ConcurrentHashMap<String, Usuario> porNickname = new ConcurrentHashMap<>();
+
+    /**
+     * Construye el repositorio sobre la lista maestra cargada de disco.
+     * @param usuarios Lista mutable de usuarios.
+     */
+    public UsuarioRepositorio(List<Usuario> usuarios) {
+        this.usuarios = usuarios;
+        reconstruirIndice();
+    }
+
+    /**
+     * Vuelve a indexar todos los usuarios de la lista maestra.
+     * Si existieran nicknames repetidos (datos antiguos), prevalece el primero, igual que en la búsqueda lineal.
+     */
+    public synchronized void reconstruirIndice() {
+        porNickname.clear();
+        for (Usuario usuario : usuarios) {
+            porNickname.putIfAbsent(usuario.getNickname(), usuario);
+        }
+    }
+
+    /**
+     * Busca un usuario por su nickname exacto.
+     * @param nickname Nickname buscado.
+     * @return El usuario, o {@code null} si no existe.
+     */
+    public Usuario buscarPorNickname(String nickname) {
+        return porNickname.get(nickname);
+    }
+
+    /**
+     * Verifica si un nickname ya está registrado.
+     * @param nickname Nickname a verificar.
+     * @return {@code true} si ya existe.
+     */
+    public boolean existe(String nickname) {
+        return porNickname.containsKey(nickname);
+    }
+
+    /**
+     * Valida credenciales de acceso.
+     *
+     * @param nickname Nickname capturado.
+     * @param password Contraseña capturada.
+     * @return El usuario autenticado, o {@code null} si los datos no son correctos.
+     */
+    public Usuario autenticar(String nickname, String password) {
+        Usuario usuario = porNickname.get(nickname);
+        return (usuario != null && usuario.getPassword().equals(password)) ? usuario : null;
+    }
+
+    /**
+     * Registra un nuevo usuario en la lista maestra y en el índice.
+     *
+     * @param usuario Usuario a registrar.
+     * @return {@code true} si se registró; {@code false} si el nickname ya existía.
+     */
+    public synchronized boolean agregar(Usuario usuario) {
+        if (porNickname.putIfAbsent(usuario.getNickname(), usuario) != null) {
+            return false;
+        }
+        synchronized (usuarios) { // Coordina con la copia de PersistenciaDiferida
+            usuarios.add(usuario);
+        }
+        return true;
+    }
+
+    /**
+     * Obtiene la lista maestra (para persistencia y recorridos completos).
+     * @return Lista de usuarios.
+     */
+    public List<Usuario> getUsuarios() {
+        return usuarios;
+    }
+}
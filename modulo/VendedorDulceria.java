@@ -1,5 +1,10 @@
 package mx.unam.fi.cine.modelo;
 
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.time.format.TextStyle;
+import java.util.Locale;
+
 /**
  * Representa al personal operativo encargado del área de alimentos y bebidas en <b>CineByt</b>.
  * <p>
@@ -14,7 +19,7 @@ package mx.unam.fi.cine.modelo;
  * al {@code ControladorDulceria}.
  *
  * @author Equipo CineByt
- * @version 1.0
+ * @version 2.0
  * @see mx.unam.fi.cine.modelo.Empleado
  * @see mx.unam.fi.cine.controlador.ControladorDulceria
  */
@@ -28,11 +33,13 @@ public class VendedorDulceria extends Empleado {
     /**
      * Día de la semana asignado para el descanso del vendedor (ej. "Lunes", "Martes").
      * <p>
-     * Este atributo es informativo para la gestión de recursos humanos y podría ser utilizado
-     * para validar el Login en días no laborales en versiones futuras.
+     * La cocina de la dulcería no asigna órdenes al vendedor en este día ({@link #estaEnTurno}).
      */
     private String diaDescanso;
 
+    /** Configuración regional para los nombres de los días. */
+    private static final Locale LOCALE_ES = new Locale("es", "MX");
+
     /**
      * Constructor principal para registrar un nuevo Vendedor de Dulcería.
      * <p>
@@ -73,6 +80,32 @@ public class VendedorDulceria extends Empleado {
      */
     public void setDiaDescanso(String diaDescanso) { this.diaDescanso = diaDescanso; }
 
+    /**
+     * Indica si el vendedor está en turno en un momento dado: la hora cae dentro de su {@link Turno}
+     * y el día no es su día de descanso.
+     * <p>
+     * El día de descanso se compara sin distinguir mayúsculas ni acentos (ej. "Miercoles" equivale a "miércoles"),
+     * contra el día en que <b>inició</b> el turno ({@link Turno#diaDeInicio}): quien descansa el martes trabaja
+     * completo el turno nocturno del lunes (hasta las 03:00 del martes) y no el del martes.
+     *
+     * @param momento Fecha y hora a evaluar.
+     * @return {@code true} si puede atender órdenes en ese momento.
+     */
+    public boolean estaEnTurno(LocalDateTime momento) {
+        if (getTurno() == null || !getTurno().cubre(momento.toLocalTime())) return false;
+        String dia = getTurno().diaDeInicio(momento).getDayOfWeek().getDisplayName(TextStyle.FULL, LOCALE_ES);
+        return diaDescanso == null || !normalizar(dia).equals(normalizar(diaDescanso));
+    }
+
+    /**
+     * Elimina acentos, espacios y mayúsculas de un nombre de día.
+     * @param texto Texto a normalizar.
+     * @return Texto comparable.
+     */
+    private static String normalizar(String texto) {
+        return Normalizer.normalize(texto.trim(), Normalizer.Form.NFD).replaceAll("\\p{M}", "").toLowerCase(LOCALE_ES);
+    }
+
     /**
      * Representación textual del Vendedor.
      * <p>